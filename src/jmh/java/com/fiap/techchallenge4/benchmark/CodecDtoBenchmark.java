@@ -0,0 +1,55 @@
+package com.fiap.techchallenge4.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaEstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PreparaEntregaDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pjmh test-compile exec:exec -Djmh.filtro=CodecDtoBenchmark
+// ObjectMapper montado como o do Spring Boot (Jackson2ObjectMapperBuilder), o mesmo usado no controller e no outbox
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecDtoBenchmark {
+
+    @Param({"CriaPedidoDTO", "AtualizaPedidoDTO", "PreparaEntregaDTO", "AtualizaEstoqueDTO"})
+    public String dto;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Object valor;
+    private byte[] json;
+
+    @Setup
+    public void prepara() throws IOException {
+        this.valor = switch (this.dto) {
+            case "CriaPedidoDTO" -> new CriaPedidoDTO(7894900011517L, "71622958004", 1L);
+            case "AtualizaPedidoDTO" -> new AtualizaPedidoDTO(123456L, StatusAtualizaPedidoEnum.EM_TRANSPORTE);
+            case "PreparaEntregaDTO" -> new PreparaEntregaDTO(123456L, "71622958004", 7894900011517L, 1L);
+            case "AtualizaEstoqueDTO" -> new AtualizaEstoqueDTO(7894900011517L, 1L, StatusEstoqueEnum.RETIRA_DO_ESTOQUE);
+            default -> throw new IllegalArgumentException("DTO INVALIDO: " + this.dto);
+        };
+        this.json = this.objectMapper.writeValueAsBytes(this.valor);
+    }
+
+    @Benchmark
+    public byte[] serializa() throws IOException {
+        return this.objectMapper.writeValueAsBytes(this.valor);
+    }
+
+    @Benchmark
+    public Object desserializa() throws IOException {
+        return this.objectMapper.readValue(this.json, this.valor.getClass());
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.fiap.techchallenge4.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.codec.CodificadorEventos;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaEstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.CancelaEntregaDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PreparaEntregaDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pjmh test-compile exec:exec -Djmh.filtro=CodecEventosBenchmark
+// JSON x CBOR dos eventos que passam pelo RabbitMQ. O tamanho de cada payload sai no log do fork, antes das medicoes.
+// codificaNoRelay mede o que o relay do outbox faz por evento: do JSON gravado no outbox para os bytes publicados
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecEventosBenchmark {
+
+    private static final String DESTINO = "destino";
+
+    @Param({"AtualizaEstoqueDTO", "PreparaEntregaDTO", "CancelaEntregaDTO", "AtualizaPedidoDTO"})
+    public String evento;
+
+    @Param({"json", "cbor"})
+    public String formato;
+
+    private ObjectMapper objectMapper;
+    private CodificadorEventos codificador;
+    private Object valor;
+    private String payloadDoOutbox;
+    private byte[] bytes;
+
+    @Setup
+    public void prepara() throws IOException {
+        this.objectMapper = "cbor".equals(this.formato)
+                ? Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        this.codificador = new CodificadorEventos("cbor".equals(this.formato) ? Set.of(DESTINO) : Set.of());
+        this.valor = switch (this.evento) {
+            case "AtualizaEstoqueDTO" -> new AtualizaEstoqueDTO(7894900011517L, 1L, StatusEstoqueEnum.RETIRA_DO_ESTOQUE);
+            case "PreparaEntregaDTO" -> new PreparaEntregaDTO(123456L, "71622958004", 7894900011517L, 1L);
+            case "CancelaEntregaDTO" -> new CancelaEntregaDTO(123456L);
+            case "AtualizaPedidoDTO" -> new AtualizaPedidoDTO(123456L, StatusAtualizaPedidoEnum.EM_TRANSPORTE);
+            default -> throw new IllegalArgumentException("EVENTO INVALIDO: " + this.evento);
+        };
+        this.payloadDoOutbox = Jackson2ObjectMapperBuilder.json().build().writeValueAsString(this.valor);
+        this.bytes = this.objectMapper.writeValueAsBytes(this.valor);
+        System.out.println("Tamanho do payload " + this.evento + " em " + this.formato + ": " + this.bytes.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] serializa() throws IOException {
+        return this.objectMapper.writeValueAsBytes(this.valor);
+    }
+
+    @Benchmark
+    public Object desserializa() throws IOException {
+        return this.objectMapper.readValue(this.bytes, this.valor.getClass());
+    }
+
+    @Benchmark
+    public byte[] codificaNoRelay() {
+        return this.codificador.codifica(DESTINO, this.payloadDoOutbox);
+    }
+
+}
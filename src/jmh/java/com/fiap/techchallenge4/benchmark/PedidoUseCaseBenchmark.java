@@ -0,0 +1,179 @@
+package com.fiap.techchallenge4.benchmark;
+
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.cliente.client.ClienteClient;
+import com.fiap.techchallenge4.infrastructure.cliente.client.response.ClienteDTO;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraAposEscrita;
+import com.fiap.techchallenge4.infrastructure.estatisticas.ContadoresStatusPedido;
+import com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import com.fiap.techchallenge4.infrastructure.outbox.OutboxEventos;
+import com.fiap.techchallenge4.infrastructure.produto.client.ProdutoClient;
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.repository.OutboxEventoRepository;
+import com.fiap.techchallenge4.infrastructure.repository.PedidoRepository;
+import com.fiap.techchallenge4.useCase.impl.PedidoUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// mvn -Pjmh test-compile exec:exec -Djmh.filtro=PedidoUseCaseBenchmark
+// Custo de CPU e alocacao do caso de uso sem rede nem banco: clients, repositorios e transacao sao stubs em memoria.
+// O StreamBridge nao aparece aqui porque o caso de uso so grava no outbox; a serializacao dos eventos entra na conta
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PedidoUseCaseBenchmark {
+
+    private static final String CPF = "71622958004";
+    private static final long EAN = 7894900011517L;
+
+    @Param({"false", "true"})
+    public boolean consultaParalela;
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private PrintStream saidaOriginal;
+    private ExecutorService executorConsulta;
+    private PedidoUseCaseImpl useCase;
+    private CriaPedidoDTO dadosPedido;
+    private AtualizaPedidoDTO evento;
+
+    @Setup
+    public void prepara() {
+        // Os println do caso de uso iriam para o terminal e custariam mais que o caminho medido
+        this.saidaOriginal = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+
+        final var cliente = new ClienteDTO(CPF, "Cliente Teste", "Rua Teste", 123, "SP", LocalDateTime.now());
+        final ClienteClient clienteClient = cpf -> cliente;
+        final var produtoClient = new ProdutoClient() {
+            @Override
+            public Boolean temEstoque(final Long ean,
+                                     final Long quantidade) {
+                return true;
+            }
+
+            @Override
+            public List<EstoqueDTO> listaEstoque() {
+                return List.of();
+            }
+        };
+
+        this.executorConsulta = Executors.newVirtualThreadPerTaskExecutor();
+        this.useCase = new PedidoUseCaseImpl(
+                produtoClient,
+                clienteClient,
+                new OutboxEventos(this.outboxEventoRepository(), Jackson2ObjectMapperBuilder.json().build(), evento -> {}),
+                this.pedidoRepository(),
+                new TransactionTemplate(new TransacaoEmMemoria()),
+                this.executorConsulta,
+                Runnable::run,
+                new MetricasPedido(new SimpleMeterRegistry()),
+                new LeituraAposEscrita(Duration.ofSeconds(5)),
+                new ContadoresStatusPedido(),
+                3000,
+                this.consultaParalela,
+                1000
+        );
+        this.dadosPedido = new CriaPedidoDTO(EAN, CPF, 1L);
+        this.evento = new AtualizaPedidoDTO(1L, StatusAtualizaPedidoEnum.EM_TRANSPORTE);
+    }
+
+    @TearDown
+    public void finaliza() {
+        this.executorConsulta.close();
+        System.setOut(this.saidaOriginal);
+    }
+
+    @Benchmark
+    public boolean cria() {
+        return this.useCase.cria(this.dadosPedido);
+    }
+
+    @Benchmark
+    public boolean cancela() {
+        return this.useCase.cancela(1L);
+    }
+
+    @Benchmark
+    public void atualiza() {
+        this.useCase.atualiza(this.evento);
+    }
+
+    // Stub em memoria so com os metodos que o caso de uso chama nesses caminhos; os demais falham para nao mascarar mudancas
+    private PedidoRepository pedidoRepository() {
+        return (PedidoRepository) Proxy.newProxyInstance(
+                PedidoRepository.class.getClassLoader(),
+                new Class<?>[]{PedidoRepository.class},
+                (proxy, metodo, argumentos) -> switch (metodo.getName()) {
+                    case "save" -> {
+                        final var pedido = (PedidoEntity) argumentos[0];
+                        pedido.setId(this.sequencia.incrementAndGet());
+                        yield pedido;
+                    }
+                    case "transicionaStatus" -> Optional.of(PedidoEntity.builder()
+                            .id((Long) argumentos[0])
+                            .cpfCliente(CPF)
+                            .ean(EAN)
+                            .quantidade(1L)
+                            .statusPedido((StatusPedidoEnum) argumentos[2])
+                            .dataDeCriacao(LocalDateTime.now())
+                            .build());
+                    case "atualizaStatus" -> 1;
+                    case "registraCriacao" -> null;
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                }
+        );
+    }
+
+    private OutboxEventoRepository outboxEventoRepository() {
+        return (OutboxEventoRepository) Proxy.newProxyInstance(
+                OutboxEventoRepository.class.getClassLoader(),
+                new Class<?>[]{OutboxEventoRepository.class},
+                (proxy, metodo, argumentos) -> switch (metodo.getName()) {
+                    case "save" -> argumentos[0];
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                }
+        );
+    }
+
+    private static final class TransacaoEmMemoria implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(final TransactionDefinition definicao) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(final TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(final TransactionStatus status) {
+        }
+
+    }
+
+}
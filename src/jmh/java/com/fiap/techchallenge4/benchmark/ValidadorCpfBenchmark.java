@@ -0,0 +1,39 @@
+package com.fiap.techchallenge4.benchmark;
+
+import com.fiap.techchallenge4.domain.ValidadorCpf;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pjmh test-compile exec:exec -Djmh.filtro=ValidadorCpfBenchmark
+// ns/op na coluna Score; bytes/op na linha gc.alloc.rate.norm do profiler de GC
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidadorCpfBenchmark {
+
+    // Regex que o construtor do Pedido usava ate entao, via String.matches
+    private static final String REGEX_CPF = "(^\\d{3}\\.?\\d{3}\\.?\\d{3}-?\\d{2}$)";
+
+    @Param({"71622958004", "716.229.580-04", "71622958005"})
+    public String cpf;
+
+    @Benchmark
+    public boolean regex() {
+        return this.cpf.matches(REGEX_CPF);
+    }
+
+    @Benchmark
+    public boolean validador() {
+        return ValidadorCpf.valido(this.cpf);
+    }
+
+    @Benchmark
+    public String validadorNormalizando() {
+        return ValidadorCpf.normaliza(this.cpf);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.fiap.techchallenge4.domain;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Objects;
+
+@Getter
+public class CursorPedido {
+
+    private static final String SEPARADOR = "|";
+
+    private LocalDateTime dataDeCriacao;
+    private Long id;
+
+    public CursorPedido(final LocalDateTime dataDeCriacao,
+                        final Long id) {
+        if (Objects.isNull(dataDeCriacao) || Objects.isNull(id)) {
+            throw new IllegalArgumentException("CURSOR INVALIDO!");
+        }
+
+        this.dataDeCriacao = dataDeCriacao;
+        this.id = id;
+    }
+
+    // Cursor opaco para o cliente da API: posicao (data_de_criacao, id) do ultimo pedido da pagina
+    public String codifica() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((this.dataDeCriacao + SEPARADOR + this.id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorPedido decodifica(final String cursor) {
+        try {
+            final var valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final var separador = valor.lastIndexOf(SEPARADOR);
+            return new CursorPedido(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("CURSOR INVALIDO!");
+        }
+    }
+
+}
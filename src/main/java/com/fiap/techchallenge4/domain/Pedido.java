@@ -10,15 +10,14 @@ public class Pedido {
     private Long ean;
     private Long quantidade;
 
-    public static final String REGEX_CPF = "(^\\d{3}\\.?\\d{3}\\.?\\d{3}-?\\d{2}$)";
-
     public Pedido(final String cpfCliente,
                   final Long ean,
                   final Long quantidade) {
         if (Objects.isNull(cpfCliente) || cpfCliente.isEmpty()) {
             throw new IllegalArgumentException("CPF NAO PODE SER NULO OU VAZIO!");
         }
-        if (!cpfCliente.matches(REGEX_CPF)) {
+        final var cpfNormalizado = ValidadorCpf.normaliza(cpfCliente);
+        if (Objects.isNull(cpfNormalizado)) {
             throw new IllegalArgumentException("CPF DO CLIENTE INVÁLIDO!");
         }
 
@@ -30,7 +29,7 @@ public class Pedido {
             throw new IllegalArgumentException("QUANTIDADE NAO PODE SER NULO OU MENOR E IGUAL A ZERO E MAIOR QUE 1000!");
         }
 
-        this.cpfCliente = cpfCliente;
+        this.cpfCliente = cpfNormalizado;
         this.ean = ean;
         this.quantidade = quantidade;
     }
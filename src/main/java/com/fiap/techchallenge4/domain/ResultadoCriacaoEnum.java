@@ -0,0 +1,10 @@
+package com.fiap.techchallenge4.domain;
+
+public enum ResultadoCriacaoEnum {
+
+    CRIADO,
+    RECUSADO,
+    FALHOU
+    ;
+
+}
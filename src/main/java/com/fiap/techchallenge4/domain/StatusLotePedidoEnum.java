@@ -0,0 +1,12 @@
+package com.fiap.techchallenge4.domain;
+
+public enum StatusLotePedidoEnum {
+
+    CRIADO,
+    INVALIDO,
+    CLIENTE_NAO_ENCONTRADO,
+    SEM_ESTOQUE,
+    ERRO
+    ;
+
+}
@@ -5,7 +5,9 @@ public enum StatusPedidoEnum {
     CRIADO,
     CANCELADO,
     EM_TRANSPORTE,
-    ENTREGUE
+    ENTREGUE,
+    PENDENTE,
+    RECUSADO
     ;
 
 }
@@ -0,0 +1,97 @@
+package com.fiap.techchallenge4.domain;
+
+import java.util.Objects;
+
+public final class ValidadorCpf {
+
+    private static final int QUANTIDADE_DE_DIGITOS = 11;
+    private static final int TAMANHO_FORMATADO = 14;
+
+    private ValidadorCpf() {
+    }
+
+    public static boolean valido(final String cpf) {
+        return confere(cpf);
+    }
+
+    // Forma canonica com 11 digitos; o proprio valor e devolvido quando ja chega sem pontuacao
+    public static String normaliza(final String cpf) {
+        if (!confere(cpf)) {
+            return null;
+        }
+        if (cpf.length() == QUANTIDADE_DE_DIGITOS) {
+            return cpf;
+        }
+        final var digitos = new char[QUANTIDADE_DE_DIGITOS];
+        var posicao = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            final var caractere = cpf.charAt(i);
+            if (caractere >= '0' && caractere <= '9') {
+                digitos[posicao++] = caractere;
+            }
+        }
+        return new String(digitos);
+    }
+
+    // Uma passada pelos caracteres: formato 000.000.000-00 (pontuacao opcional), os dois digitos
+    // verificadores e sequencias repetidas (000.000.000-00, 111.111.111-11...), sem alocar nada
+    private static boolean confere(final String cpf) {
+        if (Objects.isNull(cpf)) {
+            return false;
+        }
+        final var tamanho = cpf.length();
+        if (tamanho < QUANTIDADE_DE_DIGITOS || tamanho > TAMANHO_FORMATADO) {
+            return false;
+        }
+
+        var digitos = 0;
+        var somaPrimeiroVerificador = 0;
+        var somaSegundoVerificador = 0;
+        var primeiroVerificador = 0;
+        var segundoVerificador = 0;
+        var primeiroDigito = 0;
+        var todosIguais = true;
+        var anteriorEraDigito = false;
+        for (int i = 0; i < tamanho; i++) {
+            final var caractere = cpf.charAt(i);
+            if (caractere >= '0' && caractere <= '9') {
+                if (digitos == QUANTIDADE_DE_DIGITOS) {
+                    return false;
+                }
+                final var digito = caractere - '0';
+                if (digitos < 9) {
+                    somaPrimeiroVerificador += digito * (10 - digitos);
+                    somaSegundoVerificador += digito * (11 - digitos);
+                } else if (digitos == 9) {
+                    primeiroVerificador = digito;
+                    somaSegundoVerificador += digito * 2;
+                } else {
+                    segundoVerificador = digito;
+                }
+                if (digitos == 0) {
+                    primeiroDigito = digito;
+                } else if (digito != primeiroDigito) {
+                    todosIguais = false;
+                }
+                digitos++;
+                anteriorEraDigito = true;
+            } else if (anteriorEraDigito
+                    && ((caractere == '.' && (digitos == 3 || digitos == 6)) || (caractere == '-' && digitos == 9))) {
+                anteriorEraDigito = false;
+            } else {
+                return false;
+            }
+        }
+
+        return digitos == QUANTIDADE_DE_DIGITOS
+                && !todosIguais
+                && primeiroVerificador == verificador(somaPrimeiroVerificador)
+                && segundoVerificador == verificador(somaSegundoVerificador);
+    }
+
+    private static int verificador(final int soma) {
+        final var resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+}
@@ -5,9 +5,12 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "cliente", url = "http://172.17.0.1:8083/cliente")
+@FeignClient(name = "cliente", url = "${pedido.http.cliente.url:http://172.17.0.1:8083/cliente}", qualifiers = ClienteClient.FEIGN_CLIENT, primary = false)
 public interface ClienteClient {
 
+    String FEIGN_CLIENT = "clienteFeignClient";
+    String CLIENT_RESILIENTE = "clienteClientResiliente";
+
     @GetMapping(value = "/{cpf}")
     ClienteDTO pegaCliente(@PathVariable(value = "cpf") final String cpf);
 
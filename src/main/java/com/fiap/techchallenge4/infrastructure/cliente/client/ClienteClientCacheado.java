@@ -0,0 +1,126 @@
+package com.fiap.techchallenge4.infrastructure.cliente.client;
+
+import com.fiap.techchallenge4.infrastructure.cliente.client.response.ClienteDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Primary
+@Component
+public class ClienteClientCacheado implements ClienteClient {
+
+    public static final String NOME_CACHE = "cliente";
+
+    private final ClienteClient clientCliente;
+    private final AsyncCache<String, Optional<ClienteDTO>> cache;
+    private final boolean habilitado;
+
+    public ClienteClientCacheado(@Qualifier(CLIENT_RESILIENTE) final ClienteClient clientCliente,
+                                 final MeterRegistry registry,
+                                 @Value("${pedido.cliente.cache.habilitado:true}") final boolean habilitado,
+                                 @Value("${pedido.cliente.cache.ttl:10m}") final Duration ttl,
+                                 @Value("${pedido.cliente.cache.ttl-nao-encontrado:30s}") final Duration ttlNaoEncontrado,
+                                 @Value("${pedido.cliente.cache.tamanho-maximo:100000}") final long tamanhoMaximo) {
+        this.clientCliente = clientCliente;
+        this.habilitado = habilitado;
+        // Caffeine despeja pelo W-TinyLFU ao atingir o tamanho maximo; cliente nao encontrado expira mais cedo
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new Expiry<String, Optional<ClienteDTO>>() {
+                    @Override
+                    public long expireAfterCreate(final String cpf,
+                                                  final Optional<ClienteDTO> cliente,
+                                                  final long tempoAtual) {
+                        return cliente.isPresent() ? ttl.toNanos() : ttlNaoEncontrado.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final String cpf,
+                                                  final Optional<ClienteDTO> cliente,
+                                                  final long tempoAtual,
+                                                  final long duracaoAtual) {
+                        return this.expireAfterCreate(cpf, cliente, tempoAtual);
+                    }
+
+                    @Override
+                    public long expireAfterRead(final String cpf,
+                                                final Optional<ClienteDTO> cliente,
+                                                final long tempoAtual,
+                                                final long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, this.cache, NOME_CACHE);
+    }
+
+    @Override
+    public ClienteDTO pegaCliente(final String cpf) {
+        if(!this.habilitado || Objects.isNull(cpf)) {
+            return this.consulta(cpf);
+        }
+        final var cpfNormalizado = normalizaCpf(cpf);
+
+        // A consulta HTTP roda fora do compute do mapa (que segura um monitor e prenderia a carrier thread de uma
+        // virtual thread); quem chega durante a consulta espera o mesmo future em vez de repetir a chamada
+        final var carregamento = new CompletableFuture<Optional<ClienteDTO>>();
+        final var cliente = this.cache.get(cpfNormalizado, (chave, executor) -> carregamento);
+        if(cliente == carregamento) {
+            try {
+                carregamento.complete(Optional.ofNullable(this.consulta(cpfNormalizado)));
+            } catch (Throwable e) {
+                // Error tambem completa o future: quem ja esta esperando nele nao fica preso no join
+                carregamento.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return cliente.join().orElse(null);
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if(e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw e;
+        }
+    }
+
+    // O Feign responde 404 com FeignException.NotFound, nunca com null: e a resposta "cliente nao encontrado",
+    // que vai para o cache com o ttl-nao-encontrado
+    private ClienteDTO consulta(final String cpf) {
+        try {
+            return this.clientCliente.pegaCliente(cpf);
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+    }
+
+    private static String normalizaCpf(final String cpf) {
+        final var somenteDigitos = new StringBuilder(11);
+        for (int i = 0; i < cpf.length(); i++) {
+            final var caractere = cpf.charAt(i);
+            if(caractere >= '0' && caractere <= '9') {
+                somenteDigitos.append(caractere);
+            }
+        }
+        return somenteDigitos.toString();
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.fiap.techchallenge4.infrastructure.cliente.client;
+
+import com.fiap.techchallenge4.infrastructure.cliente.client.response.ClienteDTO;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ChamadaResiliente;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import static com.fiap.techchallenge4.infrastructure.resiliencia.ChamadaResiliente.CLIENTE;
+
+// Fica entre o ClienteClientCacheado e o Feign: acerto no cache nao passa pelo circuit breaker
+@Component(ClienteClient.CLIENT_RESILIENTE)
+public class ClienteClientResiliente implements ClienteClient {
+
+    private final ClienteClient clientCliente;
+    private final ChamadaResiliente chamadaResiliente;
+
+    public ClienteClientResiliente(@Qualifier(FEIGN_CLIENT) final ClienteClient clientCliente,
+                                   final ChamadaResiliente chamadaResiliente) {
+        this.clientCliente = clientCliente;
+        this.chamadaResiliente = chamadaResiliente;
+    }
+
+    @Override
+    public ClienteDTO pegaCliente(final String cpf) {
+        return this.chamadaResiliente.executa(CLIENTE, () -> this.clientCliente.pegaCliente(cpf));
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.fiap.techchallenge4.infrastructure.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+// O outbox guarda o evento em JSON; na publicacao, os destinos de pedido.eventos.cbor.destinos recebem o mesmo evento
+// em CBOR (application/cbor). A conversao e de token em token, sem montar o objeto nem a arvore do JSON
+@Component
+public class CodificadorEventos {
+
+    public static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+
+    private final Set<String> destinosCbor;
+    private final JsonFactory json = new JsonFactory();
+    private final CBORFactory cbor = new CBORFactory();
+
+    public CodificadorEventos(@Value("${pedido.eventos.cbor.destinos:}") final Set<String> destinosCbor) {
+        this.destinosCbor = destinosCbor;
+    }
+
+    public MimeType contentType(final String destino) {
+        return this.destinosCbor.contains(destino)
+                ? APPLICATION_CBOR
+                : MimeTypeUtils.APPLICATION_JSON;
+    }
+
+    public byte[] codifica(final String destino,
+                           final String payload) {
+        if(!this.destinosCbor.contains(destino)) {
+            return payload.getBytes(StandardCharsets.UTF_8);
+        }
+        try (final var parser = this.json.createParser(payload);
+             final var saida = new ByteArrayOutputStream(payload.length());
+             final var gerador = this.cbor.createGenerator(saida)) {
+            parser.nextToken();
+            gerador.copyCurrentStructure(parser);
+            gerador.flush();
+            return saida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("EVENTO DO OUTBOX NAO PODE SER CONVERTIDO PARA CBOR!", e);
+        }
+    }
+
+}
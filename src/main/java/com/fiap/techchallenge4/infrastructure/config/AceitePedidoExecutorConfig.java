@@ -0,0 +1,36 @@
+package com.fiap.techchallenge4.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AceitePedidoExecutorConfig {
+
+    public static final String ACEITE_EXECUTOR = "aceiteExecutor";
+
+    // Fila limitada mesmo com virtual threads: e ela que segura a carga quando cliente e estoque respondem devagar;
+    // cheia, o POST /pedido responde 503 em vez de aceitar um pedido que ficaria parado
+    @Bean(name = ACEITE_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService aceiteExecutor(@Value("${pedido.aceite-assincrono.threads:16}") final int threads,
+                                          @Value("${pedido.aceite-assincrono.fila:1000}") final int fila) {
+        final var executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila),
+                new CustomizableThreadFactory("aceite-pedido-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
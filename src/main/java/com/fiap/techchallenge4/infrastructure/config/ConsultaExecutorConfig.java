@@ -0,0 +1,43 @@
+package com.fiap.techchallenge4.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ConsultaExecutorConfig {
+
+    public static final String CONSULTA_EXECUTOR = "consultaExecutor";
+
+    @Bean(name = CONSULTA_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService consultaExecutor(@Value("${pedido.consulta.threads:32}") final int threads,
+                                            @Value("${pedido.consulta.fila:512}") final int fila,
+                                            @Value("${spring.threads.virtual.enabled:false}") final boolean threadsVirtuais) {
+        // Com virtual threads cada consulta ganha a sua; o limite passa a ser o pool de conexoes HTTP
+        if(threadsVirtuais) {
+            return Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("consulta-pedido-", 0).factory()
+            );
+        }
+
+        final var executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila),
+                new CustomizableThreadFactory("consulta-pedido-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
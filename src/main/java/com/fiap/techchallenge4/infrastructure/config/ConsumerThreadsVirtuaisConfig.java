@@ -0,0 +1,27 @@
+package com.fiap.techchallenge4.infrastructure.config;
+
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConsumerThreadsVirtuaisConfig {
+
+    // Os containers do binder do Rabbit nao passam pela factory do Spring Boot, entao o
+    // spring.threads.virtual.enabled nao chega neles sem este customizer
+    @Bean
+    public ListenerContainerCustomizer<MessageListenerContainer> consumerEmThreadsVirtuais() {
+        return (container, destino, grupo) -> {
+            if(container instanceof AbstractMessageListenerContainer containerRabbit) {
+                containerRabbit.setTaskExecutor(new VirtualThreadTaskExecutor("consumer-" + destino + "-"));
+            }
+        };
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.fiap.techchallenge4.infrastructure.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fiap.techchallenge4.infrastructure.codec.CodificadorEventos;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+
+@Configuration
+public class ConversorCborConfig {
+
+    // O Spring Cloud Stream escolhe o conversor pelo content-type da mensagem: eventos em application/cbor passam por este,
+    // os em JSON continuam no conversor padrao, entao produtores antigos e novos convivem durante a migracao.
+    // Mesmo builder do Spring Boot, para o CBOR ter os mesmos modulos e configuracoes do JSON
+    @Bean
+    public MessageConverter conversorCbor(final Jackson2ObjectMapperBuilder builder) {
+        final var conversor = new MappingJackson2MessageConverter(CodificadorEventos.APPLICATION_CBOR);
+        conversor.setObjectMapper(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+        conversor.setStrictContentTypeMatch(true);
+        return conversor;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.fiap.techchallenge4.infrastructure.config;
+
+import com.fiap.techchallenge4.infrastructure.datasource.ReplicasDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// So entra com pedido.datasource.replica.urls preenchido; sem replicas o DataSource continua o do Spring Boot.
+// O proxy lazy so pega a conexao real no primeiro comando, depois que a transacao ja marcou a conexao como read-only
+@Configuration
+@ConditionalOnExpression("!'${pedido.datasource.replica.urls:}'.isBlank()")
+public class DataSourceReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(final DataSourceProperties propriedades) {
+        final var primario = propriedades.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primario.setPoolName("primario");
+        return primario;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicasDataSource replicasDataSource(final HikariDataSource dataSourcePrimario,
+                                                 final DataSourceProperties propriedades,
+                                                 final MeterRegistry registry,
+                                                 @Value("${pedido.datasource.replica.urls}") final List<String> urlsReplicas,
+                                                 @Value("${pedido.datasource.replica.conexoes-maximas:10}") final int conexoesMaximas,
+                                                 @Value("${pedido.datasource.replica.connection-timeout:500ms}") final Duration connectionTimeout,
+                                                 @Value("${pedido.datasource.replica.quarentena:30s}") final Duration quarentena) {
+        final var replicas = new ArrayList<DataSource>(urlsReplicas.size());
+        for (int i = 0; i < urlsReplicas.size(); i++) {
+            final var replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urlsReplicas.get(i).trim());
+            replica.setUsername(propriedades.determineUsername());
+            replica.setPassword(propriedades.determinePassword());
+            replica.setDriverClassName(propriedades.determineDriverClassName());
+            replica.setMaximumPoolSize(conexoesMaximas);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            // Replica fora do ar na subida nao impede a app de subir: as leituras ficam no primario
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicas.add(replica);
+        }
+        return new ReplicasDataSource(dataSourcePrimario, replicas, quarentena);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final HikariDataSource dataSourcePrimario,
+                                 final ReplicasDataSource replicasDataSource) {
+        final var dataSource = new LazyConnectionDataSourceProxy(dataSourcePrimario);
+        dataSource.setReadOnlyDataSource(replicasDataSource);
+        return dataSource;
+    }
+
+}
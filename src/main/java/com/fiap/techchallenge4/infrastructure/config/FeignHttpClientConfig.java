@@ -0,0 +1,116 @@
+package com.fiap.techchallenge4.infrastructure.config;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+// Transporte dos clientes Feign com pool de conexoes keep-alive do Apache HttpClient 5, com limite e tempo de vida
+// por destino; com FEIGN_HC5=false volta o HttpURLConnection padrao do Feign
+@Configuration
+@ConditionalOnProperty(value = "spring.cloud.openfeign.httpclient.hc5.enabled", havingValue = "true", matchIfMissing = true)
+public class FeignHttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(@Value("${pedido.http.pool.conexoes-maximas:200}") final int conexoesMaximas,
+                                                                     @Value("${pedido.http.produto.url:http://172.17.0.1:8080/produto}") final String urlProduto,
+                                                                     @Value("${pedido.http.produto.conexoes-maximas:64}") final int conexoesMaximasProduto,
+                                                                     @Value("${pedido.http.produto.keep-alive:60s}") final Duration keepAliveProduto,
+                                                                     @Value("${pedido.http.produto.connect-timeout:500ms}") final Duration connectTimeoutProduto,
+                                                                     @Value("${pedido.http.cliente.url:http://172.17.0.1:8083/cliente}") final String urlCliente,
+                                                                     @Value("${pedido.http.cliente.conexoes-maximas:64}") final int conexoesMaximasCliente,
+                                                                     @Value("${pedido.http.cliente.keep-alive:60s}") final Duration keepAliveCliente,
+                                                                     @Value("${pedido.http.cliente.connect-timeout:500ms}") final Duration connectTimeoutCliente,
+                                                                     final MeterRegistry registry) {
+        final var rotaProduto = rota(urlProduto);
+        final var rotaCliente = rota(urlCliente);
+        final var configuracoes = Map.of(
+                rotaProduto, configuracao(keepAliveProduto, connectTimeoutProduto),
+                rotaCliente, configuracao(keepAliveCliente, connectTimeoutCliente)
+        );
+
+        // LIFO reaproveita as conexoes mais quentes e deixa as demais expirarem por inatividade
+        final var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(conexoesMaximas)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .build();
+        connectionManager.setConnectionConfigResolver(rotaAtual ->
+                configuracoes.getOrDefault(rotaAtual, ConnectionConfig.DEFAULT));
+        connectionManager.setMaxPerRoute(rotaProduto, conexoesMaximasProduto);
+        connectionManager.setMaxPerRoute(rotaCliente, conexoesMaximasCliente);
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "feign").bindTo(registry);
+        registraMetricasDaRota(registry, connectionManager, "produto", rotaProduto);
+        registraMetricasDaRota(registry, connectionManager, "cliente", rotaCliente);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(final PoolingHttpClientConnectionManager feignConnectionManager,
+                                               @Value("${pedido.http.pool.inatividade-maxima:30s}") final Duration inatividadeMaxima) {
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(inatividadeMaxima))
+                .disableCookieManagement()
+                .disableRedirectHandling()
+                .build();
+    }
+
+    @Bean
+    public Client feignClient(final CloseableHttpClient feignHttpClient) {
+        return new ApacheHttp5Client(feignHttpClient);
+    }
+
+    private static HttpRoute rota(final String url) {
+        final var uri = URI.create(url);
+        final var seguro = "https".equalsIgnoreCase(uri.getScheme());
+        final var porta = uri.getPort() != -1 ? uri.getPort() : (seguro ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), porta), null, seguro);
+    }
+
+    private static ConnectionConfig configuracao(final Duration keepAlive,
+                                                 final Duration connectTimeout) {
+        return ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.of(keepAlive))
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+    }
+
+    private static void registraMetricasDaRota(final MeterRegistry registry,
+                                               final PoolingHttpClientConnectionManager connectionManager,
+                                               final String destino,
+                                               final HttpRoute rota) {
+        Gauge.builder("pedido.http.pool.conexoes", connectionManager, pool -> pool.getStats(rota).getLeased())
+                .tag("destino", destino).tag("estado", "em-uso").register(registry);
+        Gauge.builder("pedido.http.pool.conexoes", connectionManager, pool -> pool.getStats(rota).getAvailable())
+                .tag("destino", destino).tag("estado", "livre").register(registry);
+        Gauge.builder("pedido.http.pool.conexoes", connectionManager, pool -> pool.getStats(rota).getPending())
+                .tag("destino", destino).tag("estado", "aguardando").register(registry);
+        Gauge.builder("pedido.http.pool.conexoes.maximo", connectionManager, pool -> pool.getMaxPerRoute(rota))
+                .tag("destino", destino).register(registry);
+    }
+
+}
@@ -2,18 +2,30 @@ package com.fiap.techchallenge4.infrastructure.consumer;
 
 import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
 import com.fiap.techchallenge4.useCase.PedidoUseCase;
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.integration.amqp.inbound.AmqpInboundChannelAdapter;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 @Service
 public class ConsumerAtualizaPedido {
 
     private final PedidoUseCase service;
+    private final int tentativas;
 
-    public ConsumerAtualizaPedido(final PedidoUseCase service) {
+    public ConsumerAtualizaPedido(final PedidoUseCase service,
+                                  @Value("${pedido.atualiza.lote.tentativas:3}") final int tentativas) {
         this.service = service;
+        this.tentativas = tentativas;
     }
 
     @Bean
@@ -24,5 +36,87 @@ public class ConsumerAtualizaPedido {
         };
     }
 
+    // Binding em batch-mode com ack manual: cada mensagem do lote e confirmada ou devolvida individualmente.
+    // Se o lote falha, a mensagem entregue pela primeira vez volta para a fila; a que ja voltou uma vez e aplicada
+    // sozinha, com retentativas, e descartada se ainda falhar. Uma mensagem envenenada nao prende o lote para sempre
+    @Bean
+    public Consumer<Message<List<AtualizaPedidoDTO>>> atualizaLote() {
+        return mensagem -> {
+            final var eventos = mensagem.getPayload();
+            final var canal = mensagem.getHeaders().get(AmqpHeaders.CHANNEL, Channel.class);
+            final var entregas = entregas(mensagem.getHeaders().get(AmqpInboundChannelAdapter.CONSOLIDATED_HEADERS));
+
+            List<Boolean> validos;
+            try {
+                validos = this.service.atualizaLote(eventos);
+            } catch (Exception e) {
+                e.printStackTrace();
+                for (int i = 0; i < eventos.size(); i++) {
+                    if(entregas.get(i).reentregue()) {
+                        confirma(canal, entregas.get(i), this.aplica(eventos.get(i)), false);
+                    } else {
+                        confirma(canal, entregas.get(i), false, true);
+                    }
+                }
+                return;
+            }
+
+            for (int i = 0; i < eventos.size(); i++) {
+                // evento invalido e descartado, como acontece no consumer unitario apos as retentativas
+                confirma(canal, entregas.get(i), validos.get(i), false);
+            }
+            System.out.println(eventos.size() + " evento(s) consumido(s) com sucesso!");
+        };
+    }
+
+    private boolean aplica(final AtualizaPedidoDTO evento) {
+        for (int tentativa = 1; tentativa <= this.tentativas; tentativa++) {
+            try {
+                this.service.atualiza(evento);
+                return true;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Evento de atualizacao invalido: " + evento);
+                return false;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        System.out.println("Evento de atualizacao descartado apos " + this.tentativas + " tentativa(s): " + evento);
+        return false;
+    }
+
+    // Cabecalhos de cada mensagem do lote (delivery tag e flag de reentrega), conferidos em vez de um cast sem checagem
+    private static List<Entrega> entregas(final Object cabecalhosConsolidados) {
+        if(!(cabecalhosConsolidados instanceof List<?> cabecalhos)) {
+            throw new IllegalStateException("Lote sem " + AmqpInboundChannelAdapter.CONSOLIDATED_HEADERS);
+        }
+        final var entregas = new ArrayList<Entrega>(cabecalhos.size());
+        for (final var cabecalho : cabecalhos) {
+            if(!(cabecalho instanceof Map<?, ?> valores) || !(valores.get(AmqpHeaders.DELIVERY_TAG) instanceof Long deliveryTag)) {
+                throw new IllegalStateException("Mensagem do lote sem " + AmqpHeaders.DELIVERY_TAG);
+            }
+            entregas.add(new Entrega(deliveryTag, Boolean.TRUE.equals(valores.get(AmqpHeaders.REDELIVERED))));
+        }
+        return entregas;
+    }
+
+    private static void confirma(final Channel canal,
+                                 final Entrega entrega,
+                                 final boolean aceito,
+                                 final boolean devolveParaFila) {
+        try {
+            if(aceito) {
+                canal.basicAck(entrega.deliveryTag(), false);
+            } else {
+                canal.basicNack(entrega.deliveryTag(), false, devolveParaFila);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private record Entrega(long deliveryTag,
+                           boolean reentregue) {
+    }
 
 }
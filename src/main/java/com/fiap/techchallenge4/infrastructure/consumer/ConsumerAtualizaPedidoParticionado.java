@@ -0,0 +1,97 @@
+package com.fiap.techchallenge4.infrastructure.consumer;
+
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.useCase.PedidoUseCase;
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Consumo particionado de pedido-atualiza-status (PEDIDO_ATUALIZA_CONSUMER=particionaAtualizacao;atualizaParticionado).
+// particionaAtualizacao republica cada evento na particao do seu idDoPedido; cada particao tem um unico consumidor ativo,
+// que distribui os eventos entre as FilasPorPedido. Assim o mesmo pedido nunca e atualizado em paralelo nem fora de ordem
+@Service
+public class ConsumerAtualizaPedidoParticionado implements AutoCloseable {
+
+    public static final String CABECALHO_ID_DO_PEDIDO = "idDoPedido";
+
+    private final PedidoUseCase service;
+    private final FilasPorPedido filas;
+    private final int tentativas;
+
+    public ConsumerAtualizaPedidoParticionado(final PedidoUseCase service,
+                                              @Value("${pedido.atualiza.particionado.workers:8}") final int workers,
+                                              @Value("${pedido.atualiza.particionado.tentativas:3}") final int tentativas) {
+        this.service = service;
+        this.filas = new FilasPorPedido(workers, "atualiza-pedido-");
+        this.tentativas = tentativas;
+    }
+
+    // A chave de particao vai no cabecalho (partition-key-expression=headers['idDoPedido']); evento sem id cai na particao 0
+    // e e descartado pelo consumidor como invalido
+    @Bean
+    public Function<AtualizaPedidoDTO, Message<AtualizaPedidoDTO>> particionaAtualizacao() {
+        return evento -> MessageBuilder.withPayload(evento)
+                .setHeader(CABECALHO_ID_DO_PEDIDO, Objects.requireNonNullElse(evento.idDoPedido(), 0L))
+                .build();
+    }
+
+    // Ack manual: a mensagem so e confirmada depois que a fila do pedido aplica o evento
+    @Bean
+    public Consumer<Message<AtualizaPedidoDTO>> atualizaParticionado() {
+        return mensagem -> {
+            final var evento = mensagem.getPayload();
+            final var canal = mensagem.getHeaders().get(AmqpHeaders.CHANNEL, Channel.class);
+            final var deliveryTag = mensagem.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+            this.filas.executa(evento.idDoPedido(), () -> this.aplica(evento, canal, deliveryTag));
+        };
+    }
+
+    // As retentativas acontecem dentro da fila do pedido, antes do proximo evento dele; depois delas o evento e descartado,
+    // como no consumer "atualiza"
+    private void aplica(final AtualizaPedidoDTO evento,
+                        final Channel canal,
+                        final Long deliveryTag) {
+        for (int tentativa = 1; tentativa <= this.tentativas; tentativa++) {
+            try {
+                this.service.atualiza(evento);
+                confirma(canal, deliveryTag, true);
+                return;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Evento de atualizacao invalido: " + evento);
+                break;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        confirma(canal, deliveryTag, false);
+    }
+
+    private static void confirma(final Channel canal,
+                                 final Long deliveryTag,
+                                 final boolean aceito) {
+        try {
+            if(aceito) {
+                canal.basicAck(deliveryTag, false);
+            } else {
+                canal.basicNack(deliveryTag, false, false);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.filas.close();
+    }
+
+}
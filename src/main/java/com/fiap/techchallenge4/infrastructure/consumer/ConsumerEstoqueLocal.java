@@ -0,0 +1,35 @@
+package com.fiap.techchallenge4.infrastructure.consumer;
+
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaEstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.produto.estoque.EstoqueLocal;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Consumer;
+
+// Bindings sem group: cada instancia recebe todos os eventos e mantem o proprio indice
+@Service
+public class ConsumerEstoqueLocal {
+
+    // Nomes dos beans abaixo, como aparecem em spring.cloud.function.definition
+    public static final String ESTOQUE_ALTERADO = "estoqueAlterado";
+    public static final String ESTOQUE_RETIRADO_POR_PEDIDO = "estoqueRetiradoPorPedido";
+
+    private final EstoqueLocal estoqueLocal;
+
+    public ConsumerEstoqueLocal(final EstoqueLocal estoqueLocal) {
+        this.estoqueLocal = estoqueLocal;
+    }
+
+    @Bean
+    public Consumer<EstoqueDTO> estoqueAlterado() {
+        return this.estoqueLocal::define;
+    }
+
+    @Bean
+    public Consumer<AtualizaEstoqueDTO> estoqueRetiradoPorPedido() {
+        return evento -> this.estoqueLocal.aplica(evento.ean(), evento.quantidade(), evento.statusEstoque());
+    }
+
+}
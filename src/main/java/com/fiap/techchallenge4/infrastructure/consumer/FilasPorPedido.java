@@ -0,0 +1,51 @@
+package com.fiap.techchallenge4.infrastructure.consumer;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Uma thread por fila e o pedido sempre na mesma fila: eventos do mesmo pedido rodam na ordem de chegada,
+// pedidos diferentes rodam em paralelo. As filas nao tem limite proprio; quem limita e o prefetch do binding
+public class FilasPorPedido implements AutoCloseable {
+
+    private final ExecutorService[] filas;
+
+    public FilasPorPedido(final int quantidade,
+                          final String prefixoDasThreads) {
+        if(quantidade < 1) {
+            throw new IllegalArgumentException("QUANTIDADE DE FILAS DEVE SER MAIOR QUE ZERO!");
+        }
+        this.filas = new ExecutorService[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            this.filas[i] = Executors.newSingleThreadExecutor(new CustomizableThreadFactory(prefixoDasThreads + i + "-"));
+        }
+    }
+
+    public void executa(final Long idDoPedido,
+                        final Runnable tarefa) {
+        this.filas[fila(idDoPedido)].execute(tarefa);
+    }
+
+    public int fila(final Long idDoPedido) {
+        return Objects.isNull(idDoPedido)
+                ? 0
+                : Math.floorMod(Long.hashCode(idDoPedido), this.filas.length);
+    }
+
+    // Termina o que ja foi entregue antes de fechar; o que nao for confirmado volta para a fila no broker
+    @Override
+    public void close() throws InterruptedException {
+        for (final var fila : this.filas) {
+            fila.shutdown();
+        }
+        for (final var fila : this.filas) {
+            if(!fila.awaitTermination(30, TimeUnit.SECONDS)) {
+                fila.shutdownNow();
+            }
+        }
+    }
+
+}
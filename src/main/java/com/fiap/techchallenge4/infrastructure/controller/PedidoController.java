@@ -1,15 +1,27 @@
 package com.fiap.techchallenge4.infrastructure.controller;
 
 
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EstatisticasPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EventoStatusPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaPedidosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoLotePedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusDoPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.idempotencia.RegistroIdempotencia;
 import com.fiap.techchallenge4.useCase.PedidoUseCase;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Objects;
+
 import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.URL_PEDIDOS;
 
 @Tag(
@@ -22,19 +34,45 @@ public class PedidoController {
 
     public static final String URL_PEDIDOS = "/pedido";
     public static final String URL_PEDIDOS_COM_ID = URL_PEDIDOS + "/{idPedido}";
+    public static final String URL_PEDIDOS_LOTE = URL_PEDIDOS + "/lote";
+    public static final String URL_PEDIDOS_DO_CLIENTE = URL_PEDIDOS + "/cliente/{cpf}";
+    public static final String URL_STATUS_DO_PEDIDO = URL_PEDIDOS + "/{idPedido}/status";
+    public static final String URL_HISTORICO_DO_PEDIDO = URL_PEDIDOS + "/{idPedido}/historico";
+    public static final String URL_ESTATISTICAS = URL_PEDIDOS + "/estatisticas";
+    public static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
 
     private final PedidoUseCase service;
+    private final RegistroIdempotencia idempotencia;
+    private final boolean aceiteAssincrono;
 
-    public PedidoController(final PedidoUseCase service) {
+    public PedidoController(final PedidoUseCase service,
+                            final RegistroIdempotencia idempotencia,
+                            @Value("${pedido.aceite-assincrono.habilitado:false}") final boolean aceiteAssincrono) {
         this.service = service;
+        this.idempotencia = idempotencia;
+        this.aceiteAssincrono = aceiteAssincrono;
     }
 
     @Operation(
-            summary = "Serviço para criar um pedido"
+            summary = "Serviço para criar um pedido; com o header Idempotency-Key, a repetição devolve o resultado da primeira requisição. " +
+                    "Com o aceite assíncrono habilitado, responde 202 com o pedido PENDENTE (resultado em /pedido/{idPedido}/status)"
     )
     @PostMapping
-    public ResponseEntity<Void> cria(@RequestBody @Valid final CriaPedidoDTO dadosPedido) {
-        final var criou = this.service.cria(dadosPedido);
+    public ResponseEntity<StatusDoPedidoDTO> cria(@RequestBody @Valid final CriaPedidoDTO dadosPedido,
+                                                  @RequestHeader(value = HEADER_IDEMPOTENCY_KEY, required = false) final String chaveIdempotencia) {
+        // Com Idempotency-Key o fluxo continua sincrono: o registro de idempotencia guarda o 201/409 da primeira requisicao
+        // e responde 422 se a chave voltar com outro corpo
+        if(this.aceiteAssincrono && Objects.isNull(chaveIdempotencia)) {
+            final var idPedido = this.service.aceita(dadosPedido);
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, URL_STATUS_DO_PEDIDO.replace("{idPedido}", idPedido.toString()))
+                    .body(new StatusDoPedidoDTO(idPedido, StatusPedidoEnum.PENDENTE));
+        }
+
+        final var criou = Objects.isNull(chaveIdempotencia)
+                ? this.service.cria(dadosPedido)
+                : this.idempotencia.executa(chaveIdempotencia, dadosPedido, () -> this.service.criaComResultado(dadosPedido));
         if(criou) {
             return ResponseEntity
                     .status(HttpStatus.CREATED)
@@ -45,6 +83,30 @@ public class PedidoController {
                 .build();
     }
 
+    @Operation(
+            summary = "Serviço para criar um lote de pedidos, com o resultado de cada linha"
+    )
+    @PostMapping("/lote")
+    public ResponseEntity<List<ResultadoLotePedidoDTO>> criaLote(@RequestBody final List<CriaPedidoDTO> dadosPedidos) {
+        final var resultados = this.service.criaLote(dadosPedidos);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(resultados);
+    }
+
+    @Operation(
+            summary = "Serviço para listar os pedidos de um cliente, do mais recente para o mais antigo, paginado por cursor"
+    )
+    @GetMapping("/cliente/{cpf}")
+    public ResponseEntity<PaginaPedidosDTO> listaPorCliente(@PathVariable("cpf") final String cpf,
+                                                            @RequestParam(value = "cursor", required = false) final String cursor,
+                                                            @RequestParam(value = "tamanho", defaultValue = "20") final Integer tamanho) {
+        final var pagina = this.service.listaPorCliente(cpf, cursor, tamanho);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(pagina);
+    }
+
     @Operation(
             summary = "Serviço para cancelar um pedido"
     )
@@ -61,4 +123,44 @@ public class PedidoController {
                 .build();
     }
 
+    @Operation(
+            summary = "Serviço para consultar o status de um pedido, incluindo o resultado de um pedido aceito de forma assíncrona"
+    )
+    @GetMapping("/{idPedido}/status")
+    public ResponseEntity<StatusDoPedidoDTO> consultaStatus(@PathVariable("idPedido") final Long idPedido) {
+        return this.service.consultaStatus(idPedido)
+                .map(status -> ResponseEntity
+                        .status(HttpStatus.OK)
+                        .body(status))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .build());
+    }
+
+    @Operation(
+            summary = "Serviço para consultar o histórico de status de um pedido, do evento mais antigo para o mais recente"
+    )
+    @GetMapping("/{idPedido}/historico")
+    public ResponseEntity<List<EventoStatusPedidoDTO>> historico(@PathVariable("idPedido") final Long idPedido) {
+        final var historico = this.service.historico(idPedido);
+        if(historico.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .build();
+        }
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(historico);
+    }
+
+    @Operation(
+            summary = "Serviço para consultar a quantidade de pedidos por status, sem consultar a tabela de pedidos"
+    )
+    @GetMapping("/estatisticas")
+    public ResponseEntity<EstatisticasPedidoDTO> estatisticas() {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(this.service.estatisticas());
+    }
+
 }
@@ -1,6 +1,11 @@
 package com.fiap.techchallenge4.infrastructure.controller;
 
+import com.fiap.techchallenge4.infrastructure.idempotencia.IdempotenciaComOutroCorpoException;
+import com.fiap.techchallenge4.infrastructure.idempotencia.IdempotenciaEmAndamentoException;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ServicoIndisponivelException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -8,10 +13,33 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class TratamentoError {
 
+	public static final String SEGUNDOS_PARA_NOVA_TENTATIVA = "1";
+
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
 	@ExceptionHandler(IllegalArgumentException.class)
 	public String trataParametroInvalido(IllegalArgumentException ex) {
 		return ex.getMessage();
 	}
 
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	@ExceptionHandler(ServicoIndisponivelException.class)
+	public String trataServicoIndisponivel(ServicoIndisponivelException ex) {
+		return ex.getMessage();
+	}
+
+	// 503 com Retry-After, e nao 409: o cliente precisa distinguir "tente de novo" de "pedido recusado"
+	@ExceptionHandler(IdempotenciaEmAndamentoException.class)
+	public ResponseEntity<String> trataIdempotenciaEmAndamento(IdempotenciaEmAndamentoException ex) {
+		return ResponseEntity
+				.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, SEGUNDOS_PARA_NOVA_TENTATIVA)
+				.body(ex.getMessage());
+	}
+
+	@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+	@ExceptionHandler(IdempotenciaComOutroCorpoException.class)
+	public String trataIdempotenciaComOutroCorpo(IdempotenciaComOutroCorpoException ex) {
+		return ex.getMessage();
+	}
+
 }
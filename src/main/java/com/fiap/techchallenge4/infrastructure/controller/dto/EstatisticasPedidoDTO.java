@@ -0,0 +1,12 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record EstatisticasPedidoDTO(
+		Map<StatusPedidoEnum, Long> quantidadePorStatus,
+		Long total,
+		LocalDateTime consolidadoEm
+) {}
@@ -0,0 +1,11 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+
+import java.time.LocalDateTime;
+
+public record EventoStatusPedidoDTO(
+		StatusPedidoEnum statusAnterior,
+		StatusPedidoEnum statusPedido,
+		LocalDateTime dataDoEvento
+) {}
@@ -0,0 +1,12 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public record PaginaPedidosDTO(
+		List<PedidoDTO> pedidos,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		String proximoCursor
+) {}
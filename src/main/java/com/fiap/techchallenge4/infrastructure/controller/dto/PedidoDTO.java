@@ -0,0 +1,13 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+
+import java.time.LocalDateTime;
+
+public record PedidoDTO(
+		Long idDoPedido,
+		Long ean,
+		Long quantidade,
+		StatusPedidoEnum statusPedido,
+		LocalDateTime dataDeCriacao
+) {}
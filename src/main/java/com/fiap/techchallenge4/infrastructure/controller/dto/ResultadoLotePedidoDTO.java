@@ -0,0 +1,17 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fiap.techchallenge4.domain.StatusLotePedidoEnum;
+
+public record ResultadoLotePedidoDTO(
+
+		Integer linha,
+
+		StatusLotePedidoEnum status,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		Long idDoPedido,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		String mensagem
+) {}
@@ -0,0 +1,8 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+
+public record StatusDoPedidoDTO(
+		Long idDoPedido,
+		StatusPedidoEnum statusPedido
+) {}
@@ -0,0 +1,38 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Guarda de atraso da replicacao: leitura de uma chave escrita ha menos de "janela" vai para o primario.
+// As escritas ficam num cache local, entao a garantia vale so para a instancia que escreveu: com varias instancias,
+// a leitura logo apos a escrita precisa cair na mesma instancia (sessao fixa no balanceador) para nao ler da replica
+@Component
+public class LeituraAposEscrita {
+
+    private final Cache<String, Boolean> escritasRecentes;
+
+    public LeituraAposEscrita(@Value("${pedido.datasource.replica.janela-leitura-apos-escrita:5s}") final Duration janela) {
+        this.escritasRecentes = Caffeine.newBuilder()
+                .maximumSize(100000)
+                .expireAfterWrite(janela)
+                .build();
+    }
+
+    public void registraEscrita(final String chave) {
+        this.escritasRecentes.put(chave, Boolean.TRUE);
+    }
+
+    public <T> T le(final String chave,
+                    final Supplier<T> leitura) {
+        if(this.escritasRecentes.getIfPresent(chave) == null) {
+            return leitura.get();
+        }
+        return LeituraNoPrimario.executa(leitura);
+    }
+
+}
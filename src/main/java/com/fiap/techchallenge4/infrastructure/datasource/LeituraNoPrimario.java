@@ -0,0 +1,27 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import java.util.function.Supplier;
+
+// Forca as transacoes read-only abertas dentro da execucao a usarem o primario em vez das replicas
+public final class LeituraNoPrimario {
+
+    private static final ThreadLocal<Boolean> ATIVA = ThreadLocal.withInitial(() -> false);
+
+    private LeituraNoPrimario() {
+    }
+
+    public static boolean ativa() {
+        return ATIVA.get();
+    }
+
+    public static <T> T executa(final Supplier<T> leitura) {
+        final var anterior = ATIVA.get();
+        ATIVA.set(true);
+        try {
+            return leitura.get();
+        } finally {
+            ATIVA.set(anterior);
+        }
+    }
+
+}
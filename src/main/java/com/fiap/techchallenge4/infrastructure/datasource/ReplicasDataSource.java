@@ -0,0 +1,79 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Destino das conexoes read-only: reparte entre as replicas e volta para o primario se nenhuma responder.
+// Replica que falha fica fora da rotacao por "quarentena" e depois volta a ser tentada
+public class ReplicasDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primario;
+    private final List<DataSource> replicas;
+    private final long quarentenaEmNanos;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final AtomicLongArray indisponivelAte;
+
+    public ReplicasDataSource(final DataSource primario,
+                              final List<DataSource> replicas,
+                              final Duration quarentena) {
+        this.primario = primario;
+        this.replicas = List.copyOf(replicas);
+        this.quarentenaEmNanos = quarentena.toNanos();
+        this.indisponivelAte = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.conecta(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(final String username,
+                                    final String password) throws SQLException {
+        return this.conecta(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection conecta(final AberturaDeConexao abertura) throws SQLException {
+        if(LeituraNoPrimario.ativa() || this.replicas.isEmpty()) {
+            return abertura.abre(this.primario);
+        }
+        final var inicio = Math.floorMod(this.proxima.getAndIncrement(), this.replicas.size());
+        for (int i = 0; i < this.replicas.size(); i++) {
+            final var indice = (inicio + i) % this.replicas.size();
+            final var agora = System.nanoTime();
+            final var indisponivelAte = this.indisponivelAte.get(indice);
+            if(indisponivelAte != 0 && agora - indisponivelAte < 0) {
+                continue;
+            }
+            try {
+                return abertura.abre(this.replicas.get(indice));
+            } catch (SQLException e) {
+                System.out.println("Replica " + indice + " indisponivel, fica em quarentena e a leitura segue para a proxima: " + e.getMessage());
+                this.indisponivelAte.set(indice, agora + this.quarentenaEmNanos);
+            }
+        }
+        return abertura.abre(this.primario);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (final var replica : this.replicas) {
+            if(replica instanceof AutoCloseable fechavel) {
+                fechavel.close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface AberturaDeConexao {
+        Connection abre(DataSource dataSource) throws SQLException;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.fiap.techchallenge4.infrastructure.estatisticas;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEstatisticaEntity;
+import com.fiap.techchallenge4.infrastructure.repository.PedidoEstatisticaRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+
+// Leva as variacoes locais para a tb_pedido_estatistica e traz de volta o total de todas as instancias.
+// Se a instancia cair, perde no maximo as variacoes de um intervalo; a reconciliacao recontando a tb_pedido
+// corrige essas perdas (e pedidos alterados fora da app) na subida e uma vez por dia, para o erro nao se acumular
+@Component
+public class ConsolidacaoEstatisticasPedido implements AutoCloseable {
+
+    private final ContadoresStatusPedido contadores;
+    private final PedidoEstatisticaRepository repository;
+    private final TransactionTemplate transacao;
+
+    public ConsolidacaoEstatisticasPedido(final ContadoresStatusPedido contadores,
+                                          final PedidoEstatisticaRepository repository,
+                                          final TransactionTemplate transacao) {
+        this.contadores = contadores;
+        this.repository = repository;
+        this.transacao = transacao;
+    }
+
+    @Scheduled(fixedDelayString = "${pedido.estatisticas.intervalo-consolidacao-ms:5000}")
+    public synchronized void consolida() {
+        final var variacoes = this.contadores.drena();
+        try {
+            final var consolidado = this.transacao.execute(status -> {
+                variacoes.forEach(this::soma);
+                // Lido na mesma transacao de escrita, no primario, para ja incluir as somas acima
+                final var quantidadePorStatus = new EnumMap<StatusPedidoEnum, Long>(StatusPedidoEnum.class);
+                this.repository.findAll()
+                        .forEach(estatistica -> quantidadePorStatus.put(estatistica.getStatusPedido(), estatistica.getQuantidade()));
+                return quantidadePorStatus;
+            });
+            this.contadores.consolidado(consolidado, LocalDateTime.now());
+        } catch (Exception e) {
+            this.contadores.devolve(variacoes);
+            e.printStackTrace();
+        }
+    }
+
+    // Sobrescreve a tb_pedido_estatistica com a contagem da tb_pedido. As variacoes locais sao descartadas: sao somadas
+    // depois do commit, entao ja estao na contagem. As ainda nao consolidadas das outras instancias entram em dobro
+    // ate a proxima reconciliacao, um erro de no maximo um intervalo de consolidacao que nao se acumula
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${pedido.estatisticas.cron-reconciliacao:0 30 3 * * *}")
+    public synchronized void reconcilia() {
+        final var variacoes = this.contadores.drena();
+        try {
+            final var recontado = this.transacao.execute(status -> {
+                final var quantidadePorStatus = new EnumMap<StatusPedidoEnum, Long>(StatusPedidoEnum.class);
+                for (final var statusPedido : StatusPedidoEnum.values()) {
+                    quantidadePorStatus.put(statusPedido, 0L);
+                }
+                this.repository.contaPedidosPorStatus()
+                        .forEach(contagem -> quantidadePorStatus.put(contagem.getStatusPedido(), contagem.getQuantidade()));
+                quantidadePorStatus.forEach(this::sobrescreve);
+                return quantidadePorStatus;
+            });
+            this.contadores.consolidado(recontado, LocalDateTime.now());
+            System.out.println("Estatisticas de pedido reconciliadas com a tb_pedido: " + recontado);
+        } catch (Exception e) {
+            this.contadores.devolve(variacoes);
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.consolida();
+    }
+
+    // Status sem linha ainda: a primeira instancia insere; se outra inserir junto, a chave primaria derruba a
+    // transacao e as variacoes voltam para o proximo intervalo, quando a soma ja encontra a linha
+    private void soma(final StatusPedidoEnum statusPedido,
+                      final Long variacao) {
+        if(this.repository.soma(statusPedido, variacao) == 0) {
+            this.repository.save(new PedidoEstatisticaEntity(statusPedido, variacao));
+        }
+    }
+
+    private void sobrescreve(final StatusPedidoEnum statusPedido,
+                             final Long quantidade) {
+        if(this.repository.sobrescreve(statusPedido, quantidade) == 0) {
+            this.repository.save(new PedidoEstatisticaEntity(statusPedido, quantidade));
+        }
+    }
+
+}
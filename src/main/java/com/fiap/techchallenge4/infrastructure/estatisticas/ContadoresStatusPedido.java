@@ -0,0 +1,86 @@
+package com.fiap.techchallenge4.infrastructure.estatisticas;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EstatisticasPedidoDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Variacao da quantidade de pedidos por status desde a ultima consolidacao, somada depois de cada commit.
+// A leitura junta o ultimo consolidado (tb_pedido_estatistica, com as variacoes de todas as instancias) com as variacoes
+// locais ainda nao consolidadas, sem ir ao banco
+@Component
+public class ContadoresStatusPedido {
+
+    private final Map<StatusPedidoEnum, LongAdder> variacoes = new EnumMap<>(StatusPedidoEnum.class);
+    private volatile Consolidado consolidado = new Consolidado(Map.of(), null);
+
+    public ContadoresStatusPedido() {
+        for (final var status : StatusPedidoEnum.values()) {
+            this.variacoes.put(status, new LongAdder());
+        }
+    }
+
+    public void criados(final StatusPedidoEnum status,
+                        final long quantidade) {
+        this.variacoes.get(status).add(quantidade);
+    }
+
+    public void transicionados(final StatusPedidoEnum statusAnterior,
+                               final StatusPedidoEnum novoStatus,
+                               final long quantidade) {
+        if(quantidade <= 0) {
+            return;
+        }
+        this.variacoes.get(statusAnterior).add(-quantidade);
+        this.variacoes.get(novoStatus).add(quantidade);
+    }
+
+    public void removido(final StatusPedidoEnum status) {
+        this.variacoes.get(status).decrement();
+    }
+
+    // sumThenReset nao e atomico com os add concorrentes, mas nenhuma variacao se perde: o que chegar durante a leitura
+    // fica para a proxima consolidacao
+    public Map<StatusPedidoEnum, Long> drena() {
+        final var drenadas = new EnumMap<StatusPedidoEnum, Long>(StatusPedidoEnum.class);
+        this.variacoes.forEach((status, variacao) -> {
+            final var valor = variacao.sumThenReset();
+            if(valor != 0) {
+                drenadas.put(status, valor);
+            }
+        });
+        return drenadas;
+    }
+
+    // Consolidacao que falhou: as variacoes voltam para a proxima tentativa
+    public void devolve(final Map<StatusPedidoEnum, Long> drenadas) {
+        drenadas.forEach((status, valor) -> this.variacoes.get(status).add(valor));
+    }
+
+    public void consolidado(final Map<StatusPedidoEnum, Long> quantidadePorStatus,
+                            final LocalDateTime consolidadoEm) {
+        this.consolidado = new Consolidado(Collections.unmodifiableMap(new EnumMap<>(quantidadePorStatus)), consolidadoEm);
+    }
+
+    public EstatisticasPedidoDTO estatisticas() {
+        final var atual = this.consolidado;
+        final var quantidadePorStatus = new EnumMap<StatusPedidoEnum, Long>(StatusPedidoEnum.class);
+        var total = 0L;
+        for (final var status : StatusPedidoEnum.values()) {
+            final var quantidade = atual.quantidadePorStatus().getOrDefault(status, 0L) + this.variacoes.get(status).sum();
+            quantidadePorStatus.put(status, quantidade);
+            total += quantidade;
+        }
+        return new EstatisticasPedidoDTO(quantidadePorStatus, total, atual.consolidadoEm());
+    }
+
+    private record Consolidado(Map<StatusPedidoEnum, Long> quantidadePorStatus,
+                               LocalDateTime consolidadoEm) {
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.fiap.techchallenge4.infrastructure.idempotencia;
+
+public class IdempotenciaComOutroCorpoException extends RuntimeException {
+
+    public IdempotenciaComOutroCorpoException() {
+        super("IDEMPOTENCY-KEY JA USADA COM OUTRO CORPO DE REQUISICAO!");
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.fiap.techchallenge4.infrastructure.idempotencia;
+
+public class IdempotenciaEmAndamentoException extends RuntimeException {
+
+    public IdempotenciaEmAndamentoException() {
+        super("REQUISICAO COM ESSA IDEMPOTENCY-KEY AINDA EM ANDAMENTO!");
+    }
+
+}
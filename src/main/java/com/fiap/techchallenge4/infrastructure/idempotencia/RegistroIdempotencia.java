@@ -0,0 +1,179 @@
+package com.fiap.techchallenge4.infrastructure.idempotencia;
+
+import com.fiap.techchallenge4.domain.ResultadoCriacaoEnum;
+import com.fiap.techchallenge4.infrastructure.model.IdempotenciaEntity;
+import com.fiap.techchallenge4.infrastructure.repository.IdempotenciaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Primeiro resultado de cada Idempotency-Key: em memoria para a propria instancia e na tb_idempotencia para as demais
+@Component
+public class RegistroIdempotencia {
+
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final IdempotenciaRepository repository;
+    private final Cache<String, Execucao> emMemoria;
+    private final Duration ttl;
+    private final Duration ttlEmAndamento;
+    private final long esperaEmMilissegundos;
+
+    public RegistroIdempotencia(final IdempotenciaRepository repository,
+                                @Value("${pedido.idempotencia.ttl:24h}") final Duration ttl,
+                                @Value("${pedido.idempotencia.ttl-em-andamento:1m}") final Duration ttlEmAndamento,
+                                @Value("${pedido.idempotencia.tamanho-maximo:100000}") final long tamanhoMaximo,
+                                @Value("${pedido.idempotencia.espera-ms:5000}") final long esperaEmMilissegundos) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.ttlEmAndamento = ttlEmAndamento;
+        this.esperaEmMilissegundos = esperaEmMilissegundos;
+        this.emMemoria = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // O corpo entra pelo hash do seu toString (records listam todos os campos): a mesma chave com outro corpo e recusada.
+    // Criacao que FALHOU responde false como sem a chave, mas nao fica registrada
+    public boolean executa(final String chave,
+                           final Object corpo,
+                           final Supplier<ResultadoCriacaoEnum> criacao) {
+        if(Objects.isNull(chave) || chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException("IDEMPOTENCY-KEY INVALIDA!");
+        }
+        final var hashCorpo = hashDoCorpo(corpo);
+
+        // Requisicao repetida na mesma instancia espera o future da primeira, sem consultar o banco
+        final var execucao = new Execucao(hashCorpo, new CompletableFuture<>());
+        final var anterior = this.emMemoria.asMap().putIfAbsent(chave, execucao);
+        if(Objects.nonNull(anterior)) {
+            confereCorpo(anterior.hashCorpo(), hashCorpo);
+            return this.aguarda(anterior.resultado());
+        }
+
+        try {
+            final var resultado = this.executaUmaVez(chave, hashCorpo, criacao);
+            if(ResultadoCriacaoEnum.FALHOU.equals(resultado)) {
+                this.emMemoria.asMap().remove(chave, execucao);
+            }
+            final var criou = ResultadoCriacaoEnum.CRIADO.equals(resultado);
+            execucao.resultado().complete(criou);
+            return criou;
+        } catch (RuntimeException e) {
+            // Falha (ex.: 503, 400 ou 500) nao fica registrada: a proxima tentativa com a chave executa de novo
+            this.emMemoria.asMap().remove(chave, execucao);
+            execucao.resultado().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Reserva sem resultado alem do ttl-em-andamento e de instancia que caiu no meio da criacao
+    @Scheduled(fixedDelayString = "${pedido.idempotencia.intervalo-limpeza-ms:60000}")
+    public void removeExpiradas() {
+        final var agora = LocalDateTime.now();
+        this.repository.removeExpiradas(agora.minus(this.ttl), agora.minus(this.ttlEmAndamento));
+    }
+
+    private ResultadoCriacaoEnum executaUmaVez(final String chave,
+                                               final String hashCorpo,
+                                               final Supplier<ResultadoCriacaoEnum> criacao) {
+        final var prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.esperaEmMilissegundos);
+        while (true) {
+            try {
+                this.repository.reserva(chave, hashCorpo, LocalDateTime.now());
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Chave reservada por outra instancia (ou antes de um restart): usa o resultado gravado
+                final var registrado = this.repository.findById(chave);
+                if(registrado.isPresent()) {
+                    confereCorpo(registrado.get().getHashCorpo(), hashCorpo);
+                    if(Objects.nonNull(registrado.get().getCriou())) {
+                        return registrado.get().getCriou() ? ResultadoCriacaoEnum.CRIADO : ResultadoCriacaoEnum.RECUSADO;
+                    }
+                }
+                if(System.nanoTime() > prazo) {
+                    throw new IdempotenciaEmAndamentoException();
+                }
+                this.espera();
+            }
+        }
+
+        final ResultadoCriacaoEnum resultado;
+        try {
+            resultado = criacao.get();
+        } catch (RuntimeException e) {
+            this.repository.deleteById(chave);
+            throw e;
+        }
+        if(ResultadoCriacaoEnum.FALHOU.equals(resultado)) {
+            this.repository.deleteById(chave);
+        } else {
+            this.repository.registraResultado(chave, ResultadoCriacaoEnum.CRIADO.equals(resultado));
+        }
+        return resultado;
+    }
+
+    private boolean aguarda(final CompletableFuture<Boolean> anterior) {
+        try {
+            return anterior.get(this.esperaEmMilissegundos, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotenciaEmAndamentoException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotenciaEmAndamentoException();
+        }
+    }
+
+    // Registro gravado antes da coluna hash_corpo nao tem hash e vale para qualquer corpo
+    private static void confereCorpo(final String hashRegistrado,
+                                     final String hashCorpo) {
+        if(Objects.nonNull(hashRegistrado) && !hashRegistrado.equals(hashCorpo)) {
+            throw new IdempotenciaComOutroCorpoException();
+        }
+    }
+
+    private static String hashDoCorpo(final Object corpo) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(corpo).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void espera() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotenciaEmAndamentoException();
+        }
+    }
+
+    private record Execucao(String hashCorpo,
+                            CompletableFuture<Boolean> resultado) {}
+
+}
@@ -0,0 +1,65 @@
+package com.fiap.techchallenge4.infrastructure.manutencao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.time.LocalDate;
+
+// Mantem criadas as particoes mensais da tb_pedido (migracao V5) para os proximos meses; so no PostgreSQL
+@Component
+public class ManutencaoParticoesPedido {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final int mesesAFrente;
+
+    public ManutencaoParticoesPedido(final JdbcTemplate jdbcTemplate,
+                                     final DataSource dataSource,
+                                     @Value("${pedido.particao.habilitado:true}") final boolean habilitado,
+                                     @Value("${pedido.particao.meses-a-frente:3}") final int mesesAFrente) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado && "PostgreSQL".equals(nomeDoBanco(dataSource));
+        this.mesesAFrente = mesesAFrente;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${pedido.particao.cron:0 0 3 * * *}")
+    public void criaParticoesFuturas() {
+        if(!this.habilitado) {
+            return;
+        }
+        try {
+            final var criadas = this.jdbcTemplate.queryForObject(
+                    "SELECT cria_particoes_tb_pedido(?, ?)",
+                    Integer.class,
+                    Date.valueOf(LocalDate.now()),
+                    this.mesesAFrente
+            );
+            if(criadas != null && criadas > 0) {
+                System.out.println(criadas + " particao(oes) mensal(is) criada(s) na tb_pedido");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String nomeDoBanco(final DataSource dataSource) {
+        try {
+            return JdbcUtils.commonDatabaseName(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)
+            );
+        } catch (MetaDataAccessException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.fiap.techchallenge4.infrastructure.manutencao;
+
+import com.fiap.techchallenge4.useCase.PedidoUseCase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Pedidos do aceite assincrono que ficaram PENDENTE (app reiniciada com a fila cheia, falha ao gravar o resultado)
+// voltam para o executor de aceite depois de um tempo sem resultado
+@Component
+public class ReprocessamentoPedidosPendentes {
+
+    private final PedidoUseCase service;
+    private final Duration reprocessaApos;
+    private final int tamanhoDoLote;
+
+    public ReprocessamentoPedidosPendentes(final PedidoUseCase service,
+                                           @Value("${pedido.aceite-assincrono.reprocessa-apos:1m}") final Duration reprocessaApos,
+                                           @Value("${pedido.aceite-assincrono.tamanho-do-lote-reprocessamento:100}") final int tamanhoDoLote) {
+        this.service = service;
+        this.reprocessaApos = reprocessaApos;
+        this.tamanhoDoLote = tamanhoDoLote;
+    }
+
+    @Scheduled(
+            initialDelayString = "${pedido.aceite-assincrono.intervalo-reprocessamento-ms:30000}",
+            fixedDelayString = "${pedido.aceite-assincrono.intervalo-reprocessamento-ms:30000}"
+    )
+    public void reprocessa() {
+        try {
+            final var reenfileirados = this.service.reprocessaPendentes(
+                    LocalDateTime.now().minus(this.reprocessaApos),
+                    this.tamanhoDoLote
+            );
+            if(reenfileirados > 0) {
+                System.out.println(reenfileirados + " pedido(s) PENDENTE enfileirado(s) de novo");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
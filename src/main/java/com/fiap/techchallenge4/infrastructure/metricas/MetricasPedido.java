@@ -0,0 +1,113 @@
+package com.fiap.techchallenge4.infrastructure.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+@Component
+public class MetricasPedido {
+
+    public static final String TIMER_ETAPA = "pedido.etapa";
+    public static final String CONTADOR_RESULTADO = "pedido.resultado";
+
+    public static final String CRIA = "cria";
+    public static final String CRIA_LOTE = "cria-lote";
+    public static final String ACEITA = "aceita";
+    public static final String CANCELA = "cancela";
+    public static final String ATUALIZA = "atualiza";
+    public static final String ATUALIZA_LOTE = "atualiza-lote";
+    public static final String OUTBOX = "outbox";
+
+    public static final String ETAPA_TOTAL = "total";
+    public static final String ETAPA_CONSULTA_CLIENTE = "consulta-cliente";
+    public static final String ETAPA_CONSULTA_ESTOQUE = "consulta-estoque";
+    public static final String ETAPA_CONSULTAS = "consultas";
+    public static final String ETAPA_GRAVACAO = "gravacao";
+    public static final String ETAPA_PUBLICACAO = "publicacao";
+    public static final String ETAPA_ESPERA_NO_OUTBOX = "espera-no-outbox";
+
+    public static final String RESULTADO_SUCESSO = "sucesso";
+    public static final String RESULTADO_CONFLITO = "conflito";
+    public static final String RESULTADO_INVALIDO = "invalido";
+    public static final String RESULTADO_ERRO = "erro";
+    public static final String RESULTADO_INDISPONIVEL = "indisponivel";
+
+    private final MeterRegistry registry;
+
+    public MetricasPedido(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample inicia() {
+        return Timer.start(this.registry);
+    }
+
+    public void finaliza(final Timer.Sample amostra,
+                         final String operacao,
+                         final String etapa) {
+        amostra.stop(this.timer(operacao, etapa));
+    }
+
+    public <T> T mede(final String operacao,
+                      final String etapa,
+                      final Callable<T> execucao) throws Exception {
+        final var amostra = this.inicia();
+        try {
+            return execucao.call();
+        } finally {
+            this.finaliza(amostra, operacao, etapa);
+        }
+    }
+
+    public void mede(final String operacao,
+                     final String etapa,
+                     final Runnable execucao) {
+        final var amostra = this.inicia();
+        try {
+            execucao.run();
+        } finally {
+            this.finaliza(amostra, operacao, etapa);
+        }
+    }
+
+    public void registra(final String operacao,
+                         final String etapa,
+                         final Duration duracao) {
+        this.timer(operacao, etapa).record(duracao);
+    }
+
+    public void conta(final String operacao,
+                      final String resultado) {
+        this.conta(operacao, resultado, 1);
+    }
+
+    public void conta(final String operacao,
+                      final String resultado,
+                      final long quantidade) {
+        if(quantidade <= 0) {
+            return;
+        }
+        Counter.builder(CONTADOR_RESULTADO)
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .register(this.registry)
+                .increment(quantidade);
+    }
+
+    // Histograma de percentis para o Prometheus calcular p95/p99 por etapa com histogram_quantile
+    private Timer timer(final String operacao,
+                        final String etapa) {
+        return Timer.builder(TIMER_ETAPA)
+                .tag("operacao", operacao)
+                .tag("etapa", etapa)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(this.registry);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Faixa de data_de_criacao [inicio, fim) em que estao os pedidos dos ids, tirada do mes gravado no id pelo
+// GeradorIdPedido. Vai no WHERE das buscas por id para o PostgreSQL so ler as particoes desses meses.
+// Ids gravados antes desse formato ficam abaixo de 10^12 e podem estar em qualquer particao
+public record FaixaDeCriacao(LocalDateTime inicio,
+                             LocalDateTime fim) {
+
+    private static final LocalDateTime INICIO_SEM_MES = GeradorIdPedido.EPOCA.atDay(1).atStartOfDay();
+    private static final LocalDateTime FIM_SEM_MES = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    public static FaixaDeCriacao doId(final Long id) {
+        return dosIds(List.of(id));
+    }
+
+    public static FaixaDeCriacao dosIds(final Collection<Long> ids) {
+        final var menorMes = ids.stream().mapToLong(id -> id / GeradorIdPedido.VALORES_POR_MES).min().orElse(0L);
+        final var maiorMes = ids.stream().mapToLong(id -> id / GeradorIdPedido.VALORES_POR_MES).max().orElse(0L);
+        return new FaixaDeCriacao(
+                menorMes == 0 ? INICIO_SEM_MES : GeradorIdPedido.EPOCA.plusMonths(menorMes).atDay(1).atStartOfDay(),
+                menorMes == 0 ? FIM_SEM_MES : GeradorIdPedido.EPOCA.plusMonths(maiorMes + 1).atDay(1).atStartOfDay()
+        );
+    }
+
+}
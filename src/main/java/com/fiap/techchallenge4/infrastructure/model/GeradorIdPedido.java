@@ -0,0 +1,29 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+// Id do pedido ordenado pelo mes: id = meses desde 1970 do data_de_criacao * 10^12 + valor da sequencia pooled-lo.
+// O id sozinho diz em qual particao mensal da tb_pedido o pedido esta (ver FaixaDeCriacao)
+public class GeradorIdPedido extends SequenceStyleGenerator {
+
+    static final long VALORES_POR_MES = 1_000_000_000_000L;
+    static final YearMonth EPOCA = YearMonth.of(1970, 1);
+
+    @Override
+    public Object generate(final SharedSessionContractImplementor session,
+                           final Object object) {
+        final var sequencia = (Long) super.generate(session, object);
+        return compoe(((PedidoEntity) object).getDataDeCriacao(), sequencia);
+    }
+
+    public static long compoe(final LocalDateTime dataDeCriacao,
+                              final long sequencia) {
+        return EPOCA.until(YearMonth.from(dataDeCriacao), ChronoUnit.MONTHS) * VALORES_POR_MES + sequencia;
+    }
+
+}
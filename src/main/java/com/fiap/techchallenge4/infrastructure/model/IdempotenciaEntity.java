@@ -0,0 +1,33 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "tb_idempotencia",
+        indexes = @Index(name = "idx_tb_idempotencia_data", columnList = "data_de_criacao")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotenciaEntity {
+
+    @Id
+    private String chave;
+    // SHA-256 do corpo da primeira requisicao; nulo nos registros anteriores a coluna
+    private String hashCorpo;
+    // Nulo enquanto a primeira requisicao com a chave ainda esta em andamento
+    private Boolean criou;
+    private LocalDateTime dataDeCriacao;
+
+}
@@ -0,0 +1,36 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "tb_outbox_evento",
+        indexes = @Index(name = "idx_tb_outbox_evento_pendente", columnList = "data_de_envio, id")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventoEntity {
+
+    public static final String SEQUENCIA = "tb_outbox_evento_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCIA)
+    @SequenceGenerator(name = SEQUENCIA, sequenceName = SEQUENCIA, allocationSize = 50)
+    private Long id;
+    private String destino;
+    @Column(length = 4000)
+    private String payload;
+    private Integer tentativas;
+    private LocalDateTime dataDeCriacao;
+    private LocalDateTime dataDeEnvio;
+    private LocalDateTime reservadoAte;
+
+}
@@ -6,25 +6,42 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tb_pedido")
+@Table(
+        name = "tb_pedido",
+        indexes = @Index(name = "idx_tb_pedido_cliente_data", columnList = "cpf_cliente, data_de_criacao DESC, id DESC")
+)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class PedidoEntity {
 
+    public static final String SEQUENCIA = "tb_pedido_seq";
+
+    // Sequencia pooled-lo: um nextval reserva 50 ids, sem ida ao banco por linha e com insert em lote.
+    // O GeradorIdPedido poe o mes de data_de_criacao na frente do valor, para a busca por id achar a particao
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SEQUENCIA)
+    @GenericGenerator(name = SEQUENCIA, type = GeradorIdPedido.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = SEQUENCIA),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")
+    })
     private Long id;
     private String cpfCliente;
     private Long ean;
     private Long quantidade;
     @Enumerated(EnumType.STRING)
     private StatusPedidoEnum statusPedido;
+    // Chave da particao mensal: nunca muda depois do insert, para a linha nao trocar de particao
+    @Column(nullable = false, updatable = false)
     private LocalDateTime dataDeCriacao;
 
 }
@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Quantidade de pedidos por status, mantida pela ConsolidacaoEstatisticasPedido com somas atomicas
+// (quantidade = quantidade + variacao), entao varias instancias podem consolidar ao mesmo tempo
+@Entity
+@Table(name = "tb_pedido_estatistica")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoEstatisticaEntity {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private StatusPedidoEnum statusPedido;
+    @Column(nullable = false)
+    private Long quantidade;
+
+}
@@ -0,0 +1,39 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Historico append-only das mudancas de status do pedido; as linhas sao gravadas pelo PedidoRepositoryCustomImpl,
+// na mesma transacao da transicao, e nunca sao alteradas
+@Entity
+@Table(
+        name = "tb_pedido_status_evento",
+        indexes = @Index(name = "idx_tb_pedido_status_evento_pedido", columnList = "id_pedido, id")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoStatusEventoEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, updatable = false)
+    private Long idPedido;
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private StatusPedidoEnum statusAnterior;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private StatusPedidoEnum statusPedido;
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime dataDoEvento;
+
+}
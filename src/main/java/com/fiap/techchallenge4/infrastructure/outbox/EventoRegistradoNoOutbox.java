@@ -0,0 +1,4 @@
+package com.fiap.techchallenge4.infrastructure.outbox;
+
+public record EventoRegistradoNoOutbox(String destino) {
+}
@@ -0,0 +1,52 @@
+package com.fiap.techchallenge4.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.infrastructure.model.OutboxEventoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.OutboxEventoRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Component
+public class OutboxEventos {
+
+    private final OutboxEventoRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventos;
+
+    public OutboxEventos(final OutboxEventoRepository repository,
+                         final ObjectMapper objectMapper,
+                         final ApplicationEventPublisher eventos) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.eventos = eventos;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registra(final String destino,
+                         final Object evento) {
+        this.repository.save(
+                OutboxEventoEntity.builder()
+                        .destino(destino)
+                        .payload(this.serializa(evento))
+                        .tentativas(0)
+                        .dataDeCriacao(LocalDateTime.now())
+                        .build()
+        );
+        // O relay e avisado so depois do commit (TransactionalEventListener), para publicar sem esperar o proximo ciclo
+        this.eventos.publishEvent(new EventoRegistradoNoOutbox(destino));
+    }
+
+    private String serializa(final Object evento) {
+        try {
+            return this.objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("EVENTO NAO PODE SER SERIALIZADO PARA O OUTBOX!", e);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.fiap.techchallenge4.infrastructure.outbox;
+
+import com.fiap.techchallenge4.infrastructure.codec.CodificadorEventos;
+import com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido;
+import com.fiap.techchallenge4.infrastructure.model.OutboxEventoEntity;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido.*;
+
+// Publica o lote agrupado por destino sem esperar o broker: os eventos de um destino vao numa unica mensagem AMQP no
+// formato de lote do Spring AMQP (springBatchFormat, o mesmo do batchingEnabled do binder), desfeita pelo listener do
+// consumidor. Uma publicacao e uma confirmacao por destino (ou por bytes-por-publicacao); a confirmacao chega num
+// callback e fica guardada ate o relay drenar e gravar o resultado. Recusa, timeout ou erro no envio voltam para o
+// relay como falha de todos os eventos da publicacao, para reenvio. Destino com um unico evento vai como mensagem comum
+@Component
+public class PublicadorEmLote {
+
+    private final StreamBridge streamBridge;
+    private final CodificadorEventos codificador;
+    private final MetricasPedido metricas;
+    private final boolean aguardaConfirmacao;
+    private final long timeoutConfirmacaoEmMilissegundos;
+    private final int bytesPorPublicacao;
+    private final Queue<Long> confirmados = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> falhas = new ConcurrentLinkedQueue<>();
+
+    public PublicadorEmLote(final StreamBridge streamBridge,
+                            final CodificadorEventos codificador,
+                            final MetricasPedido metricas,
+                            @Value("${pedido.outbox.relay.aguarda-confirmacao:true}") final boolean aguardaConfirmacao,
+                            @Value("${pedido.outbox.relay.timeout-confirmacao-ms:5000}") final long timeoutConfirmacaoEmMilissegundos,
+                            @Value("${pedido.outbox.relay.bytes-por-publicacao:262144}") final int bytesPorPublicacao) {
+        this.streamBridge = streamBridge;
+        this.codificador = codificador;
+        this.metricas = metricas;
+        this.aguardaConfirmacao = aguardaConfirmacao;
+        this.timeoutConfirmacaoEmMilissegundos = timeoutConfirmacaoEmMilissegundos;
+        this.bytesPorPublicacao = bytesPorPublicacao;
+    }
+
+    public void publica(final List<OutboxEventoEntity> lote) {
+        final var porDestino = lote.stream()
+                .collect(Collectors.groupingBy(OutboxEventoEntity::getDestino, LinkedHashMap::new, Collectors.toList()));
+        porDestino.forEach(this::publicaDestino);
+    }
+
+    public Resultado drena() {
+        return new Resultado(drena(this.confirmados), drena(this.falhas));
+    }
+
+    private void publicaDestino(final String destino,
+                                final List<OutboxEventoEntity> eventos) {
+        if(eventos.size() == 1) {
+            this.publica(destino, eventos, this.codificador.codifica(destino, eventos.get(0).getPayload()), false);
+            return;
+        }
+        final var agrupador = new SimpleBatchingStrategy(Integer.MAX_VALUE, this.bytesPorPublicacao, Long.MAX_VALUE);
+        final var propriedades = new MessageProperties();
+        propriedades.setContentType(this.codificador.contentType(destino).toString());
+        final var aguardando = new ArrayList<OutboxEventoEntity>();
+        for (final var evento : eventos) {
+            final var corpo = this.codificador.codifica(destino, evento.getPayload());
+            // Evento que estoura o limite fecha a publicacao dos anteriores e comeca a proxima
+            final var fechado = agrupador.addToBatch(destino, destino, new Message(corpo, propriedades));
+            aguardando.add(evento);
+            if(Objects.nonNull(fechado)) {
+                this.publicaAgrupado(destino, fechado, aguardando);
+            }
+        }
+        agrupador.releaseBatches().forEach(fechado -> this.publicaAgrupado(destino, fechado, aguardando));
+    }
+
+    private void publicaAgrupado(final String destino,
+                                 final MessageBatch fechado,
+                                 final List<OutboxEventoEntity> aguardando) {
+        final var quantidade = (Integer) fechado.getMessage().getMessageProperties().getHeaders().get(AmqpHeaders.BATCH_SIZE);
+        final var eventos = new ArrayList<>(aguardando.subList(0, quantidade));
+        aguardando.subList(0, quantidade).clear();
+        if(eventos.size() == 1) {
+            this.publica(destino, eventos, this.codificador.codifica(destino, eventos.get(0).getPayload()), false);
+            return;
+        }
+        this.publica(destino, eventos, fechado.getMessage().getBody(), true);
+    }
+
+    private void publica(final String destino,
+                         final List<OutboxEventoEntity> eventos,
+                         final byte[] corpo,
+                         final boolean agrupado) {
+        final var confirmacao = new CorrelationData(eventos.get(0).getId().toString());
+        if(!this.envia(destino, corpo, agrupado, confirmacao)) {
+            eventos.forEach(evento -> this.falhas.add(evento.getId()));
+            return;
+        }
+        if(!this.aguardaConfirmacao) {
+            eventos.forEach(this::confirma);
+            return;
+        }
+        confirmacao.getFuture()
+                .orTimeout(this.timeoutConfirmacaoEmMilissegundos, TimeUnit.MILLISECONDS)
+                .whenComplete((resultado, erro) -> {
+                    if(Objects.isNull(erro) && resultado.isAck()) {
+                        eventos.forEach(this::confirma);
+                    } else {
+                        eventos.forEach(evento -> this.falhas.add(evento.getId()));
+                    }
+                });
+    }
+
+    private boolean envia(final String destino,
+                          final byte[] corpo,
+                          final boolean agrupado,
+                          final CorrelationData confirmacao) {
+        try {
+            final var mensagem = MessageBuilder.withPayload(corpo)
+                    .setHeader(MessageHeaders.CONTENT_TYPE, this.codificador.contentType(destino).toString())
+                    .setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, confirmacao);
+            if(agrupado) {
+                mensagem.setHeader(MessageProperties.SPRING_BATCH_FORMAT, MessageProperties.BATCH_FORMAT_LENGTH_HEADER4);
+            }
+            return this.streamBridge.send(destino, mensagem.build());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void confirma(final OutboxEventoEntity evento) {
+        if(Objects.nonNull(evento.getDataDeCriacao())) {
+            this.metricas.registra(OUTBOX, ETAPA_ESPERA_NO_OUTBOX, Duration.between(evento.getDataDeCriacao(), LocalDateTime.now()));
+        }
+        this.confirmados.add(evento.getId());
+    }
+
+    private static List<Long> drena(final Queue<Long> fila) {
+        final var ids = new ArrayList<Long>();
+        Long id;
+        while (Objects.nonNull(id = fila.poll())) {
+            ids.add(id);
+        }
+        // Ordem de id para os UPDATEs travarem as linhas sempre na mesma ordem
+        ids.sort(null);
+        return ids;
+    }
+
+    public record Resultado(List<Long> confirmados,
+                            List<Long> falhas) {
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.fiap.techchallenge4.infrastructure.outbox;
+
+import com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido;
+import com.fiap.techchallenge4.infrastructure.model.OutboxEventoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.OutboxEventoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido.*;
+
+@Component
+public class RelayOutboxEventos implements AutoCloseable {
+
+    private final OutboxEventoRepository repository;
+    private final PublicadorEmLote publicador;
+    private final TransactionTemplate transacao;
+    private final MetricasPedido metricas;
+    private final boolean habilitado;
+    private final int tamanhoDoLote;
+    private final long janelaEmMilissegundos;
+    private final Duration reserva;
+    private final Duration retencaoEnviados;
+    private final AtomicInteger registrados = new AtomicInteger();
+    private final ReentrantLock publicando = new ReentrantLock();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+
+    public RelayOutboxEventos(final OutboxEventoRepository repository,
+                              final PublicadorEmLote publicador,
+                              final TransactionTemplate transacao,
+                              final MetricasPedido metricas,
+                              @Value("${pedido.outbox.relay.habilitado:true}") final boolean habilitado,
+                              @Value("${pedido.outbox.relay.tamanho-do-lote:100}") final int tamanhoDoLote,
+                              @Value("${pedido.outbox.relay.janela-ms:5}") final long janelaEmMilissegundos,
+                              @Value("${pedido.outbox.relay.reserva:30s}") final Duration reserva,
+                              @Value("${pedido.outbox.relay.retencao-enviados:1d}") final Duration retencaoEnviados) {
+        this.repository = repository;
+        this.publicador = publicador;
+        this.transacao = transacao;
+        this.metricas = metricas;
+        this.habilitado = habilitado;
+        this.tamanhoDoLote = tamanhoDoLote;
+        this.janelaEmMilissegundos = janelaEmMilissegundos;
+        this.reserva = reserva;
+        this.retencaoEnviados = retencaoEnviados;
+    }
+
+    // Depois do commit de cada evento: o primeiro abre uma janela de alguns milissegundos para juntar os eventos dos
+    // pedidos seguintes, e o lote completo publica na hora. O ciclo agendado continua como rede de seguranca
+    @TransactionalEventListener
+    public void eventoRegistrado(final EventoRegistradoNoOutbox evento) {
+        if(!this.habilitado) {
+            return;
+        }
+        final var total = this.registrados.incrementAndGet();
+        if(total == 1) {
+            this.executor.schedule(this::publicaRegistrados, this.janelaEmMilissegundos, TimeUnit.MILLISECONDS);
+        } else if(total == this.tamanhoDoLote) {
+            this.executor.execute(this::publicaRegistrados);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pedido.outbox.relay.intervalo-ms:200}")
+    public void publicaPendentes() {
+        if(!this.habilitado) {
+            return;
+        }
+        this.publicando.lock();
+        try {
+            this.registraConfirmacoes();
+            List<OutboxEventoEntity> lote;
+            do {
+                lote = this.transacao.execute(status -> this.reservaLote());
+                if(Objects.nonNull(lote) && !lote.isEmpty()) {
+                    final var publicacao = lote;
+                    this.metricas.mede(OUTBOX, ETAPA_PUBLICACAO, () -> this.publicador.publica(publicacao));
+                }
+            } while (Objects.nonNull(lote) && lote.size() == this.tamanhoDoLote);
+            this.registraConfirmacoes();
+        } finally {
+            this.publicando.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pedido.outbox.relay.intervalo-limpeza-ms:3600000}")
+    public void removeEnviados() {
+        if(!this.habilitado) {
+            return;
+        }
+        this.transacao.executeWithoutResult(status ->
+                this.repository.removeEnviadosAntesDe(LocalDateTime.now().minus(this.retencaoEnviados))
+        );
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    private void publicaRegistrados() {
+        if(this.registrados.getAndSet(0) == 0) {
+            return;
+        }
+        try {
+            this.publicaPendentes();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // A reserva e gravada antes de publicar: a transacao termina logo e as confirmacoes chegam sem segurar lock nenhum
+    private List<OutboxEventoEntity> reservaLote() {
+        final var agora = LocalDateTime.now();
+        final var pendentes = this.repository.buscaPendentes(agora, PageRequest.of(0, this.tamanhoDoLote));
+        if(!pendentes.isEmpty()) {
+            this.repository.reserva(
+                    pendentes.stream().map(OutboxEventoEntity::getId).toList(),
+                    agora.plus(this.reserva)
+            );
+        }
+        return pendentes;
+    }
+
+    private void registraConfirmacoes() {
+        final var resultado = this.publicador.drena();
+        if(resultado.confirmados().isEmpty() && resultado.falhas().isEmpty()) {
+            return;
+        }
+
+        this.metricas.conta(OUTBOX, RESULTADO_SUCESSO, resultado.confirmados().size());
+        this.metricas.conta(OUTBOX, RESULTADO_ERRO, resultado.falhas().size());
+
+        final var dataDeEnvio = LocalDateTime.now();
+        this.transacao.executeWithoutResult(status -> {
+            if(!resultado.confirmados().isEmpty()) {
+                this.repository.marcaComoEnviados(resultado.confirmados(), dataDeEnvio);
+            }
+            if(!resultado.falhas().isEmpty()) {
+                System.out.println("Eventos do outbox nao confirmados pelo broker, serao reenviados: " + resultado.falhas());
+                this.repository.incrementaTentativas(resultado.falhas());
+            }
+        });
+    }
+
+}
@@ -1,14 +1,23 @@
 package com.fiap.techchallenge4.infrastructure.produto.client;
 
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "produto", url = "http://172.17.0.1:8080/produto")
+import java.util.List;
+
+@FeignClient(name = "produto", url = "${pedido.http.produto.url:http://172.17.0.1:8080/produto}", qualifiers = ProdutoClient.FEIGN_CLIENT, primary = false)
 public interface ProdutoClient {
 
+    String FEIGN_CLIENT = "produtoFeignClient";
+    String CLIENT_RESILIENTE = "produtoClientResiliente";
+
     @GetMapping(value = "/estoque/{ean}/{quantidade}")
     Boolean temEstoque(@PathVariable(value = "ean") final Long ean,
                        @PathVariable(value = "quantidade") final Long quantidade);
 
+    @GetMapping(value = "/estoque")
+    List<EstoqueDTO> listaEstoque();
+
 }
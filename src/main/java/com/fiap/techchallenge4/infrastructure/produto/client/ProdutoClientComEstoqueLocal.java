@@ -0,0 +1,92 @@
+package com.fiap.techchallenge4.infrastructure.produto.client;
+
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.produto.estoque.EstoqueLocal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static com.fiap.techchallenge4.infrastructure.consumer.ConsumerEstoqueLocal.ESTOQUE_ALTERADO;
+import static com.fiap.techchallenge4.infrastructure.consumer.ConsumerEstoqueLocal.ESTOQUE_RETIRADO_POR_PEDIDO;
+
+@Primary
+@Component
+public class ProdutoClientComEstoqueLocal implements ProdutoClient {
+
+    private final ProdutoClient clientProduto;
+    private final EstoqueLocal estoqueLocal;
+    private final boolean habilitado;
+    private final long margem;
+    private final Counter aprovadosLocalmente;
+    private final Counter consultadosNoProduto;
+
+    public ProdutoClientComEstoqueLocal(@Qualifier(CLIENT_RESILIENTE) final ProdutoClient clientProduto,
+                                        final EstoqueLocal estoqueLocal,
+                                        final MeterRegistry registry,
+                                        @Value("${pedido.estoque.local.habilitado:false}") final boolean habilitado,
+                                        @Value("${pedido.estoque.local.margem:1000}") final long margem,
+                                        @Value("${spring.cloud.function.definition:}") final String funcoesLigadas) {
+        this.clientProduto = clientProduto;
+        this.estoqueLocal = estoqueLocal;
+        // Sem os consumers de estoque o indice so teria a carga inicial e aprovaria pedidos com estoque velho
+        this.habilitado = habilitado && consumersDeEstoqueLigados(funcoesLigadas);
+        if(habilitado && !this.habilitado) {
+            System.out.println("Estoque local desligado: consumers " + ESTOQUE_ALTERADO + " e " + ESTOQUE_RETIRADO_POR_PEDIDO
+                    + " fora de spring.cloud.function.definition, todos os pedidos consultam a API de produto");
+        }
+        this.margem = margem;
+        this.aprovadosLocalmente = Counter.builder("pedido.estoque.local.decisao").tag("decisao", "local").register(registry);
+        this.consultadosNoProduto = Counter.builder("pedido.estoque.local.decisao").tag("decisao", "remota").register(registry);
+    }
+
+    @Override
+    public Boolean temEstoque(final Long ean,
+                              final Long quantidade) {
+        if(this.habilitado && Objects.nonNull(ean) && Objects.nonNull(quantidade)
+                && this.estoqueLocal.temFolga(ean, quantidade, this.margem)) {
+            this.aprovadosLocalmente.increment();
+            return true;
+        }
+        if(this.habilitado) {
+            this.consultadosNoProduto.increment();
+        }
+        return this.clientProduto.temEstoque(ean, quantidade);
+    }
+
+    @Override
+    public List<EstoqueDTO> listaEstoque() {
+        return this.clientProduto.listaEstoque();
+    }
+
+    private static boolean consumersDeEstoqueLigados(final String funcoesLigadas) {
+        final var funcoes = Arrays.stream(funcoesLigadas.split("[;|,]"))
+                .map(String::trim)
+                .toList();
+        return funcoes.contains(ESTOQUE_ALTERADO) && funcoes.contains(ESTOQUE_RETIRADO_POR_PEDIDO);
+    }
+
+    // Sem a carga inicial o indice comeca vazio e tudo cai na API de produto ate chegarem os eventos de estoque alterado
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregaEstoque() {
+        if(!this.habilitado) {
+            return;
+        }
+        try {
+            final var estoques = this.clientProduto.listaEstoque();
+            this.estoqueLocal.carrega(estoques);
+            System.out.println("Estoque local carregado com " + estoques.size() + " produto(s)");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
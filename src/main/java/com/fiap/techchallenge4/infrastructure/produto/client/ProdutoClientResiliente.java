@@ -0,0 +1,36 @@
+package com.fiap.techchallenge4.infrastructure.produto.client;
+
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ChamadaResiliente;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.fiap.techchallenge4.infrastructure.resiliencia.ChamadaResiliente.PRODUTO;
+
+@Component(ProdutoClient.CLIENT_RESILIENTE)
+public class ProdutoClientResiliente implements ProdutoClient {
+
+    private final ProdutoClient clientProduto;
+    private final ChamadaResiliente chamadaResiliente;
+
+    public ProdutoClientResiliente(@Qualifier(FEIGN_CLIENT) final ProdutoClient clientProduto,
+                                   final ChamadaResiliente chamadaResiliente) {
+        this.clientProduto = clientProduto;
+        this.chamadaResiliente = chamadaResiliente;
+    }
+
+    @Override
+    public Boolean temEstoque(final Long ean,
+                              final Long quantidade) {
+        return this.chamadaResiliente.executa(PRODUTO, () -> this.clientProduto.temEstoque(ean, quantidade));
+    }
+
+    // Carga do estoque local, feita uma vez na subida: fica fora do circuit breaker das consultas de pedido
+    @Override
+    public List<EstoqueDTO> listaEstoque() {
+        return this.clientProduto.listaEstoque();
+    }
+
+}
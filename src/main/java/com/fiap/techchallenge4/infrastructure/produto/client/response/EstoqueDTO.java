@@ -0,0 +1,6 @@
+package com.fiap.techchallenge4.infrastructure.produto.client.response;
+
+public record EstoqueDTO(
+		Long ean,
+		Long quantidade
+) {}
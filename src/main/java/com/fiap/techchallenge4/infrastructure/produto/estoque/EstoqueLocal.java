@@ -0,0 +1,55 @@
+package com.fiap.techchallenge4.infrastructure.produto.estoque;
+
+import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Indice EAN -> quantidade disponivel, alimentado pela carga inicial do produto, pelo topico de estoque alterado
+// (valor absoluto) e pelos eventos produto-atualiza-estoque de todas as instancias (variacao)
+@Component
+public class EstoqueLocal {
+
+    private final ConcurrentHashMap<Long, Long> disponivelPorEan = new ConcurrentHashMap<>();
+
+    public EstoqueLocal(final MeterRegistry registry) {
+        Gauge.builder("pedido.estoque.local.produtos", this.disponivelPorEan, ConcurrentHashMap::size)
+                .register(registry);
+    }
+
+    public void carrega(final Collection<EstoqueDTO> estoques) {
+        estoques.forEach(this::define);
+    }
+
+    public void define(final EstoqueDTO estoque) {
+        if(Objects.isNull(estoque) || Objects.isNull(estoque.ean()) || Objects.isNull(estoque.quantidade())) {
+            return;
+        }
+        this.disponivelPorEan.put(estoque.ean(), estoque.quantidade());
+    }
+
+    // Variacao so vale para EAN ja conhecido: sem a base absoluta o valor local ficaria errado
+    public void aplica(final Long ean,
+                       final Long quantidade,
+                       final StatusEstoqueEnum statusEstoque) {
+        if(Objects.isNull(ean) || Objects.isNull(quantidade) || Objects.isNull(statusEstoque)) {
+            return;
+        }
+        final var variacao = statusEstoque == StatusEstoqueEnum.RETIRA_DO_ESTOQUE ? -quantidade : quantidade;
+        this.disponivelPorEan.computeIfPresent(ean, (chave, disponivel) -> disponivel + variacao);
+    }
+
+    // Aprova so com folga acima da margem; perto do limite (ou EAN desconhecido) quem decide e a API de produto
+    public boolean temFolga(final Long ean,
+                            final Long quantidade,
+                            final long margem) {
+        final var disponivel = this.disponivelPorEan.get(ean);
+        return Objects.nonNull(disponivel) && disponivel - quantidade >= margem;
+    }
+
+}
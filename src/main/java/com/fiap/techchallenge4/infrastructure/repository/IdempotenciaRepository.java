@@ -0,0 +1,40 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.IdempotenciaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotenciaRepository extends JpaRepository<IdempotenciaEntity, String> {
+
+    // Sem readOnly: a reserva acabou de ser gravada no primario e uma replica atrasada ainda nao a teria
+    @Override
+    @Transactional
+    Optional<IdempotenciaEntity> findById(final String chave);
+
+    // INSERT direto (e nao save/merge) para a chave primaria recusar a segunda reserva da mesma chave
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO tb_idempotencia (chave, hash_corpo, data_de_criacao) VALUES (:chave, :hashCorpo, :dataDeCriacao)", nativeQuery = true)
+    int reserva(@Param("chave") final String chave,
+                @Param("hashCorpo") final String hashCorpo,
+                @Param("dataDeCriacao") final LocalDateTime dataDeCriacao);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotenciaEntity i SET i.criou = :criou WHERE i.chave = :chave")
+    int registraResultado(@Param("chave") final String chave,
+                          @Param("criou") final Boolean criou);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotenciaEntity i WHERE i.dataDeCriacao < :limite OR (i.criou IS NULL AND i.dataDeCriacao < :limiteEmAndamento)")
+    int removeExpiradas(@Param("limite") final LocalDateTime limite,
+                        @Param("limiteEmAndamento") final LocalDateTime limiteEmAndamento);
+
+}
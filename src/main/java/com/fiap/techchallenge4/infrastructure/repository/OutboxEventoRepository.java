@@ -0,0 +1,45 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.OutboxEventoEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventoRepository extends JpaRepository<OutboxEventoEntity, Long> {
+
+    // SKIP LOCKED (-2) deixa cada instancia do relay com um lote diferente de eventos pendentes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM OutboxEventoEntity e
+            WHERE e.dataDeEnvio IS NULL
+            AND (e.reservadoAte IS NULL OR e.reservadoAte < :agora)
+            ORDER BY e.id
+            """)
+    List<OutboxEventoEntity> buscaPendentes(@Param("agora") final LocalDateTime agora,
+                                            final Pageable lote);
+
+    @Modifying
+    @Query("UPDATE OutboxEventoEntity e SET e.reservadoAte = :reservadoAte WHERE e.id IN :ids")
+    int reserva(@Param("ids") final List<Long> ids,
+                @Param("reservadoAte") final LocalDateTime reservadoAte);
+
+    @Modifying
+    @Query("UPDATE OutboxEventoEntity e SET e.dataDeEnvio = :dataDeEnvio WHERE e.id IN :ids")
+    int marcaComoEnviados(@Param("ids") final List<Long> ids,
+                          @Param("dataDeEnvio") final LocalDateTime dataDeEnvio);
+
+    @Modifying
+    @Query("UPDATE OutboxEventoEntity e SET e.tentativas = e.tentativas + 1, e.reservadoAte = NULL WHERE e.id IN :ids")
+    int incrementaTentativas(@Param("ids") final List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEventoEntity e WHERE e.dataDeEnvio < :limite")
+    int removeEnviadosAntesDe(@Param("limite") final LocalDateTime limite);
+
+}
@@ -0,0 +1,32 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEstatisticaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PedidoEstatisticaRepository extends JpaRepository<PedidoEstatisticaEntity, StatusPedidoEnum> {
+
+    @Modifying
+    @Query("UPDATE PedidoEstatisticaEntity e SET e.quantidade = e.quantidade + :variacao WHERE e.statusPedido = :statusPedido")
+    int soma(@Param("statusPedido") final StatusPedidoEnum statusPedido,
+             @Param("variacao") final long variacao);
+
+    @Modifying
+    @Query("UPDATE PedidoEstatisticaEntity e SET e.quantidade = :quantidade WHERE e.statusPedido = :statusPedido")
+    int sobrescreve(@Param("statusPedido") final StatusPedidoEnum statusPedido,
+                    @Param("quantidade") final long quantidade);
+
+    // Contagem completa da tb_pedido, usada so na reconciliacao: percorre todas as particoes
+    @Query("""
+            SELECT new com.fiap.techchallenge4.infrastructure.model.PedidoEstatisticaEntity(p.statusPedido, count(p))
+            FROM PedidoEntity p
+            GROUP BY p.statusPedido
+            """)
+    List<PedidoEstatisticaEntity> contaPedidosPorStatus();
+
+}
@@ -1,14 +1,99 @@
 package com.fiap.techchallenge4.infrastructure.repository;
 
-import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.model.FaixaDeCriacao;
 import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import com.fiap.techchallenge4.infrastructure.model.PedidoStatusEventoEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
-public interface PedidoRepository extends JpaRepository<PedidoEntity, Long> {
+public interface PedidoRepository extends JpaRepository<PedidoEntity, Long>, PedidoRepositoryCustom {
 
-    Optional<PedidoEntity> findByIdAndStatusPedido(final Long id,
-                                                   final StatusPedidoEnum statusPedido);
+    // Busca por id com a FaixaDeCriacao tirada do proprio id: o PostgreSQL le so a particao do mes do pedido,
+    // em vez de sondar o indice de cada particao como o findById
+    default Optional<PedidoEntity> buscaPorId(final Long id) {
+        final var faixa = FaixaDeCriacao.doId(id);
+        return this.buscaPorIdNaFaixa(id, faixa.inicio(), faixa.fim());
+    }
+
+    @Transactional(readOnly = true)
+    @Query(value = """
+            SELECT * FROM tb_pedido
+            WHERE id = :id
+            AND data_de_criacao >= :criadoDesde AND data_de_criacao < :criadoAntesDe
+            """, nativeQuery = true)
+    Optional<PedidoEntity> buscaPorIdNaFaixa(@Param("id") final Long id,
+                                             @Param("criadoDesde") final LocalDateTime criadoDesde,
+                                             @Param("criadoAntesDe") final LocalDateTime criadoAntesDe);
+
+    default int removePorId(final Long id) {
+        final var faixa = FaixaDeCriacao.doId(id);
+        return this.removePorIdNaFaixa(id, faixa.inicio(), faixa.fim());
+    }
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM tb_pedido
+            WHERE id = :id
+            AND data_de_criacao >= :criadoDesde AND data_de_criacao < :criadoAntesDe
+            """, nativeQuery = true)
+    int removePorIdNaFaixa(@Param("id") final Long id,
+                           @Param("criadoDesde") final LocalDateTime criadoDesde,
+                           @Param("criadoAntesDe") final LocalDateTime criadoAntesDe);
+
+    // Historico de status; read-only, entao com replicas configuradas a auditoria nao pesa no primario.
+    // O PedidoUseCaseImpl passa pela LeituraAposEscrita para um pedido recem-gravado nao sair vazio da replica
+    @Transactional(readOnly = true)
+    @Query("SELECT e FROM PedidoStatusEventoEntity e WHERE e.idPedido = :idPedido ORDER BY e.id")
+    List<PedidoStatusEventoEntity> buscaHistorico(@Param("idPedido") final Long idPedido);
+
+    // Unica remocao do historico: pedido aceito que nao entrou na fila e e apagado antes de ser confirmado ao cliente
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PedidoStatusEventoEntity e WHERE e.idPedido = :idPedido")
+    int removeHistorico(@Param("idPedido") final Long idPedido);
+
+    // Keyset: a comparacao de linha (data_de_criacao, id) < (...) vira condicao do indice idx_tb_pedido_cliente_data,
+    // entao o custo nao depende de quantas paginas ja foram percorridas
+    @Transactional(readOnly = true)
+    @Query(value = """
+            SELECT * FROM tb_pedido
+            WHERE cpf_cliente = :cpf
+            ORDER BY data_de_criacao DESC, id DESC
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<PedidoEntity> buscaPorCliente(@Param("cpf") final String cpf,
+                                       @Param("limite") final int limite);
+
+    @Transactional(readOnly = true)
+    @Query(value = """
+            SELECT * FROM tb_pedido
+            WHERE cpf_cliente = :cpf
+            AND (data_de_criacao, id) < (:dataDeCriacao, :id)
+            ORDER BY data_de_criacao DESC, id DESC
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<PedidoEntity> buscaPorClienteApos(@Param("cpf") final String cpf,
+                                           @Param("dataDeCriacao") final LocalDateTime dataDeCriacao,
+                                           @Param("id") final Long id,
+                                           @Param("limite") final int limite);
+
+    // Aceitos que nao terminaram; fica no primario e usa o indice parcial idx_tb_pedido_pendente
+    @Query(value = """
+            SELECT * FROM tb_pedido
+            WHERE status_pedido = 'PENDENTE'
+            AND data_de_criacao < :criadosAntesDe
+            ORDER BY data_de_criacao
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<PedidoEntity> buscaPendentes(@Param("criadosAntesDe") final LocalDateTime criadosAntesDe,
+                                      @Param("limite") final int limite);
 
 }
@@ -0,0 +1,25 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface PedidoRepositoryCustom {
+
+    Optional<PedidoEntity> transicionaStatus(final Long id,
+                                             final StatusPedidoEnum statusAtual,
+                                             final StatusPedidoEnum novoStatus);
+
+    int atualizaStatus(final Long id,
+                       final StatusPedidoEnum statusAtual,
+                       final StatusPedidoEnum novoStatus);
+
+    int atualizaStatusEmLote(final Collection<Long> ids,
+                             final StatusPedidoEnum statusAtual,
+                             final StatusPedidoEnum novoStatus);
+
+    void registraCriacao(final Collection<PedidoEntity> pedidos);
+
+}
@@ -0,0 +1,200 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.model.FaixaDeCriacao;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Toda mudanca de status passa por aqui: o UPDATE condicional em tb_pedido e o insert no historico
+// (tb_pedido_status_evento) acontecem na mesma transacao. Todo filtro por id leva tambem a FaixaDeCriacao dos ids,
+// para o PostgreSQL so tocar as particoes mensais desses pedidos
+public class PedidoRepositoryCustomImpl implements PedidoRepositoryCustom {
+
+    private static final String COLUNAS = "id, cpf_cliente, ean, quantidade, status_pedido, data_de_criacao";
+
+    private static final String NA_FAIXA = "data_de_criacao >= :criadoDesde AND data_de_criacao < :criadoAntesDe";
+
+    private static final String TRANSICIONA_STATUS = """
+            UPDATE tb_pedido SET status_pedido = :novoStatus
+            WHERE id = :id AND status_pedido = :statusAtual AND %s
+            """.formatted(NA_FAIXA);
+
+    private static final String TRANSICIONA_STATUS_EM_LOTE = """
+            UPDATE tb_pedido SET status_pedido = :novoStatus
+            WHERE id IN (:ids) AND status_pedido = :statusAtual AND %s
+            """.formatted(NA_FAIXA);
+
+    private static final String REGISTRA_EVENTO = """
+            INSERT INTO tb_pedido_status_evento (id_pedido, status_anterior, status_pedido, data_do_evento)
+            VALUES (:id, :statusAtual, :novoStatus, :dataDoEvento)
+            """;
+
+    // PostgreSQL: UPDATE ... RETURNING e o insert no historico num unico comando (CTE com escrita)
+    private static final String TRANSICIONA_STATUS_COM_EVENTO = """
+            WITH transicao AS (
+                UPDATE tb_pedido SET status_pedido = :novoStatus
+                WHERE id = :id AND status_pedido = :statusAtual AND %2$s
+                RETURNING %1$s
+            ), evento AS (
+                INSERT INTO tb_pedido_status_evento (id_pedido, status_anterior, status_pedido, data_do_evento)
+                SELECT id, :statusAtual, :novoStatus, :dataDoEvento FROM transicao
+            )
+            SELECT %1$s FROM transicao
+            """.formatted(COLUNAS, NA_FAIXA);
+
+    private static final String TRANSICIONA_STATUS_EM_LOTE_COM_EVENTO = """
+            WITH transicao AS (
+                UPDATE tb_pedido SET status_pedido = :novoStatus
+                WHERE id IN (:ids) AND status_pedido = :statusAtual AND %s
+                RETURNING id
+            )
+            INSERT INTO tb_pedido_status_evento (id_pedido, status_anterior, status_pedido, data_do_evento)
+            SELECT id, :statusAtual, :novoStatus, :dataDoEvento FROM transicao
+            """.formatted(NA_FAIXA);
+
+    private static final String BUSCA_PARA_TRANSICAO = """
+            SELECT %s FROM tb_pedido
+            WHERE id = :id AND status_pedido = :statusAtual AND %s
+            FOR UPDATE
+            """.formatted(COLUNAS, NA_FAIXA);
+
+    private static final String BUSCA_IDS_PARA_TRANSICAO = """
+            SELECT id FROM tb_pedido
+            WHERE id IN (:ids) AND status_pedido = :statusAtual AND %s
+            FOR UPDATE
+            """.formatted(NA_FAIXA);
+
+    private static final RowMapper<PedidoEntity> PEDIDO_ROW_MAPPER = (rs, linha) -> PedidoEntity.builder()
+            .id(rs.getLong("id"))
+            .cpfCliente(rs.getString("cpf_cliente"))
+            .ean(rs.getLong("ean"))
+            .quantidade(rs.getLong("quantidade"))
+            .statusPedido(StatusPedidoEnum.valueOf(rs.getString("status_pedido")))
+            .dataDeCriacao(rs.getObject("data_de_criacao", LocalDateTime.class))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean suportaReturning;
+
+    public PedidoRepositoryCustomImpl(final NamedParameterJdbcTemplate jdbcTemplate,
+                                      final DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.suportaReturning = "PostgreSQL".equals(nomeDoBanco(dataSource));
+    }
+
+    // No PostgreSQL a transicao e um unico comando; nos demais bancos, SELECT FOR UPDATE, UPDATE e o insert do evento
+    @Override
+    @Transactional
+    public Optional<PedidoEntity> transicionaStatus(final Long id,
+                                                    final StatusPedidoEnum statusAtual,
+                                                    final StatusPedidoEnum novoStatus) {
+        final var parametros = naFaixa(parametros(statusAtual, novoStatus), List.of(id))
+                .addValue("id", id);
+
+        if(this.suportaReturning) {
+            return this.jdbcTemplate.query(TRANSICIONA_STATUS_COM_EVENTO, parametros, PEDIDO_ROW_MAPPER)
+                    .stream()
+                    .findFirst();
+        }
+
+        final var pedido = this.jdbcTemplate.query(BUSCA_PARA_TRANSICAO, parametros, PEDIDO_ROW_MAPPER)
+                .stream()
+                .findFirst();
+        if(pedido.isEmpty() || this.jdbcTemplate.update(TRANSICIONA_STATUS, parametros) == 0) {
+            return Optional.empty();
+        }
+        this.jdbcTemplate.update(REGISTRA_EVENTO, parametros);
+        pedido.get().setStatusPedido(novoStatus);
+        return pedido;
+    }
+
+    @Override
+    @Transactional
+    public int atualizaStatus(final Long id,
+                              final StatusPedidoEnum statusAtual,
+                              final StatusPedidoEnum novoStatus) {
+        return this.atualizaStatusEmLote(List.of(id), statusAtual, novoStatus);
+    }
+
+    // Retorna quantos pedidos mudaram de status; cada um deles ganha um evento no historico
+    @Override
+    @Transactional
+    public int atualizaStatusEmLote(final Collection<Long> ids,
+                                    final StatusPedidoEnum statusAtual,
+                                    final StatusPedidoEnum novoStatus) {
+        if(ids.isEmpty()) {
+            return 0;
+        }
+        final var parametros = naFaixa(parametros(statusAtual, novoStatus), ids)
+                .addValue("ids", ids);
+
+        if(this.suportaReturning) {
+            return this.jdbcTemplate.update(TRANSICIONA_STATUS_EM_LOTE_COM_EVENTO, parametros);
+        }
+
+        final var idsEmTransicao = this.jdbcTemplate.queryForList(BUSCA_IDS_PARA_TRANSICAO, parametros, Long.class);
+        if(idsEmTransicao.isEmpty()) {
+            return 0;
+        }
+        this.jdbcTemplate.update(TRANSICIONA_STATUS_EM_LOTE, naFaixa(parametros(statusAtual, novoStatus), idsEmTransicao).addValue("ids", idsEmTransicao));
+        this.jdbcTemplate.batchUpdate(REGISTRA_EVENTO, idsEmTransicao.stream()
+                .map(id -> parametros(statusAtual, novoStatus).addValue("id", id))
+                .toArray(MapSqlParameterSource[]::new));
+        return idsEmTransicao.size();
+    }
+
+    // Primeiro evento de cada pedido, num unico batch de inserts
+    @Override
+    @Transactional
+    public void registraCriacao(final Collection<PedidoEntity> pedidos) {
+        if(pedidos.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.batchUpdate(REGISTRA_EVENTO, pedidos.stream()
+                .map(pedido -> parametros(null, pedido.getStatusPedido())
+                        .addValue("id", pedido.getId())
+                        .addValue("dataDoEvento", pedido.getDataDeCriacao()))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    private static MapSqlParameterSource parametros(final StatusPedidoEnum statusAtual,
+                                                    final StatusPedidoEnum novoStatus) {
+        return new MapSqlParameterSource()
+                .addValue("statusAtual", Objects.isNull(statusAtual) ? null : statusAtual.name(), Types.VARCHAR)
+                .addValue("novoStatus", novoStatus.name())
+                .addValue("dataDoEvento", LocalDateTime.now());
+    }
+
+    private static MapSqlParameterSource naFaixa(final MapSqlParameterSource parametros,
+                                                 final Collection<Long> ids) {
+        final var faixa = FaixaDeCriacao.dosIds(ids);
+        return parametros
+                .addValue("criadoDesde", faixa.inicio())
+                .addValue("criadoAntesDe", faixa.fim());
+    }
+
+    private static String nomeDoBanco(final DataSource dataSource) {
+        try {
+            return JdbcUtils.commonDatabaseName(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)
+            );
+        } catch (MetaDataAccessException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.fiap.techchallenge4.infrastructure.resiliencia;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+public class ChamadaResiliente {
+
+    public static final String PRODUTO = "produto";
+    public static final String CLIENTE = "cliente";
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+
+    public ChamadaResiliente(final CircuitBreakerRegistry circuitBreakers,
+                             final BulkheadRegistry bulkheads) {
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+    }
+
+    // O bulkhead fica por fora: chamada recusada por falta de vaga nao conta como falha no circuit breaker.
+    // Com o circuito aberto ou o bulkhead cheio a chamada falha na hora, sem tocar na rede
+    public <T> T executa(final String dependencia,
+                         final Supplier<T> chamada) {
+        final var circuitBreaker = this.circuitBreakers.circuitBreaker(dependencia);
+        final var bulkhead = this.bulkheads.bulkhead(dependencia);
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, chamada)).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ServicoIndisponivelException(dependencia, e);
+        }
+    }
+
+}
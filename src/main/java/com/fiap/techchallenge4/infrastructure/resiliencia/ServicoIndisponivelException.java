@@ -0,0 +1,10 @@
+package com.fiap.techchallenge4.infrastructure.resiliencia;
+
+public class ServicoIndisponivelException extends RuntimeException {
+
+    public ServicoIndisponivelException(final String dependencia,
+                                        final Throwable causa) {
+        super("SERVICO DE " + dependencia.toUpperCase() + " INDISPONIVEL!", causa);
+    }
+
+}
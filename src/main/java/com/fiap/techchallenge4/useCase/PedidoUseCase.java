@@ -1,13 +1,41 @@
 package com.fiap.techchallenge4.useCase;
 
+import com.fiap.techchallenge4.domain.ResultadoCriacaoEnum;
 import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EstatisticasPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EventoStatusPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaPedidosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoLotePedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusDoPedidoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface PedidoUseCase {
 
     boolean cria(final CriaPedidoDTO dadosPedido);
 
+    ResultadoCriacaoEnum criaComResultado(final CriaPedidoDTO dadosPedido);
+
+    Long aceita(final CriaPedidoDTO dadosPedido);
+
+    Optional<StatusDoPedidoDTO> consultaStatus(final Long idPedido);
+
+    List<EventoStatusPedidoDTO> historico(final Long idPedido);
+
+    EstatisticasPedidoDTO estatisticas();
+
+    int reprocessaPendentes(final LocalDateTime criadosAntesDe, final int limite);
+
+    List<ResultadoLotePedidoDTO> criaLote(final List<CriaPedidoDTO> dadosPedidos);
+
     boolean cancela(final Long idPedido);
 
     void atualiza(final AtualizaPedidoDTO evento);
+
+    List<Boolean> atualizaLote(final List<AtualizaPedidoDTO> eventos);
+
+    PaginaPedidosDTO listaPorCliente(final String cpfCliente, final String cursor, final Integer tamanho);
 }
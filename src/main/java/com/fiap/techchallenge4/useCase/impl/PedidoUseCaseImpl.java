@@ -6,47 +6,109 @@ import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDT
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaEstoqueDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CancelaEntregaDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EstatisticasPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EventoStatusPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaPedidosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PedidoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.PreparaEntregaDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoLotePedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusDoPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraAposEscrita;
+import com.fiap.techchallenge4.infrastructure.estatisticas.ContadoresStatusPedido;
+import com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido;
 import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import com.fiap.techchallenge4.infrastructure.outbox.OutboxEventos;
 import com.fiap.techchallenge4.infrastructure.produto.client.ProdutoClient;
 import com.fiap.techchallenge4.infrastructure.repository.PedidoRepository;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ServicoIndisponivelException;
 import com.fiap.techchallenge4.useCase.PedidoUseCase;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.fiap.techchallenge4.infrastructure.config.AceitePedidoExecutorConfig.ACEITE_EXECUTOR;
+import static com.fiap.techchallenge4.infrastructure.config.ConsultaExecutorConfig.CONSULTA_EXECUTOR;
+import static com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido.*;
 
 @Service
 public class PedidoUseCaseImpl implements PedidoUseCase {
 
+    public static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     private final ProdutoClient clientProduto;
     private final ClienteClient clientCliente;
-    private final StreamBridge streamBridge;
+    private final OutboxEventos outbox;
     private final PedidoRepository repository;
+    private final TransactionTemplate transacao;
+    private final ExecutorService executorConsulta;
+    private final Executor executorAceite;
+    private final MetricasPedido metricas;
+    private final LeituraAposEscrita leituraAposEscrita;
+    private final ContadoresStatusPedido contadores;
+    private final long timeoutConsultaEmMilissegundos;
+    private final boolean consultaParalela;
+    private final int tamanhoMaximoLote;
+    // Pedidos aceitos na fila ou em processamento, para a varredura de PENDENTE nao enfileirar de novo
+    private final Set<Long> aceitosEmProcessamento = ConcurrentHashMap.newKeySet();
 
     public PedidoUseCaseImpl(final ProdutoClient clientProduto,
                              final ClienteClient clientCliente,
-                             final StreamBridge streamBridge,
-                             final PedidoRepository repository) {
+                             final OutboxEventos outbox,
+                             final PedidoRepository repository,
+                             final TransactionTemplate transacao,
+                             @Qualifier(CONSULTA_EXECUTOR) final ExecutorService executorConsulta,
+                             @Qualifier(ACEITE_EXECUTOR) final Executor executorAceite,
+                             final MetricasPedido metricas,
+                             final LeituraAposEscrita leituraAposEscrita,
+                             final ContadoresStatusPedido contadores,
+                             @Value("${pedido.consulta.timeout-ms:3000}") final long timeoutConsultaEmMilissegundos,
+                             @Value("${pedido.consulta.paralela:true}") final boolean consultaParalela,
+                             @Value("${pedido.lote.tamanho-maximo:1000}") final int tamanhoMaximoLote) {
         this.clientProduto = clientProduto;
         this.clientCliente = clientCliente;
-        this.streamBridge = streamBridge;
+        this.outbox = outbox;
         this.repository = repository;
+        this.transacao = transacao;
+        this.executorConsulta = executorConsulta;
+        this.executorAceite = executorAceite;
+        this.metricas = metricas;
+        this.leituraAposEscrita = leituraAposEscrita;
+        this.contadores = contadores;
+        this.timeoutConsultaEmMilissegundos = timeoutConsultaEmMilissegundos;
+        this.consultaParalela = consultaParalela;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
     }
 
     @Override
     public boolean cria(final CriaPedidoDTO dadosPedido) {
-        final var pedido = new Pedido(
-                dadosPedido.cpfCliente(),
-                dadosPedido.ean(),
-                dadosPedido.quantidade()
-        );
+        return ResultadoCriacaoEnum.CRIADO.equals(this.criaComResultado(dadosPedido));
+    }
+
+    // Mesmo fluxo do cria, separando a recusa (cliente inexistente ou sem estoque) da falha nas consultas ou na gravacao:
+    // o registro de idempotencia guarda a recusa e libera a Idempotency-Key na falha
+    @Override
+    public ResultadoCriacaoEnum criaComResultado(final CriaPedidoDTO dadosPedido) {
+        final var amostra = this.metricas.inicia();
+        final Pedido pedido;
         try {
-            final var cliente = this.clientCliente.pegaCliente(pedido.getCpfCliente());
+            pedido = new Pedido(
+                    dadosPedido.cpfCliente(),
+                    dadosPedido.ean(),
+                    dadosPedido.quantidade()
+            );
+        } catch (IllegalArgumentException e) {
+            this.metricas.conta(CRIA, RESULTADO_INVALIDO);
+            throw e;
+        }
 
-            final var temEstoque = this.clientProduto.temEstoque(pedido.getEan(), pedido.getQuantidade());
-            if(Objects.nonNull(cliente) && Objects.nonNull(temEstoque) && temEstoque) {
+        var resultado = RESULTADO_ERRO;
+        try {
+            if(this.metricas.mede(CRIA, ETAPA_CONSULTAS, () -> this.clienteExisteEProdutoTemEstoque(CRIA, pedido))) {
                 System.out.println("Pedido criado com sucesso");
 
                 final var produtoEntity = PedidoEntity.builder()
@@ -56,89 +118,594 @@ public class PedidoUseCaseImpl implements PedidoUseCase {
                         .statusPedido(StatusPedidoEnum.CRIADO)
                         .dataDeCriacao(LocalDateTime.now())
                         .build();
-                final var pedidoSalvoNaBase = this.repository.save(produtoEntity);
 
-                this.streamBridge.send("produto-atualiza-estoque", new AtualizaEstoqueDTO(
-                        dadosPedido.ean(),
-                        dadosPedido.quantidade(),
-                        StatusEstoqueEnum.RETIRA_DO_ESTOQUE
-                        )
-                );
+                // Pedido e eventos sao gravados na mesma transacao; o RelayOutboxEventos publica no broker depois
+                final var idPedido = this.metricas.mede(CRIA, ETAPA_GRAVACAO, () -> this.transacao.execute(status -> {
+                    final var pedidoSalvoNaBase = this.repository.save(produtoEntity);
+                    this.repository.registraCriacao(List.of(pedidoSalvoNaBase));
+                    this.registraEventosDoPedidoCriado(pedidoSalvoNaBase.getId(), pedido);
+                    return pedidoSalvoNaBase.getId();
+                }));
+                this.contadores.criados(StatusPedidoEnum.CRIADO, 1);
+                this.leituraAposEscrita.registraEscrita(pedido.getCpfCliente());
+                this.leituraAposEscrita.registraEscrita(chaveDoPedido(idPedido));
+                resultado = RESULTADO_SUCESSO;
+                return ResultadoCriacaoEnum.CRIADO;
+            }
+            resultado = RESULTADO_CONFLITO;
+        } catch (ServicoIndisponivelException e) {
+            // Circuito aberto ou bulkhead cheio: recusa na hora para o controller responder 503
+            resultado = RESULTADO_INDISPONIVEL;
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResultadoCriacaoEnum.FALHOU;
+        } finally {
+            this.metricas.conta(CRIA, resultado);
+            this.metricas.finaliza(amostra, CRIA, ETAPA_TOTAL);
+        }
+        return ResultadoCriacaoEnum.RECUSADO;
+    }
+
+    private void registraEventosDoPedidoCriado(final Long idPedido,
+                                               final Pedido pedido) {
+        this.outbox.registra("produto-atualiza-estoque", new AtualizaEstoqueDTO(
+                pedido.getEan(),
+                pedido.getQuantidade(),
+                StatusEstoqueEnum.RETIRA_DO_ESTOQUE
+                )
+        );
 
-                this.streamBridge.send("logistica-prepara-entrega", new PreparaEntregaDTO(
-                        pedidoSalvoNaBase.getId(),
-                        dadosPedido.cpfCliente(),
-                        dadosPedido.ean(),
-                        dadosPedido.quantidade()
-                        )
+        this.outbox.registra("logistica-prepara-entrega", new PreparaEntregaDTO(
+                idPedido,
+                pedido.getCpfCliente(),
+                pedido.getEan(),
+                pedido.getQuantidade()
+                )
+        );
+    }
+
+    // Aceite assincrono: a requisicao so valida e grava o pedido PENDENTE; consultas e eventos ficam com o executor de aceite
+    @Override
+    public Long aceita(final CriaPedidoDTO dadosPedido) {
+        final Pedido pedido;
+        try {
+            pedido = new Pedido(
+                    dadosPedido.cpfCliente(),
+                    dadosPedido.ean(),
+                    dadosPedido.quantidade()
+            );
+        } catch (IllegalArgumentException e) {
+            this.metricas.conta(ACEITA, RESULTADO_INVALIDO);
+            throw e;
+        }
+
+        final var amostra = this.metricas.inicia();
+        var resultado = RESULTADO_ERRO;
+        try {
+            final var pendente = this.transacao.execute(status -> {
+                final var pendenteSalvo = this.repository.save(PedidoEntity.builder()
+                        .cpfCliente(pedido.getCpfCliente())
+                        .ean(pedido.getEan())
+                        .quantidade(pedido.getQuantidade())
+                        .statusPedido(StatusPedidoEnum.PENDENTE)
+                        .dataDeCriacao(LocalDateTime.now())
+                        .build());
+                this.repository.registraCriacao(List.of(pendenteSalvo));
+                return pendenteSalvo;
+            });
+            this.contadores.criados(StatusPedidoEnum.PENDENTE, 1);
+            this.leituraAposEscrita.registraEscrita(pedido.getCpfCliente());
+            this.leituraAposEscrita.registraEscrita(chaveDoPedido(pendente.getId()));
+
+            if(!this.enfileiraAceito(pendente.getId(), pedido)) {
+                // Fila cheia: o pedido nao fica para tras sem ninguem para processar
+                this.transacao.executeWithoutResult(status -> {
+                    this.repository.removePorId(pendente.getId());
+                    this.repository.removeHistorico(pendente.getId());
+                });
+                this.contadores.removido(StatusPedidoEnum.PENDENTE);
+                resultado = RESULTADO_INDISPONIVEL;
+                throw new ServicoIndisponivelException("fila de pedidos", null);
+            }
+            resultado = RESULTADO_SUCESSO;
+            return pendente.getId();
+        } finally {
+            this.metricas.conta(ACEITA, resultado);
+            this.metricas.finaliza(amostra, ACEITA, ETAPA_TOTAL);
+        }
+    }
+
+    private boolean enfileiraAceito(final Long idPedido,
+                                    final Pedido pedido) {
+        this.aceitosEmProcessamento.add(idPedido);
+        try {
+            this.executorAceite.execute(() -> {
+                try {
+                    this.processaAceito(idPedido, pedido);
+                } finally {
+                    this.aceitosEmProcessamento.remove(idPedido);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            this.aceitosEmProcessamento.remove(idPedido);
+            return false;
+        }
+    }
+
+    // Restante do cria, fora da requisicao. As transicoes PENDENTE -> CRIADO/RECUSADO sao condicionais: um pedido
+    // enfileirado de novo pela varredura nao gera os eventos duas vezes. Falha nas consultas ou na gravacao deixa o
+    // pedido PENDENTE para o reprocessaPendentes; RECUSADO so quando o cliente nao existe ou o produto nao tem estoque
+    private void processaAceito(final Long idPedido,
+                                final Pedido pedido) {
+        final var amostra = this.metricas.inicia();
+        var resultado = RESULTADO_ERRO;
+        final boolean aprovado;
+        try {
+            aprovado = this.metricas.mede(CRIA, ETAPA_CONSULTAS, () -> this.clienteExisteEProdutoTemEstoque(CRIA, pedido));
+            resultado = aprovado ? RESULTADO_SUCESSO : RESULTADO_CONFLITO;
+        } catch (Exception e) {
+            if(e instanceof ServicoIndisponivelException) {
+                resultado = RESULTADO_INDISPONIVEL;
+            } else {
+                e.printStackTrace();
+            }
+            System.out.println("Pedido " + idPedido + " continua PENDENTE: " + e.getMessage());
+            this.metricas.conta(CRIA, resultado);
+            this.metricas.finaliza(amostra, CRIA, ETAPA_TOTAL);
+            return;
+        }
+
+        final var statusFinal = aprovado ? StatusPedidoEnum.CRIADO : StatusPedidoEnum.RECUSADO;
+        try {
+            final var transicionou = this.metricas.mede(CRIA, ETAPA_GRAVACAO, () -> this.transacao.execute(status -> {
+                final var pedidoSalvo = this.repository.transicionaStatus(idPedido, StatusPedidoEnum.PENDENTE, statusFinal);
+                if(pedidoSalvo.isPresent() && StatusPedidoEnum.CRIADO.equals(statusFinal)) {
+                    this.registraEventosDoPedidoCriado(idPedido, pedido);
+                }
+                return pedidoSalvo.isPresent();
+            }));
+            if(Boolean.TRUE.equals(transicionou)) {
+                this.contadores.transicionados(StatusPedidoEnum.PENDENTE, statusFinal, 1);
+            }
+            this.leituraAposEscrita.registraEscrita(pedido.getCpfCliente());
+            this.leituraAposEscrita.registraEscrita(chaveDoPedido(idPedido));
+            System.out.println("Pedido " + idPedido + " " + statusFinal);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultado = RESULTADO_ERRO;
+        } finally {
+            this.metricas.conta(CRIA, resultado);
+            this.metricas.finaliza(amostra, CRIA, ETAPA_TOTAL);
+        }
+    }
+
+    @Override
+    public Optional<StatusDoPedidoDTO> consultaStatus(final Long idPedido) {
+        final var idPedidoObjeto = new IdPedido(idPedido);
+        // O status e consultado logo depois do 202 do aceite: pedido recem-gravado e lido do primario
+        return this.leituraAposEscrita.le(chaveDoPedido(idPedidoObjeto.getNumero()), () -> this.repository.buscaPorId(idPedidoObjeto.getNumero()))
+                .map(pedido -> new StatusDoPedidoDTO(pedido.getId(), pedido.getStatusPedido()));
+    }
+
+    @Override
+    public List<EventoStatusPedidoDTO> historico(final Long idPedido) {
+        final var idPedidoObjeto = new IdPedido(idPedido);
+        return this.leituraAposEscrita.le(chaveDoPedido(idPedidoObjeto.getNumero()), () -> this.repository.buscaHistorico(idPedidoObjeto.getNumero()))
+                .stream()
+                .map(evento -> new EventoStatusPedidoDTO(
+                        evento.getStatusAnterior(),
+                        evento.getStatusPedido(),
+                        evento.getDataDoEvento()
+                ))
+                .toList();
+    }
+
+    @Override
+    public EstatisticasPedidoDTO estatisticas() {
+        return this.contadores.estatisticas();
+    }
+
+    @Override
+    public int reprocessaPendentes(final LocalDateTime criadosAntesDe,
+                                   final int limite) {
+        var reenfileirados = 0;
+        for (final var pendente : this.repository.buscaPendentes(criadosAntesDe, limite)) {
+            if(this.aceitosEmProcessamento.contains(pendente.getId())) {
+                continue;
+            }
+            final var pedido = new Pedido(pendente.getCpfCliente(), pendente.getEan(), pendente.getQuantidade());
+            if(!this.enfileiraAceito(pendente.getId(), pedido)) {
+                break;
+            }
+            reenfileirados++;
+        }
+        return reenfileirados;
+    }
+
+    @Override
+    public List<ResultadoLotePedidoDTO> criaLote(final List<CriaPedidoDTO> dadosPedidos) {
+        if(Objects.isNull(dadosPedidos) || dadosPedidos.isEmpty() || dadosPedidos.size() > this.tamanhoMaximoLote) {
+            throw new IllegalArgumentException("LOTE DEVE TER ENTRE 1 E %d PEDIDOS!".formatted(this.tamanhoMaximoLote));
+        }
+        final var amostra = this.metricas.inicia();
+
+        final var resultados = new ResultadoLotePedidoDTO[dadosPedidos.size()];
+        final var pedidos = new Pedido[dadosPedidos.size()];
+        for (int linha = 0; linha < dadosPedidos.size(); linha++) {
+            final var dadosPedido = dadosPedidos.get(linha);
+            try {
+                pedidos[linha] = new Pedido(
+                        Objects.isNull(dadosPedido) ? null : dadosPedido.cpfCliente(),
+                        Objects.isNull(dadosPedido) ? null : dadosPedido.ean(),
+                        Objects.isNull(dadosPedido) ? null : dadosPedido.quantidade()
                 );
-                return true;
+            } catch (IllegalArgumentException e) {
+                resultados[linha] = new ResultadoLotePedidoDTO(linha, StatusLotePedidoEnum.INVALIDO, null, e.getMessage());
+            }
+        }
+
+        // Cada CPF e consultado uma unica vez; o estoque, uma vez por EAN com a soma das quantidades das linhas, para
+        // linhas do mesmo produto nao serem aprovadas cada uma contra o estoque inteiro. Todas as consultas em paralelo
+        final var consultasCliente = new HashMap<String, Future<Boolean>>();
+        final var quantidadePorEan = new HashMap<Long, Long>();
+        for (final var pedido : pedidos) {
+            if(Objects.isNull(pedido)) {
+                continue;
+            }
+            consultasCliente.computeIfAbsent(pedido.getCpfCliente(), cpf -> this.submeteConsulta(
+                    () -> this.metricas.mede(CRIA_LOTE, ETAPA_CONSULTA_CLIENTE, () -> Objects.nonNull(this.clientCliente.pegaCliente(cpf)))
+            ));
+            quantidadePorEan.merge(pedido.getEan(), pedido.getQuantidade(), Long::sum);
+        }
+        final var consultasEstoque = new HashMap<Long, Future<Boolean>>();
+        quantidadePorEan.forEach((ean, quantidade) -> consultasEstoque.put(ean, this.submeteConsulta(
+                () -> this.metricas.mede(CRIA_LOTE, ETAPA_CONSULTA_ESTOQUE, () -> Boolean.TRUE.equals(this.clientProduto.temEstoque(ean, quantidade)))
+        )));
+
+        final var prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutConsultaEmMilissegundos);
+        final var linhasAceitas = new ArrayList<Integer>();
+        try {
+            for (int linha = 0; linha < pedidos.length; linha++) {
+                final var pedido = pedidos[linha];
+                if(Objects.isNull(pedido)) {
+                    continue;
+                }
+                try {
+                    if(!aguardaConsulta(consultasCliente.get(pedido.getCpfCliente()), prazo)) {
+                        resultados[linha] = new ResultadoLotePedidoDTO(linha, StatusLotePedidoEnum.CLIENTE_NAO_ENCONTRADO, null, null);
+                    } else if(!aguardaConsulta(consultasEstoque.get(pedido.getEan()), prazo)) {
+                        resultados[linha] = new ResultadoLotePedidoDTO(linha, StatusLotePedidoEnum.SEM_ESTOQUE, null, null);
+                    } else {
+                        linhasAceitas.add(linha);
+                    }
+                } catch (Exception e) {
+                    resultados[linha] = new ResultadoLotePedidoDTO(linha, StatusLotePedidoEnum.ERRO, null, e.getMessage());
+                }
+            }
+        } finally {
+            consultasCliente.values().forEach(consulta -> consulta.cancel(true));
+            consultasEstoque.values().forEach(consulta -> consulta.cancel(true));
+        }
+
+        if(!linhasAceitas.isEmpty()) {
+            this.metricas.mede(CRIA_LOTE, ETAPA_GRAVACAO, () -> this.gravaLote(pedidos, linhasAceitas, resultados));
+        }
+
+        for (final var resultado : resultados) {
+            this.metricas.conta(CRIA_LOTE, switch (resultado.status()) {
+                case CRIADO -> RESULTADO_SUCESSO;
+                case INVALIDO -> RESULTADO_INVALIDO;
+                case CLIENTE_NAO_ENCONTRADO, SEM_ESTOQUE -> RESULTADO_CONFLITO;
+                case ERRO -> RESULTADO_ERRO;
+            });
+        }
+        this.metricas.finaliza(amostra, CRIA_LOTE, ETAPA_TOTAL);
+        return Arrays.asList(resultados);
+    }
+
+    private void gravaLote(final Pedido[] pedidos,
+                           final List<Integer> linhasAceitas,
+                           final ResultadoLotePedidoDTO[] resultados) {
+        final var dataDeCriacao = LocalDateTime.now();
+        final var entidades = linhasAceitas.stream()
+                .map(linha -> PedidoEntity.builder()
+                        .cpfCliente(pedidos[linha].getCpfCliente())
+                        .ean(pedidos[linha].getEan())
+                        .quantidade(pedidos[linha].getQuantidade())
+                        .statusPedido(StatusPedidoEnum.CRIADO)
+                        .dataDeCriacao(dataDeCriacao)
+                        .build())
+                .toList();
+        try {
+            final var salvos = this.transacao.execute(status -> {
+                final var pedidosSalvos = this.repository.saveAll(entidades);
+                this.repository.registraCriacao(pedidosSalvos);
+                for (final var pedidoSalvo : pedidosSalvos) {
+                    this.outbox.registra("produto-atualiza-estoque", new AtualizaEstoqueDTO(
+                            pedidoSalvo.getEan(),
+                            pedidoSalvo.getQuantidade(),
+                            StatusEstoqueEnum.RETIRA_DO_ESTOQUE
+                            )
+                    );
+                    this.outbox.registra("logistica-prepara-entrega", new PreparaEntregaDTO(
+                            pedidoSalvo.getId(),
+                            pedidoSalvo.getCpfCliente(),
+                            pedidoSalvo.getEan(),
+                            pedidoSalvo.getQuantidade()
+                            )
+                    );
+                }
+                return pedidosSalvos;
+            });
+            this.contadores.criados(StatusPedidoEnum.CRIADO, salvos.size());
+            for (int i = 0; i < linhasAceitas.size(); i++) {
+                final var linha = linhasAceitas.get(i);
+                this.leituraAposEscrita.registraEscrita(pedidos[linha].getCpfCliente());
+                this.leituraAposEscrita.registraEscrita(chaveDoPedido(salvos.get(i).getId()));
+                resultados[linha] = new ResultadoLotePedidoDTO(linha, StatusLotePedidoEnum.CRIADO, salvos.get(i).getId(), null);
             }
         } catch (Exception e) {
             e.printStackTrace();
+            linhasAceitas.forEach(linha ->
+                    resultados[linha] = new ResultadoLotePedidoDTO(linha, StatusLotePedidoEnum.ERRO, null, "FALHA AO GRAVAR O LOTE DE PEDIDOS!")
+            );
+        }
+    }
+
+    // Com o executor cheio a consulta roda na propria thread, para o lote nao perder linhas
+    private Future<Boolean> submeteConsulta(final Callable<Boolean> consulta) {
+        try {
+            return this.executorConsulta.submit(consulta);
+        } catch (RejectedExecutionException e) {
+            final var consultaNaThreadAtual = new FutureTask<>(consulta);
+            consultaNaThreadAtual.run();
+            return consultaNaThreadAtual;
+        }
+    }
+
+    private static boolean aguardaConsulta(final Future<Boolean> consulta,
+                                           final long prazo) throws Exception {
+        return consulta.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private boolean clienteExisteEProdutoTemEstoque(final String operacao,
+                                                    final Pedido pedido) throws Exception {
+        final Callable<Boolean> consultaCliente = () -> this.metricas.mede(operacao, ETAPA_CONSULTA_CLIENTE, () -> Objects.nonNull(
+                this.clientCliente.pegaCliente(pedido.getCpfCliente())
+        ));
+        final Callable<Boolean> consultaEstoque = () -> this.metricas.mede(operacao, ETAPA_CONSULTA_ESTOQUE, () -> Boolean.TRUE.equals(
+                this.clientProduto.temEstoque(pedido.getEan(), pedido.getQuantidade())
+        ));
+
+        if(!this.consultaParalela) {
+            return consultaCliente.call() && consultaEstoque.call();
+        }
+
+        // As duas consultas rodam ao mesmo tempo, sob um prazo unico; a primeira resposta negativa encerra a outra
+        final var consultas = new ExecutorCompletionService<Boolean>(this.executorConsulta);
+        final var emAndamento = new ArrayList<Future<Boolean>>(2);
+        final var prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutConsultaEmMilissegundos);
+        try {
+            // Executor de consultas cheio: responde 503 como o bulkhead, e nao 409 como se o pedido fosse recusado
+            try {
+                emAndamento.add(consultas.submit(consultaCliente));
+                emAndamento.add(consultas.submit(consultaEstoque));
+            } catch (RejectedExecutionException e) {
+                throw new ServicoIndisponivelException("consulta", e);
+            }
+            for (int i = 0; i < emAndamento.size(); i++) {
+                final var concluida = consultas.poll(prazo - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if(Objects.isNull(concluida)) {
+                    throw new TimeoutException("CONSULTAS DE CLIENTE E ESTOQUE EXCEDERAM O TEMPO LIMITE!");
+                }
+                if(!concluida.get()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof ServicoIndisponivelException indisponivel) {
+                throw indisponivel;
+            }
+            throw e;
+        } finally {
+            emAndamento.forEach(consulta -> consulta.cancel(true));
         }
-        return false;
     }
 
     @Override
     public boolean cancela(final Long idPedido) {
-        final var idPedidoObjeto = new IdPedido(idPedido);
+        final IdPedido idPedidoObjeto;
+        try {
+            idPedidoObjeto = new IdPedido(idPedido);
+        } catch (IllegalArgumentException e) {
+            this.metricas.conta(CANCELA, RESULTADO_INVALIDO);
+            throw e;
+        }
 
-        final var pedidoNaBase = this.repository.findByIdAndStatusPedido(idPedidoObjeto.getNumero(), StatusPedidoEnum.CRIADO);
-        if(pedidoNaBase.isEmpty()) {
-            System.out.println("Pedido não está cadastrado");
-            return false;
+        final var amostra = this.metricas.inicia();
+        var resultado = RESULTADO_ERRO;
+        try {
+            final var cancelou = this.cancelaNaBase(idPedidoObjeto);
+            resultado = cancelou ? RESULTADO_SUCESSO : RESULTADO_CONFLITO;
+            return cancelou;
+        } finally {
+            this.metricas.conta(CANCELA, resultado);
+            this.metricas.finaliza(amostra, CANCELA, ETAPA_TOTAL);
         }
-        final var pedido = pedidoNaBase.get();
-
-        final var produtoEntity = PedidoEntity.builder()
-                .id(idPedidoObjeto.getNumero())
-                .cpfCliente(pedido.getCpfCliente())
-                .ean(pedido.getEan())
-                .quantidade(pedido.getQuantidade())
-                .statusPedido(StatusPedidoEnum.CANCELADO)
-                .dataDeCriacao(LocalDateTime.now())
-                .build();
-        this.repository.save(produtoEntity);
-        this.streamBridge.send("produto-atualiza-estoque", new AtualizaEstoqueDTO(
-                pedido.getEan(),
-                pedido.getQuantidade(),
-                StatusEstoqueEnum.VOLTA_PARA_O_ESTOQUE));
+    }
 
-        this.streamBridge.send("logistica-cancela-entrega", new CancelaEntregaDTO(
-                idPedidoObjeto.getNumero()
-                )
-        );
-        return true;
+    private boolean cancelaNaBase(final IdPedido idPedidoObjeto) {
+        final var cancelou = this.transacao.execute(status -> {
+            final var pedidoCancelado = this.repository.transicionaStatus(
+                    idPedidoObjeto.getNumero(),
+                    StatusPedidoEnum.CRIADO,
+                    StatusPedidoEnum.CANCELADO
+            );
+            if(pedidoCancelado.isEmpty()) {
+                System.out.println("Pedido não está cadastrado");
+                return false;
+            }
+            final var pedido = pedidoCancelado.get();
+
+            this.outbox.registra("produto-atualiza-estoque", new AtualizaEstoqueDTO(
+                    pedido.getEan(),
+                    pedido.getQuantidade(),
+                    StatusEstoqueEnum.VOLTA_PARA_O_ESTOQUE));
 
+            this.outbox.registra("logistica-cancela-entrega", new CancelaEntregaDTO(
+                    idPedidoObjeto.getNumero()
+                    )
+            );
+            return true;
+        });
+        if(Boolean.TRUE.equals(cancelou)) {
+            this.contadores.transicionados(StatusPedidoEnum.CRIADO, StatusPedidoEnum.CANCELADO, 1);
+            this.leituraAposEscrita.registraEscrita(chaveDoPedido(idPedidoObjeto.getNumero()));
+        }
+        return Boolean.TRUE.equals(cancelou);
     }
 
     @Override
     public void atualiza(final AtualizaPedidoDTO evento) {
-        final var idPedidoObjeto = new IdPedido(evento.idDoPedido());
+        final IdPedido idPedidoObjeto;
+        try {
+            idPedidoObjeto = new IdPedido(evento.idDoPedido());
+        } catch (IllegalArgumentException e) {
+            this.metricas.conta(ATUALIZA, RESULTADO_INVALIDO);
+            throw e;
+        }
+
+        final var amostra = this.metricas.inicia();
+        var resultado = RESULTADO_ERRO;
+        try {
+            final var statusAnterior = statusAnterior(evento.statusEntrega());
+            final var novoStatus = StatusPedidoEnum.valueOf(evento.statusEntrega().name());
+            final var atualizados = this.repository.atualizaStatus(
+                    idPedidoObjeto.getNumero(),
+                    statusAnterior,
+                    novoStatus
+            );
+            if(atualizados == 0) {
+                System.out.println("Pedido não está cadastrado ou está com outros STATUS");
+                resultado = RESULTADO_CONFLITO;
+            } else {
+                this.contadores.transicionados(statusAnterior, novoStatus, atualizados);
+                this.leituraAposEscrita.registraEscrita(chaveDoPedido(idPedidoObjeto.getNumero()));
+                resultado = RESULTADO_SUCESSO;
+            }
+        } finally {
+            this.metricas.conta(ATUALIZA, resultado);
+            this.metricas.finaliza(amostra, ATUALIZA, ETAPA_TOTAL);
+        }
+    }
+
+    @Override
+    public List<Boolean> atualizaLote(final List<AtualizaPedidoDTO> eventos) {
+        final var validos = new ArrayList<Boolean>(eventos.size());
+        final var idsPorStatus = new EnumMap<StatusAtualizaPedidoEnum, Set<Long>>(StatusAtualizaPedidoEnum.class);
+        for (final var evento : eventos) {
+            try {
+                final var idPedidoObjeto = new IdPedido(evento.idDoPedido());
+                idsPorStatus.computeIfAbsent(Objects.requireNonNull(evento.statusEntrega()), chave -> new LinkedHashSet<>())
+                        .add(idPedidoObjeto.getNumero());
+                validos.add(true);
+            } catch (Exception e) {
+                System.out.println("Evento de atualizacao invalido: " + evento);
+                validos.add(false);
+            }
+        }
+
+        final var invalidos = validos.stream().filter(valido -> !valido).count();
+        this.metricas.conta(ATUALIZA_LOTE, RESULTADO_INVALIDO, invalidos);
+
+        // EnumMap percorre na ordem do enum: EM_TRANSPORTE antes de ENTREGUE, entao um pedido
+        // que recebe os dois eventos no mesmo lote termina ENTREGUE
+        final var amostra = this.metricas.inicia();
+        final var totalAtualizados = new long[1];
+        final var atualizadosPorStatus = new EnumMap<StatusAtualizaPedidoEnum, Integer>(StatusAtualizaPedidoEnum.class);
+        try {
+            this.transacao.executeWithoutResult(status -> idsPorStatus.forEach((statusEntrega, ids) -> {
+                final var atualizados = this.repository.atualizaStatusEmLote(
+                        ids,
+                        statusAnterior(statusEntrega),
+                        StatusPedidoEnum.valueOf(statusEntrega.name())
+                );
+                if(atualizados < ids.size()) {
+                    System.out.println((ids.size() - atualizados) + " pedido(s) não cadastrado(s) ou com outros STATUS para " + statusEntrega);
+                }
+                totalAtualizados[0] += atualizados;
+                atualizadosPorStatus.put(statusEntrega, atualizados);
+            }));
+        } catch (RuntimeException e) {
+            this.metricas.conta(ATUALIZA_LOTE, RESULTADO_ERRO, eventos.size() - invalidos);
+            throw e;
+        } finally {
+            this.metricas.finaliza(amostra, ATUALIZA_LOTE, ETAPA_GRAVACAO);
+        }
+        // So depois do commit: um rollback do lote nao deixa os contadores adiantados
+        atualizadosPorStatus.forEach((statusEntrega, atualizados) -> this.contadores.transicionados(
+                statusAnterior(statusEntrega),
+                StatusPedidoEnum.valueOf(statusEntrega.name()),
+                atualizados
+        ));
+        idsPorStatus.values().forEach(ids -> ids.forEach(id -> this.leituraAposEscrita.registraEscrita(chaveDoPedido(id))));
+        this.metricas.conta(ATUALIZA_LOTE, RESULTADO_SUCESSO, totalAtualizados[0]);
+        this.metricas.conta(ATUALIZA_LOTE, RESULTADO_CONFLITO, eventos.size() - invalidos - totalAtualizados[0]);
+        return validos;
+    }
+
+    @Override
+    public PaginaPedidosDTO listaPorCliente(final String cpfCliente,
+                                            final String cursor,
+                                            final Integer tamanho) {
+        final var cpfNormalizado = ValidadorCpf.normaliza(cpfCliente);
+        if (Objects.isNull(cpfNormalizado)) {
+            throw new IllegalArgumentException("CPF DO CLIENTE INVÁLIDO!");
+        }
+        if (Objects.isNull(tamanho) || tamanho <= 0 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("TAMANHO DA PAGINA DEVE SER ENTRE 1 E " + TAMANHO_MAXIMO_PAGINA + "!");
+        }
+
+        // busca um a mais para saber se existe proxima pagina
+        final var posicao = Objects.isNull(cursor) ? null : CursorPedido.decodifica(cursor);
+        final var pedidos = this.leituraAposEscrita.le(cpfNormalizado, () -> Objects.isNull(posicao)
+                ? this.repository.buscaPorCliente(cpfNormalizado, tamanho + 1)
+                : this.repository.buscaPorClienteApos(cpfNormalizado, posicao.getDataDeCriacao(), posicao.getId(), tamanho + 1)
+        );
 
-        final var status = evento.statusEntrega().equals(StatusAtualizaPedidoEnum.EM_TRANSPORTE)
+        final var temProximaPagina = pedidos.size() > tamanho;
+        final var pagina = temProximaPagina ? pedidos.subList(0, tamanho) : pedidos;
+
+        return new PaginaPedidosDTO(
+                pagina.stream()
+                        .map(pedido -> new PedidoDTO(
+                                pedido.getId(),
+                                pedido.getEan(),
+                                pedido.getQuantidade(),
+                                pedido.getStatusPedido(),
+                                pedido.getDataDeCriacao()
+                        ))
+                        .toList(),
+                temProximaPagina
+                        ? new CursorPedido(pagina.get(tamanho - 1).getDataDeCriacao(), pagina.get(tamanho - 1).getId()).codifica()
+                        : null
+        );
+    }
+
+    // Chaves de pedido e de CPF dividem a mesma LeituraAposEscrita; o prefixo evita que um id colida com um CPF
+    private static String chaveDoPedido(final Long idPedido) {
+        return "pedido-" + idPedido;
+    }
+
+    private static StatusPedidoEnum statusAnterior(final StatusAtualizaPedidoEnum statusEntrega) {
+        return statusEntrega.equals(StatusAtualizaPedidoEnum.EM_TRANSPORTE)
                 ? StatusPedidoEnum.CRIADO
-                : evento.statusEntrega().equals(StatusAtualizaPedidoEnum.ENTREGUE)
+                : statusEntrega.equals(StatusAtualizaPedidoEnum.ENTREGUE)
                 ? StatusPedidoEnum.EM_TRANSPORTE
                 : null;
-
-        final var pedidoNaBase = this.repository.findByIdAndStatusPedido(idPedidoObjeto.getNumero(), status);
-        if(pedidoNaBase.isEmpty()) {
-            System.out.println("Pedido não está cadastrado ou está com outros STATUS");
-            return;
-        }
-        final var pedido = pedidoNaBase.get();
-
-        final var produtoEntity = PedidoEntity.builder()
-                .id(idPedidoObjeto.getNumero())
-                .cpfCliente(pedido.getCpfCliente())
-                .ean(pedido.getEan())
-                .quantidade(pedido.getQuantidade())
-                .statusPedido(StatusPedidoEnum.valueOf(evento.statusEntrega().name()))
-                .dataDeCriacao(LocalDateTime.now())
-                .build();
-        this.repository.save(produtoEntity);
     }
 
 }
@@ -0,0 +1,4 @@
+-- Hash do corpo da primeira requisicao de cada Idempotency-Key; a mesma chave com outro corpo responde 422.
+-- Registros anteriores ficam sem hash e continuam valendo ate expirar
+
+ALTER TABLE tb_idempotencia ADD COLUMN IF NOT EXISTS hash_corpo VARCHAR(64);
@@ -0,0 +1,21 @@
+-- Estrutura criada ate entao pelo ddl-auto do Hibernate; bancos existentes entram no Flyway com baseline nesta versao
+
+CREATE TABLE IF NOT EXISTS tb_pedido (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cpf_cliente VARCHAR(255),
+    ean BIGINT,
+    quantidade BIGINT,
+    status_pedido VARCHAR(255) CHECK (status_pedido IN ('CRIADO', 'CANCELADO', 'EM_TRANSPORTE', 'ENTREGUE')),
+    data_de_criacao TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS tb_outbox_evento (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    destino VARCHAR(255),
+    payload VARCHAR(4000),
+    tentativas INTEGER,
+    data_de_criacao TIMESTAMP(6),
+    data_de_envio TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_outbox_evento_pendente ON tb_outbox_evento (data_de_envio, id);
@@ -0,0 +1,9 @@
+-- Troca IDENTITY por sequencias com incremento 50 (pooled-lo), continuando apos o maior id ja gravado
+
+CREATE SEQUENCE IF NOT EXISTS tb_pedido_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tb_pedido_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM tb_pedido), false);
+ALTER TABLE tb_pedido ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS tb_outbox_evento_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tb_outbox_evento_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM tb_outbox_evento), false);
+ALTER TABLE tb_outbox_evento ALTER COLUMN id DROP IDENTITY IF EXISTS;
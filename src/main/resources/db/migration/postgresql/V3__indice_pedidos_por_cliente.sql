@@ -0,0 +1,6 @@
+-- Indice de cobertura para o historico de pedidos do cliente com paginacao por keyset em (data_de_criacao, id).
+-- CONCURRENTLY nao bloqueia escritas na tb_pedido; o Flyway executa esta migracao fora de transacao
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tb_pedido_cliente_data
+    ON tb_pedido (cpf_cliente, data_de_criacao DESC, id DESC)
+    INCLUDE (ean, quantidade, status_pedido);
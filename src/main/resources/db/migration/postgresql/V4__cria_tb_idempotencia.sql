@@ -0,0 +1,9 @@
+-- Resultado da primeira requisicao de cada Idempotency-Key; criou nulo enquanto a requisicao esta em andamento
+
+CREATE TABLE IF NOT EXISTS tb_idempotencia (
+    chave VARCHAR(255) PRIMARY KEY,
+    criou BOOLEAN,
+    data_de_criacao TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_idempotencia_data ON tb_idempotencia (data_de_criacao);
@@ -0,0 +1,73 @@
+-- tb_pedido passa a ser particionada por mes em data_de_criacao. A tabela atual e copiada para as particoes e removida,
+-- entao esta migracao reescreve o historico inteiro: rode em janela de manutencao.
+-- A chave primaria de tabela particionada precisa conter a coluna de particao: (id, data_de_criacao); o id continua
+-- unico pela sequencia tb_pedido_seq.
+
+ALTER TABLE tb_pedido RENAME TO tb_pedido_legado;
+ALTER TABLE tb_pedido_legado RENAME CONSTRAINT tb_pedido_pkey TO tb_pedido_legado_pkey;
+DROP INDEX IF EXISTS idx_tb_pedido_cliente_data;
+
+CREATE TABLE tb_pedido (
+    id BIGINT NOT NULL,
+    cpf_cliente VARCHAR(255),
+    ean BIGINT,
+    quantidade BIGINT,
+    status_pedido VARCHAR(255) CHECK (status_pedido IN ('CRIADO', 'CANCELADO', 'EM_TRANSPORTE', 'ENTREGUE')),
+    data_de_criacao TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, data_de_criacao)
+) PARTITION BY RANGE (data_de_criacao);
+
+CREATE INDEX idx_tb_pedido_cliente_data
+    ON tb_pedido (cpf_cliente, data_de_criacao DESC, id DESC)
+    INCLUDE (ean, quantidade, status_pedido);
+
+-- Recebe pedidos de meses sem particao; a manutencao move essas linhas quando cria a particao do mes
+CREATE TABLE tb_pedido_padrao PARTITION OF tb_pedido DEFAULT;
+
+-- Cria as particoes mensais de "inicio" ate "meses" meses a frente. Chamada pela ManutencaoParticoesPedido;
+-- a particao e montada fora da tb_pedido, recebe as linhas do mes que estiverem na padrao e so entao e anexada
+CREATE OR REPLACE FUNCTION cria_particoes_tb_pedido(inicio DATE, meses INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    mes DATE := date_trunc('month', inicio)::date;
+    fim DATE;
+    nome TEXT;
+    criadas INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('cria_particoes_tb_pedido'));
+    FOR i IN 0..meses LOOP
+        fim := (mes + INTERVAL '1 month')::date;
+        nome := 'tb_pedido_' || to_char(mes, 'YYYY_MM');
+        IF to_regclass(nome) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE tb_pedido INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', nome);
+            EXECUTE format('WITH movidas AS (DELETE FROM tb_pedido_padrao WHERE data_de_criacao >= %L AND data_de_criacao < %L RETURNING *) '
+                           'INSERT INTO %I SELECT * FROM movidas', mes, fim, nome);
+            EXECUTE format('ALTER TABLE tb_pedido ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nome, mes, fim);
+            criadas := criadas + 1;
+        END IF;
+        mes := fim;
+    END LOOP;
+    RETURN criadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particoes do mes mais antigo ja gravado ate tres meses a frente, e copia do historico
+DO $$
+DECLARE
+    inicio DATE := COALESCE((SELECT min(data_de_criacao)::date FROM tb_pedido_legado), current_date);
+BEGIN
+    PERFORM cria_particoes_tb_pedido(
+            inicio,
+            ((date_part('year', current_date) - date_part('year', inicio)) * 12
+                + date_part('month', current_date) - date_part('month', inicio))::integer + 3
+    );
+END;
+$$;
+
+-- Pedido legado sem data entra no mes da migracao
+INSERT INTO tb_pedido (id, cpf_cliente, ean, quantidade, status_pedido, data_de_criacao)
+SELECT id, cpf_cliente, ean, quantidade, status_pedido, COALESCE(data_de_criacao, now())
+FROM tb_pedido_legado;
+
+DROP TABLE tb_pedido_legado;
+
+ANALYZE tb_pedido;
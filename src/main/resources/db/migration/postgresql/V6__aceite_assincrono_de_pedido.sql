@@ -0,0 +1,24 @@
+-- Aceite assincrono do POST /pedido: o pedido fica PENDENTE enquanto cliente e estoque sao consultados fora da
+-- requisicao e termina CRIADO ou RECUSADO.
+-- As particoes mensais foram criadas com LIKE tb_pedido INCLUDING CONSTRAINTS, entao cada uma tem uma copia local do
+-- CHECK de status que nao sai junto com o da tabela pai; o CHECK novo e adicionado no pai e vale para todas.
+
+ALTER TABLE tb_pedido DROP CONSTRAINT IF EXISTS tb_pedido_status_pedido_check;
+
+DO $$
+DECLARE
+    particao REGCLASS;
+BEGIN
+    FOR particao IN SELECT inhrelid::regclass FROM pg_inherits WHERE inhparent = 'tb_pedido'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT IF EXISTS tb_pedido_status_pedido_check', particao);
+    END LOOP;
+END;
+$$;
+
+ALTER TABLE tb_pedido ADD CONSTRAINT tb_pedido_status_pedido_check
+    CHECK (status_pedido IN ('CRIADO', 'CANCELADO', 'EM_TRANSPORTE', 'ENTREGUE', 'PENDENTE', 'RECUSADO'));
+
+-- Varredura dos pedidos que ficaram PENDENTE (app reiniciada com pedidos na fila); o indice parcial so tem esses
+CREATE INDEX IF NOT EXISTS idx_tb_pedido_pendente
+    ON tb_pedido (data_de_criacao)
+    WHERE status_pedido = 'PENDENTE';
@@ -0,0 +1,4 @@
+-- Eventos publicados aguardando a confirmacao do broker ficam reservados ate reservado_ate; outra instancia do relay
+-- (ou esta, depois de reiniciar) so os publica de novo se a confirmacao nao chegar nesse prazo
+
+ALTER TABLE tb_outbox_evento ADD COLUMN IF NOT EXISTS reservado_ate TIMESTAMP(6);
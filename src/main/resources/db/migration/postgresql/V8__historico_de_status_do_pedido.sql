@@ -0,0 +1,16 @@
+-- Historico append-only das mudancas de status. Sem FK para a tb_pedido particionada: o insert fica barato e o
+-- historico continua consultavel mesmo depois que as particoes antigas do pedido forem arquivadas
+
+CREATE TABLE IF NOT EXISTS tb_pedido_status_evento (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_pedido BIGINT NOT NULL,
+    status_anterior VARCHAR(255),
+    status_pedido VARCHAR(255) NOT NULL,
+    data_do_evento TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_pedido_status_evento_pedido ON tb_pedido_status_evento (id_pedido, id);
+
+-- Pedidos anteriores a esta migracao entram com um unico evento: o status atual, na data de criacao
+INSERT INTO tb_pedido_status_evento (id_pedido, status_anterior, status_pedido, data_do_evento)
+SELECT id, NULL, status_pedido, data_de_criacao FROM tb_pedido;
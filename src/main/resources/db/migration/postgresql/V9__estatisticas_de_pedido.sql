@@ -0,0 +1,11 @@
+-- Quantidade de pedidos por status para o GET /pedido/estatisticas. A aplicacao so soma as variacoes de cada
+-- intervalo; a contagem inicial sai daqui, uma unica vez
+
+CREATE TABLE IF NOT EXISTS tb_pedido_estatistica (
+    status_pedido VARCHAR(255) PRIMARY KEY,
+    quantidade BIGINT NOT NULL
+);
+
+INSERT INTO tb_pedido_estatistica (status_pedido, quantidade)
+SELECT status_pedido, count(*) FROM tb_pedido GROUP BY status_pedido
+ON CONFLICT DO NOTHING;
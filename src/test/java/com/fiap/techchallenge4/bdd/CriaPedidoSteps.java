@@ -42,7 +42,7 @@ public class CriaPedidoSteps {
         this.ean = System.currentTimeMillis();
         this.request = new CriaPedidoDTO(
                 this.ean,
-                "12345678901",
+                "12345678909",
                 2L
         );
 
@@ -179,7 +179,7 @@ public class CriaPedidoSteps {
         clientAndServer.when(
                         HttpRequest.request()
                                 .withMethod("GET")
-                                .withPath("/cliente/12345678901")
+                                .withPath("/cliente/12345678909")
                 )
                 .respond(
                         HttpResponse.response()
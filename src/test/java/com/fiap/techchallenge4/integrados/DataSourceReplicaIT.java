@@ -0,0 +1,102 @@
+package com.fiap.techchallenge4.integrados;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraAposEscrita;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.PedidoRepository;
+import com.fiap.techchallenge4.useCase.PedidoUseCase;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// Dois H2 em memoria: "primario" recebe o schema do ddl-auto e as escritas; "replica" e montada a mao com outro conteudo
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + DataSourceReplicaIT.URL_PRIMARIO,
+        "pedido.datasource.replica.urls=" + DataSourceReplicaIT.URL_REPLICA
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DataSourceReplicaIT {
+
+    static final String URL_PRIMARIO = "jdbc:h2:mem:primario;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    PedidoRepository repository;
+
+    @Autowired
+    PedidoUseCase service;
+
+    @Autowired
+    LeituraAposEscrita leituraAposEscrita;
+
+    @BeforeAll
+    void criaReplica() throws SQLException {
+        try (final var conexao = DriverManager.getConnection(URL_REPLICA, "sa", "password");
+             final var comando = conexao.createStatement()) {
+            comando.execute("""
+                    CREATE TABLE IF NOT EXISTS tb_pedido (
+                        id BIGINT PRIMARY KEY,
+                        cpf_cliente VARCHAR(255),
+                        ean BIGINT,
+                        quantidade BIGINT,
+                        status_pedido VARCHAR(255),
+                        data_de_criacao TIMESTAMP(6)
+                    )
+                    """);
+            comando.execute("DELETE FROM tb_pedido");
+            comando.execute("""
+                    INSERT INTO tb_pedido VALUES
+                        (900001, '52998224725', 7894900011517, 1, 'ENTREGUE', CURRENT_TIMESTAMP),
+                        (900002, '71622958004', 7894900011517, 1, 'ENTREGUE', CURRENT_TIMESTAMP)
+                    """);
+        }
+    }
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.repository.deleteAll();
+    }
+
+    @AfterAll
+    void finalizaLimpezaDoDatabase() {
+        this.repository.deleteAll();
+    }
+
+    @Test
+    public void listaPorCliente_semEscritaRecente_leDaReplica() {
+        this.salvaNoPrimario("52998224725");
+
+        var pagina = this.service.listaPorCliente("52998224725", null, 10);
+
+        Assertions.assertEquals(1, pagina.pedidos().size());
+        Assertions.assertEquals(900001L, pagina.pedidos().get(0).idDoPedido());
+    }
+
+    @Test
+    public void listaPorCliente_escritaRecente_leDoPrimario() {
+        var pedidoSalvo = this.salvaNoPrimario("71622958004");
+        this.leituraAposEscrita.registraEscrita("71622958004");
+
+        var pagina = this.service.listaPorCliente("71622958004", null, 10);
+
+        Assertions.assertEquals(1, pagina.pedidos().size());
+        Assertions.assertEquals(pedidoSalvo.getId(), pagina.pedidos().get(0).idDoPedido());
+    }
+
+    private PedidoEntity salvaNoPrimario(final String cpfCliente) {
+        return this.repository.save(
+                PedidoEntity.builder()
+                        .cpfCliente(cpfCliente)
+                        .ean(7894900011517L)
+                        .quantidade(3L)
+                        .statusPedido(StatusPedidoEnum.CRIADO)
+                        .dataDeCriacao(LocalDateTime.now())
+                        .build()
+        );
+    }
+
+}
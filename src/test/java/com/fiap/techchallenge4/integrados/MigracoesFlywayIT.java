@@ -0,0 +1,109 @@
+package com.fiap.techchallenge4.integrados;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+// Banco de antes do Flyway: so a tb_pedido, como o ddl-auto=update deixava. Roda as migracoes com a configuracao de
+// baseline do application.properties da app, num schema separado do PostgreSQL do docker-para-testes
+public class MigracoesFlywayIT {
+
+    private static final String URL = "jdbc:postgresql://" + System.getenv().getOrDefault("POSTGRES_HOST", "localhost:5434") + "/postgres";
+    private static final String USUARIO = "root";
+    private static final String SENHA = "root";
+    private static final String SCHEMA = "migracao_do_baseline";
+
+    @BeforeEach
+    void criaSchemaDoDdlAuto() throws SQLException {
+        try (final var conexao = DriverManager.getConnection(URL, USUARIO, SENHA);
+             final var comando = conexao.createStatement()) {
+            comando.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            comando.execute("CREATE SCHEMA " + SCHEMA);
+            comando.execute("""
+                    CREATE TABLE %s.tb_pedido (
+                        id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                        cpf_cliente VARCHAR(255),
+                        data_de_criacao TIMESTAMP(6),
+                        ean BIGINT,
+                        quantidade BIGINT,
+                        status_pedido VARCHAR(255) CHECK (status_pedido IN ('CRIADO','CANCELADO','EM_TRANSPORTE','ENTREGUE')),
+                        PRIMARY KEY (id)
+                    )
+                    """.formatted(SCHEMA));
+            comando.execute("""
+                    INSERT INTO %s.tb_pedido (cpf_cliente, data_de_criacao, ean, quantidade, status_pedido)
+                    VALUES ('71622958004', CURRENT_TIMESTAMP, 7894900011517, 1, 'CRIADO')
+                    """.formatted(SCHEMA));
+        }
+    }
+
+    @AfterEach
+    void removeSchema() throws SQLException {
+        try (final var conexao = DriverManager.getConnection(URL, USUARIO, SENHA);
+             final var comando = conexao.createStatement()) {
+            comando.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @Test
+    public void migra_bancoDoDdlAuto_criaAsTabelasQueFaltavamEMantemOsPedidos() throws Exception {
+        // preparação
+        final var configuracao = configuracaoDaApp();
+
+        // execução
+        final var resultado = Flyway.configure()
+                .dataSource(URL, USUARIO, SENHA)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration/postgresql")
+                .baselineOnMigrate(Boolean.parseBoolean(configuracao.getProperty("spring.flyway.baseline-on-migrate")))
+                .baselineVersion(configuracao.getProperty("spring.flyway.baseline-version"))
+                .load()
+                .migrate();
+
+        // avaliação
+        Assertions.assertTrue(resultado.success);
+        try (final var conexao = DriverManager.getConnection(URL, USUARIO, SENHA);
+             final var comando = conexao.createStatement()) {
+            comando.execute("SET search_path TO " + SCHEMA);
+
+            final var versaoUm = comando.executeQuery("SELECT success FROM flyway_schema_history WHERE version = '1'");
+            Assertions.assertTrue(versaoUm.next());
+            Assertions.assertTrue(versaoUm.getBoolean(1));
+
+            final var outbox = comando.executeQuery("SELECT count(*) FROM tb_outbox_evento");
+            Assertions.assertTrue(outbox.next());
+            Assertions.assertEquals(0, outbox.getLong(1));
+
+            final var pedidos = comando.executeQuery("SELECT id, status_pedido FROM tb_pedido");
+            Assertions.assertTrue(pedidos.next());
+            final var idDoPedidoExistente = pedidos.getLong(1);
+            Assertions.assertEquals("CRIADO", pedidos.getString(2));
+            Assertions.assertFalse(pedidos.next());
+
+            // a sequencia da V2 continua depois do maior id gravado antes da migracao
+            final var proximoId = comando.executeQuery("SELECT nextval('tb_pedido_seq')");
+            Assertions.assertTrue(proximoId.next());
+            Assertions.assertTrue(proximoId.getLong(1) > idDoPedidoExistente);
+        }
+    }
+
+    private static Properties configuracaoDaApp() throws IOException {
+        // O application.properties de teste esconde o da app no classpath; a configuracao do Flyway vem do arquivo
+        final var configuracao = new Properties();
+        try (final Reader arquivo = Files.newBufferedReader(Path.of("src/main/resources/application.properties"))) {
+            configuracao.load(arquivo);
+        }
+        return configuracao;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.fiap.techchallenge4.integrados;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
 import com.fiap.techchallenge4.domain.StatusPedidoEnum;
 import com.fiap.techchallenge4.infrastructure.cliente.client.ClienteClient;
@@ -9,8 +10,11 @@ import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaEstoqueDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CancelaEntregaDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.PreparaEntregaDTO;
+import com.fiap.techchallenge4.infrastructure.model.FaixaDeCriacao;
 import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
 import com.fiap.techchallenge4.infrastructure.produto.client.ProdutoClient;
+import com.fiap.techchallenge4.infrastructure.repository.IdempotenciaRepository;
+import com.fiap.techchallenge4.infrastructure.repository.OutboxEventoRepository;
 import com.fiap.techchallenge4.infrastructure.repository.PedidoRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -29,10 +33,15 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.stream.Stream;
 
+import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.HEADER_IDEMPOTENCY_KEY;
+import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.URL_HISTORICO_DO_PEDIDO;
 import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.URL_PEDIDOS;
 import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.URL_PEDIDOS_COM_ID;
+import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.URL_PEDIDOS_DO_CLIENTE;
+import static com.fiap.techchallenge4.infrastructure.controller.PedidoController.URL_PEDIDOS_LOTE;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -48,6 +57,12 @@ public class PedidoControllerIT {
     @Autowired
     PedidoRepository repository;
 
+    @Autowired
+    OutboxEventoRepository outboxRepository;
+
+    @Autowired
+    IdempotenciaRepository idempotenciaRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -66,11 +81,15 @@ public class PedidoControllerIT {
     @BeforeEach
     void inicializaLimpezaDoDatabase() {
         this.repository.deleteAll();
+        this.outboxRepository.deleteAll();
+        this.idempotenciaRepository.deleteAll();
     }
 
     @AfterAll
     void finalizaLimpezaDoDatabase() {
         this.repository.deleteAll();
+        this.outboxRepository.deleteAll();
+        this.idempotenciaRepository.deleteAll();
     }
 
     @Test
@@ -134,7 +153,99 @@ public class PedidoControllerIT {
         Assertions.assertEquals(3L, produto.getQuantidade());
         Assertions.assertEquals(StatusPedidoEnum.CRIADO, produto.getStatusPedido());
         Assertions.assertNotNull(produto.getDataDeCriacao());
-        verify(streamBridge, times(2)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(2, this.outboxRepository.findAll().size());
+        var faixa = FaixaDeCriacao.doId(produto.getId());
+        Assertions.assertEquals(produto.getDataDeCriacao().toLocalDate().withDayOfMonth(1).atStartOfDay(), faixa.inicio());
+        Assertions.assertEquals(produto.getId(), this.repository.buscaPorId(produto.getId()).orElseThrow().getId());
+    }
+
+    @Test
+    public void cria_repetidoComIdempotencyKey_devolveOPrimeiroResultadoSemDuplicar() throws Exception {
+        Mockito.when(this.clientCliente.pegaCliente("71622958004"))
+                .thenReturn(
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(this.clientProduto.temEstoque(7894900011517L, 3L))
+                .thenReturn(
+                        true
+                );
+
+        var request = new CriaPedidoDTO(
+                7894900011517L,
+                "71622958004",
+                3L
+        );
+        var jsonRequest = this.objectMapper.writeValueAsString(request);
+
+        for (int tentativa = 0; tentativa < 3; tentativa++) {
+            this.mockMvc
+                    .perform(MockMvcRequestBuilders.post(URL_PEDIDOS)
+                            .header(HEADER_IDEMPOTENCY_KEY, "4f1c2b9e-pedido-1")
+                            .content(jsonRequest)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers
+                            .status()
+                            .isCreated()
+                    )
+                    .andReturn();
+        }
+
+        Assertions.assertEquals(1, this.repository.findAll().size());
+        Assertions.assertEquals(2, this.outboxRepository.findAll().size());
+        Assertions.assertTrue(this.idempotenciaRepository.findById("4f1c2b9e-pedido-1").orElseThrow().getCriou());
+        verify(this.clientCliente, times(1)).pegaCliente("71622958004");
+        verify(this.clientProduto, times(1)).temEstoque(7894900011517L, 3L);
+    }
+
+    @Test
+    public void cria_mesmaIdempotencyKeyComOutroCorpo_deveRetornar422() throws Exception {
+        Mockito.when(this.clientCliente.pegaCliente("71622958004"))
+                .thenReturn(
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(this.clientProduto.temEstoque(Mockito.eq(7894900011517L), Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PEDIDOS)
+                        .header(HEADER_IDEMPOTENCY_KEY, "4f1c2b9e-pedido-2")
+                        .content(this.objectMapper.writeValueAsString(new CriaPedidoDTO(7894900011517L, "71622958004", 3L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                )
+                .andReturn();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PEDIDOS)
+                        .header(HEADER_IDEMPOTENCY_KEY, "4f1c2b9e-pedido-2")
+                        .content(this.objectMapper.writeValueAsString(new CriaPedidoDTO(7894900011517L, "71622958004", 5L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isUnprocessableEntity()
+                )
+                .andReturn();
+
+        Assertions.assertEquals(1, this.repository.findAll().size());
+        verify(this.clientProduto, times(0)).temEstoque(7894900011517L, 5L);
     }
 
     @Test
@@ -182,7 +293,7 @@ public class PedidoControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(0, this.repository.findAll().size());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
     }
 
     @Test
@@ -239,7 +350,7 @@ public class PedidoControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(0, this.repository.findAll().size());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
     }
 
     @Test
@@ -290,7 +401,7 @@ public class PedidoControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(0, this.repository.findAll().size());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
     }
 
     @Test
@@ -348,7 +459,7 @@ public class PedidoControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(0, this.repository.findAll().size());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
     }
 
     @Test
@@ -405,7 +516,141 @@ public class PedidoControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(0, this.repository.findAll().size());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
+    }
+
+    @Test
+    public void criaLote_deveRetornar200_salvaSomenteLinhasAceitas() throws Exception {
+        Mockito.when(this.clientCliente.pegaCliente("71622958004"))
+                .thenReturn(
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(this.clientProduto.temEstoque(7894900011517L, 3L))
+                .thenReturn(
+                        true
+                );
+        Mockito.when(this.clientProduto.temEstoque(7894900011524L, 3L))
+                .thenReturn(
+                        false
+                );
+
+        var request = List.of(
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "71622958004",
+                        3L
+                ),
+                new CriaPedidoDTO(
+                        7894900011524L,
+                        "71622958004",
+                        3L
+                ),
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "teste",
+                        3L
+                )
+        );
+        var objectMapper = this.objectMapper
+                .writer()
+                .withDefaultPrettyPrinter();
+        var jsonRequest = objectMapper.writeValueAsString(request);
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PEDIDOS_LOTE)
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("CRIADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("SEM_ESTOQUE"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].status").value("INVALIDO"))
+                .andReturn();
+
+        var pedidos = this.repository.findAll();
+
+        Assertions.assertEquals(1, pedidos.size());
+        Assertions.assertEquals(7894900011517L, pedidos.get(0).getEan());
+        Assertions.assertEquals(StatusPedidoEnum.CRIADO, pedidos.get(0).getStatusPedido());
+        Assertions.assertEquals(2, this.outboxRepository.findAll().size());
+        verify(this.clientCliente, times(1)).pegaCliente("71622958004");
+    }
+
+    @Test
+    public void listaPorCliente_deveRetornar200_percorrePaginasPorCursor() throws Exception {
+        var agora = LocalDateTime.now().withNano(0);
+        var pedidos = this.repository.saveAll(
+                List.of(
+                        PedidoEntity.builder().cpfCliente("71622958004").ean(7894900011517L).quantidade(1L)
+                                .statusPedido(StatusPedidoEnum.CRIADO).dataDeCriacao(agora.minusMinutes(3)).build(),
+                        PedidoEntity.builder().cpfCliente("71622958004").ean(7894900011517L).quantidade(2L)
+                                .statusPedido(StatusPedidoEnum.ENTREGUE).dataDeCriacao(agora.minusMinutes(2)).build(),
+                        PedidoEntity.builder().cpfCliente("71622958004").ean(7894900011517L).quantidade(3L)
+                                .statusPedido(StatusPedidoEnum.CRIADO).dataDeCriacao(agora.minusMinutes(2)).build(),
+                        PedidoEntity.builder().cpfCliente("71622958004").ean(7894900011517L).quantidade(4L)
+                                .statusPedido(StatusPedidoEnum.CANCELADO).dataDeCriacao(agora.minusMinutes(1)).build(),
+                        PedidoEntity.builder().cpfCliente("71622958004").ean(7894900011517L).quantidade(5L)
+                                .statusPedido(StatusPedidoEnum.CRIADO).dataDeCriacao(agora).build(),
+                        PedidoEntity.builder().cpfCliente("12345678909").ean(7894900011517L).quantidade(6L)
+                                .statusPedido(StatusPedidoEnum.CRIADO).dataDeCriacao(agora).build()
+                )
+        );
+        var url = URL_PEDIDOS_DO_CLIENTE.replace("{cpf}", "71622958004");
+
+        var primeiraPagina = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(url)
+                        .param("tamanho", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos[0].quantidade").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos[1].quantidade").value(4))
+                .andReturn();
+        String cursor = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.proximoCursor");
+
+        // mesma data de criacao: desempata pelo id, do maior para o menor
+        var segundaPagina = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(url)
+                        .param("tamanho", "2")
+                        .param("cursor", cursor))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos[0].idDoPedido").value(pedidos.get(2).getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos[1].idDoPedido").value(pedidos.get(1).getId()))
+                .andReturn();
+        cursor = JsonPath.read(segundaPagina.getResponse().getContentAsString(), "$.proximoCursor");
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(url)
+                        .param("tamanho", "2")
+                        .param("cursor", cursor))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pedidos[0].quantidade").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.proximoCursor").doesNotExist());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "?tamanho=0",
+            "?tamanho=101",
+            "?cursor=invalido"
+    })
+    public void listaPorCliente_parametrosInvalidos_deveRetornar400(String parametros) throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PEDIDOS_DO_CLIENTE.replace("{cpf}", "71622958004") + parametros))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isBadRequest()
+                );
     }
 
     @Test
@@ -450,7 +695,76 @@ public class PedidoControllerIT {
         Assertions.assertEquals(30L, pedidoEntity.getQuantidade());
         Assertions.assertEquals(StatusPedidoEnum.CANCELADO, pedidoEntity.getStatusPedido());
         Assertions.assertNotNull(pedidoEntity.getDataDeCriacao());
-        verify(streamBridge, times(2)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(2, this.outboxRepository.findAll().size());
+    }
+
+    @Test
+    public void historico_deveRetornar200_comCriacaoECancelamentoEmOrdem() throws Exception {
+        Mockito.when(this.clientCliente.pegaCliente("71622958004"))
+                .thenReturn(
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(this.clientProduto.temEstoque(7894900011517L, 3L))
+                .thenReturn(
+                        true
+                );
+
+        var jsonRequest = this.objectMapper.writeValueAsString(new CriaPedidoDTO(
+                7894900011517L,
+                "71622958004",
+                3L
+        ));
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PEDIDOS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        final var idPedido = this.repository.findAll().get(0).getId().toString();
+        final var dataDeCriacao = this.repository.findAll().get(0).getDataDeCriacao();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.delete(URL_PEDIDOS_COM_ID.replace("{idPedido}", idPedido)))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                );
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_HISTORICO_DO_PEDIDO.replace("{idPedido}", idPedido)))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].statusAnterior").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].statusPedido").value("CRIADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].statusAnterior").value("CRIADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].statusPedido").value("CANCELADO"));
+
+        // o cancelamento so muda o status; a data de criacao continua a original
+        Assertions.assertEquals(dataDeCriacao, this.repository.findAll().get(0).getDataDeCriacao());
+    }
+
+    @Test
+    public void historico_pedidoNaoEncontrado_deveRetornar404() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_HISTORICO_DO_PEDIDO.replace("{idPedido}", "999999")))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isNotFound()
+                );
     }
 
     @Test
@@ -495,7 +809,7 @@ public class PedidoControllerIT {
         Assertions.assertEquals(30L, pedidoEntity.getQuantidade());
         Assertions.assertEquals(StatusPedidoEnum.EM_TRANSPORTE, pedidoEntity.getStatusPedido());
         Assertions.assertNotNull(pedidoEntity.getDataDeCriacao());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
     }
 
     @Test
@@ -523,7 +837,7 @@ public class PedidoControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(0, this.repository.findAll().size());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, this.outboxRepository.findAll().size());
     }
 
     @ParameterizedTest
@@ -579,6 +893,9 @@ public class PedidoControllerIT {
                 Arguments.of(123456789L, "teste", 100L),
                 Arguments.of(123456789L, "1234567891", 100L),
                 Arguments.of(123456789L, "123456789123", 100L),
+                Arguments.of(123456789L, "12345678901", 100L),
+                Arguments.of(123456789L, "11111111111", 100L),
+                Arguments.of(123456789L, "716.229.58004-", 100L),
                 Arguments.of(123456789L, "71622958004", null),
                 Arguments.of(123456789L, "71622958004", -1L),
                 Arguments.of(123456789L, "71622958004", 0L),
@@ -0,0 +1,100 @@
+package com.fiap.techchallenge4.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Mede eventos/s do consumer de pedido-atualiza-status com a app ja rodando.
+// Suba a app com PEDIDO_ATUALIZA_CONSUMER=atualiza e depois com PEDIDO_ATUALIZA_CONSUMER=atualizaLote
+public class AtualizaPedidoThroughputBenchmark {
+
+    private static final String URL_BANCO = System.getProperty("banco.url", "jdbc:postgresql://localhost:5434/tech_challenge_4_pedidos");
+    private static final String RABBIT_HOST = System.getProperty("rabbit.host", "localhost");
+    private static final int QUANTIDADE_DE_EVENTOS = Integer.getInteger("eventos", 20000);
+    private static final long TIMEOUT_EM_MILISSEGUNDOS = Long.getLong("timeout-ms", 600000L);
+
+    public static void main(final String[] args) throws Exception {
+        final var connectionFactory = new CachingConnectionFactory(RABBIT_HOST);
+        final var rabbitTemplate = new RabbitTemplate(connectionFactory);
+        final var objectMapper = new ObjectMapper();
+
+        try (final var conexao = DriverManager.getConnection(URL_BANCO, "root", "root")) {
+            final var ids = criaPedidos(conexao, QUANTIDADE_DE_EVENTOS);
+
+            final var inicio = System.nanoTime();
+            for (final var id : ids) {
+                final var corpo = objectMapper.writeValueAsBytes(new AtualizaPedidoDTO(id, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+                rabbitTemplate.send("pedido-atualiza-status", "#", MessageBuilder.withBody(corpo)
+                        .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                        .build());
+            }
+
+            var atualizados = 0L;
+            while (atualizados < ids.size()) {
+                if ((System.nanoTime() - inicio) / 1_000_000 > TIMEOUT_EM_MILISSEGUNDOS) {
+                    break;
+                }
+                Thread.sleep(50);
+                atualizados = contaAtualizados(conexao, ids);
+            }
+            final var segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+            System.out.printf("%d de %d eventos aplicados em %.2fs: %.0f eventos/s%n",
+                    atualizados, ids.size(), segundos, atualizados / segundos);
+
+            removePedidos(conexao, ids);
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static List<Long> criaPedidos(final Connection conexao,
+                                          final int quantidade) throws SQLException {
+        final var ids = new ArrayList<Long>(quantidade);
+        try (final var comando = conexao.prepareStatement("""
+                INSERT INTO tb_pedido (id, cpf_cliente, ean, quantidade, status_pedido, data_de_criacao)
+                SELECT nextval('tb_pedido_seq'), '71622958004', 7894900011517, 1, 'CRIADO', now()
+                FROM generate_series(1, ?)
+                RETURNING id
+                """)) {
+            comando.setInt(1, quantidade);
+            try (final var resultado = comando.executeQuery()) {
+                while (resultado.next()) {
+                    ids.add(resultado.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static long contaAtualizados(final Connection conexao,
+                                         final List<Long> ids) throws SQLException {
+        try (final var comando = conexao.prepareStatement(
+                "SELECT count(*) FROM tb_pedido WHERE id = ANY(?) AND status_pedido = 'EM_TRANSPORTE'")) {
+            comando.setArray(1, conexao.createArrayOf("bigint", ids.toArray()));
+            try (final var resultado = comando.executeQuery()) {
+                resultado.next();
+                return resultado.getLong(1);
+            }
+        }
+    }
+
+    private static void removePedidos(final Connection conexao,
+                                      final List<Long> ids) throws SQLException {
+        try (final var comando = conexao.prepareStatement("DELETE FROM tb_pedido WHERE id = ANY(?)")) {
+            comando.setArray(1, conexao.createArrayOf("bigint", ids.toArray()));
+            comando.executeUpdate();
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.fiap.techchallenge4.performance;
+
+import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.model.MediaType;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+
+public class CapacidadeMaximaSimulation extends Simulation {
+
+    private static final long ATRASO_DAS_APIS_EM_MILISSEGUNDOS = 200;
+    private static final int DEGRAU_DE_USUARIOS_POR_SEGUNDO = Integer.getInteger("degrau", 100);
+    private static final int QUANTIDADE_DE_DEGRAUS = Integer.getInteger("degraus", 15);
+    private static final boolean THREADS_VIRTUAIS = Boolean.parseBoolean(System.getProperty("threadsVirtuais", "false"));
+
+    private final ClientAndServer mockServerProduto = this.criaMockServerProduto();
+    private final ClientAndServer mockServerCliente = this.criaMockServerCliente();
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl("http://localhost:8081");
+
+    ActionBuilder criaPedidoRequest = http("cria pedido - " + (THREADS_VIRTUAIS ? "virtual threads" : "platform threads"))
+            .post("/pedido")
+            .header("Content-Type", "application/json")
+            .body(StringBody("""
+                              {
+                                "ean": 123,
+                                "cpfCliente": "71622958004",
+                                "quantidade": 1
+                              }
+                    """))
+            .check(status().is(201));
+
+    ScenarioBuilder cenarioCriaPedido = scenario("Cria pedido em degraus de carga")
+            .exec(criaPedidoRequest);
+
+
+    {
+
+        // A capacidade maxima e o ultimo degrau em que o p95 ainda fica perto do atraso das APIs;
+        // compare esse degrau no relatorio das execucoes com VIRTUAL_THREADS=false e VIRTUAL_THREADS=true
+        setUp(
+                cenarioCriaPedido.injectOpen(
+                        incrementUsersPerSec(DEGRAU_DE_USUARIOS_POR_SEGUNDO)
+                                .times(QUANTIDADE_DE_DEGRAUS)
+                                .eachLevelLasting(Duration.ofSeconds(15))
+                                .separatedByRampsLasting(Duration.ofSeconds(5))
+                                .startingFrom(DEGRAU_DE_USUARIOS_POR_SEGUNDO))
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        global().failedRequests().percent().lt(1.0));
+
+    }
+
+    private ClientAndServer criaMockServerProduto() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8080);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/produto/estoque/123/1")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("true")
+                                .withDelay(TimeUnit.MILLISECONDS, ATRASO_DAS_APIS_EM_MILISSEGUNDOS)
+                );
+
+        return clientAndServer;
+    }
+
+    private ClientAndServer criaMockServerCliente() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8083);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/cliente/71622958004")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("""
+                                            {
+                                                "cpf": "71622958004",
+                                                "nome": "Cliente Teste",
+                                                "enderecoLogradouro": "Rua Teste",
+                                                "enderecoNumero": 123,
+                                                "enderecoSiglaEstado": "SP",
+                                                "dataDeCriacao": "2021-10-10T10:00:00"
+                                            }
+                                        """)
+                                .withDelay(TimeUnit.MILLISECONDS, ATRASO_DAS_APIS_EM_MILISSEGUNDOS)
+                );
+
+        return clientAndServer;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.fiap.techchallenge4.performance;
+
+import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.model.MediaType;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+// Suba a app com PEDIDO_CLIENTE_CACHE_HABILITADO=false (e PEDIDO_CONSULTA_PARALELA igual ao -DconsultaParalela): todos os
+// pedidos usam o mesmo CPF, e com o cache de clientes ligado so o primeiro paga o atraso do cliente, o que derruba a
+// assercao da media no modo sequencial e deixa a do modo paralelo sem medir nada. No fim a simulacao confere no mock
+// do cliente se cada pedido chegou a consultar o cliente
+public class CriaPedidoConsultaParalelaSimulation extends Simulation {
+
+    private static final long ATRASO_CLIENTE_EM_MILISSEGUNDOS = 100;
+    private static final long ATRASO_PRODUTO_EM_MILISSEGUNDOS = 150;
+    private static final boolean CONSULTA_PARALELA = Boolean.parseBoolean(System.getProperty("consultaParalela", "true"));
+
+    private final ClientAndServer mockServerProduto = this.criaMockServerProduto();
+    private final ClientAndServer mockServerCliente = this.criaMockServerCliente();
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl("http://localhost:8081");
+
+    ActionBuilder criaPedidoRequest = http("cria pedido - consulta " + (CONSULTA_PARALELA ? "paralela" : "sequencial"))
+            .post("/pedido")
+            .header("Content-Type", "application/json")
+            .body(StringBody("""
+                              {
+                                "ean": 123,
+                                "cpfCliente": "71622958004",
+                                "quantidade": 1
+                              }
+                    """))
+            .check(status().is(201));
+
+    ScenarioBuilder cenarioCriaPedido = scenario("Cria pedido com consultas lentas")
+            .exec(criaPedidoRequest);
+
+
+    {
+
+        setUp(
+                cenarioCriaPedido.injectOpen(
+                        rampUsersPerSec(1)
+                                .to(20)
+                                .during(Duration.ofSeconds(10)),
+                        constantUsersPerSec(20)
+                                .during(Duration.ofSeconds(30)))
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        this.latenciaEsperada(),
+                        global().failedRequests().count().is(0L));
+
+    }
+
+    @Override
+    public void after() {
+        final var consultasCliente = this.mockServerCliente.retrieveRecordedRequests(
+                HttpRequest.request().withPath("/cliente/71622958004")).length;
+        final var consultasProduto = this.mockServerProduto.retrieveRecordedRequests(
+                HttpRequest.request().withPath("/produto/estoque/123/1")).length;
+        if (consultasCliente < consultasProduto) {
+            System.out.println("Cliente consultado " + consultasCliente + " vez(es) para " + consultasProduto
+                    + " pedidos: o cache de clientes esta ligado, suba a app com PEDIDO_CLIENTE_CACHE_HABILITADO=false");
+        }
+    }
+
+    // Em sequencia o pedido paga a soma das duas consultas; em paralelo, apenas a mais lenta delas
+    private Assertion latenciaEsperada() {
+        final var somaDosAtrasos = (int) (ATRASO_CLIENTE_EM_MILISSEGUNDOS + ATRASO_PRODUTO_EM_MILISSEGUNDOS);
+        if (CONSULTA_PARALELA) {
+            return global().responseTime().percentile4().lt(somaDosAtrasos);
+        }
+        return global().responseTime().mean().gte(somaDosAtrasos);
+    }
+
+    private ClientAndServer criaMockServerProduto() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8080);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/produto/estoque/123/1")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("true")
+                                .withDelay(TimeUnit.MILLISECONDS, ATRASO_PRODUTO_EM_MILISSEGUNDOS)
+                );
+
+        return clientAndServer;
+    }
+
+    private ClientAndServer criaMockServerCliente() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8083);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/cliente/71622958004")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("""
+                                            {
+                                                "cpf": "71622958004",
+                                                "nome": "Cliente Teste",
+                                                "enderecoLogradouro": "Rua Teste",
+                                                "enderecoNumero": 123,
+                                                "enderecoSiglaEstado": "SP",
+                                                "dataDeCriacao": "2021-10-10T10:00:00"
+                                            }
+                                        """)
+                                .withDelay(TimeUnit.MILLISECONDS, ATRASO_CLIENTE_EM_MILISSEGUNDOS)
+                );
+
+        return clientAndServer;
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.fiap.techchallenge4.performance;
+
+import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.model.MediaType;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+
+public class CriaPedidoLoteSimulation extends Simulation {
+
+    private static final int LINHAS_POR_LOTE = 100;
+
+    private final ClientAndServer mockServerProduto = this.criaMockServerProduto();
+    private final ClientAndServer mockServerCliente = this.criaMockServerCliente();
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl("http://localhost:8081");
+
+    ActionBuilder criaPedidoRequest = http("cria pedido")
+            .post("/pedido")
+            .header("Content-Type", "application/json")
+            .body(StringBody("""
+                              {
+                                "ean": 123,
+                                "cpfCliente": "71622958004",
+                                "quantidade": 1
+                              }
+                    """))
+            .check(status().is(201));
+
+    ActionBuilder criaLoteRequest = http("cria lote com " + LINHAS_POR_LOTE + " pedidos")
+            .post("/pedido/lote")
+            .header("Content-Type", "application/json")
+            .body(StringBody(this.lote()))
+            .check(status().is(200))
+            .check(jsonPath("$[?(@.status != 'CRIADO')]").notExists());
+
+    ScenarioBuilder cenarioCriaPedido = scenario("Cria pedido um a um")
+            .exec(criaPedidoRequest);
+
+    ScenarioBuilder cenarioCriaLote = scenario("Cria pedidos em lote")
+            .exec(criaLoteRequest);
+
+
+    {
+
+        // Compare pedidos/s: requisicoes/s do lote x LINHAS_POR_LOTE contra requisicoes/s do pedido unico
+        setUp(
+                cenarioCriaPedido.injectOpen(
+                        constantUsersPerSec(50)
+                                .during(Duration.ofSeconds(30))),
+                cenarioCriaLote.injectOpen(
+                        nothingFor(Duration.ofSeconds(35)),
+                        constantUsersPerSec(5)
+                                .during(Duration.ofSeconds(30)))
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        global().failedRequests().count().is(0L));
+
+    }
+
+    private String lote() {
+        return LongStream.rangeClosed(1, LINHAS_POR_LOTE)
+                .mapToObj(ean -> """
+                        {"ean": %d, "cpfCliente": "71622958004", "quantidade": 1}""".formatted(ean))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private ClientAndServer criaMockServerProduto() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8080);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/produto/estoque/[0-9]+/1")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("true")
+                );
+
+        return clientAndServer;
+    }
+
+    private ClientAndServer criaMockServerCliente() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8083);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/cliente/71622958004")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("""
+                                            {
+                                                "cpf": "71622958004",
+                                                "nome": "Cliente Teste",
+                                                "enderecoLogradouro": "Rua Teste",
+                                                "enderecoNumero": 123,
+                                                "enderecoSiglaEstado": "SP",
+                                                "dataDeCriacao": "2021-10-10T10:00:00"
+                                            }
+                                        """)
+                );
+
+        return clientAndServer;
+    }
+
+}
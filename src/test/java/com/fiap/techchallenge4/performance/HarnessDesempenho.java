@@ -0,0 +1,467 @@
+package com.fiap.techchallenge4.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.Techchallenge4Application;
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.domain.ValidadorCpf;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.PedidoRepository;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.MediaType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+// Sobe a app no proprio processo, sem docker: porta aleatoria, H2 em modo PostgreSQL, test binder do Spring Cloud Stream
+// no lugar do RabbitMQ e MockServer em portas livres no lugar das APIs de produto e cliente.
+// Replica criacao, cancelamento e atualizacao de status em modelo aberto e grava p50/p95/p99 e vazao em JSON
+public class HarnessDesempenho {
+
+    private static final int AQUECIMENTO_EM_SEGUNDOS = Integer.getInteger("aquecimento", 5);
+    private static final int DURACAO_EM_SEGUNDOS = Integer.getInteger("duracao", 30);
+    private static final int CRIACOES_POR_SEGUNDO = Integer.getInteger("criacoesPorSegundo", 50);
+    private static final int CANCELAMENTOS_POR_SEGUNDO = Integer.getInteger("cancelamentosPorSegundo", 10);
+    private static final int ATUALIZACOES_POR_SEGUNDO = Integer.getInteger("atualizacoesPorSegundo", 50);
+    private static final int QUANTIDADE_DE_CPFS = Integer.getInteger("cpfs", 10000);
+    private static final int QUANTIDADE_DE_EANS = Integer.getInteger("eans", 1000);
+    private static final String DISTRIBUICAO = System.getProperty("distribuicao", "zipf");
+    private static final double EXPOENTE_ZIPF = Double.parseDouble(System.getProperty("expoenteZipf", "1.0"));
+    private static final int ATRASO_DEPENDENCIAS_EM_MILISSEGUNDOS = Integer.getInteger("atrasoDependenciasMs", 0);
+    private static final long SEMENTE = Long.getLong("semente", 42L);
+    private static final String ARQUIVO_RESULTADO = System.getProperty("resultado", "target/desempenho/resultado.json");
+
+    private static final String DESTINO_ATUALIZA_STATUS = "pedido-atualiza-status";
+    private static final List<String> DESTINOS_PUBLICADOS = List.of("produto-atualiza-estoque", "logistica-prepara-entrega");
+    private static final long EAN_INICIAL = 7894900000000L;
+
+    public static void main(final String[] args) throws Exception {
+        final var objectMapper = new ObjectMapper();
+        final var cpfs = geraCpfs(QUANTIDADE_DE_CPFS);
+        final var sorteioCpf = distribuicao(QUANTIDADE_DE_CPFS);
+        final var sorteioEan = distribuicao(QUANTIDADE_DE_EANS);
+        final var aleatorio = new SplittableRandom(SEMENTE);
+
+        ConfigurationProperties.logLevel("WARN");
+        final var mockServerProduto = criaMockServerProduto();
+        final var mockServerCliente = criaMockServerCliente();
+        final var descarteAtivo = new AtomicBoolean(true);
+
+        try (final var contexto = sobeApp(mockServerProduto.getPort(), mockServerCliente.getPort());
+             final var executor = Executors.newVirtualThreadPerTaskExecutor();
+             final var http = HttpClient.newBuilder()
+                     .executor(executor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build()) {
+            final var urlPedidos = "http://localhost:" + contexto.getEnvironment().getRequiredProperty("local.server.port") + "/pedido";
+            final var entrada = contexto.getBean(InputDestination.class);
+            final var saida = contexto.getBean(OutputDestination.class);
+            final var repository = contexto.getBean(PedidoRepository.class);
+
+            final var descartador = Thread.ofVirtual().start(() -> descartaPublicados(saida, descarteAtivo));
+
+            final var segundosTotais = AQUECIMENTO_EM_SEGUNDOS + DURACAO_EM_SEGUNDOS;
+            final var paraCancelar = criaPedidos(repository, CANCELAMENTOS_POR_SEGUNDO * segundosTotais,
+                    cpfs, sorteioCpf, sorteioEan, aleatorio.split());
+            final var paraAtualizar = criaPedidos(repository, ATUALIZACOES_POR_SEGUNDO * segundosTotais,
+                    cpfs, sorteioCpf, sorteioEan, aleatorio.split());
+
+            final var aleatorioCria = aleatorio.split();
+            final var cenarios = List.of(
+                    new Cenario("cria", CRIACOES_POR_SEGUNDO, indice -> {
+                        final var dados = new CriaPedidoDTO(
+                                EAN_INICIAL + sorteioEan.sorteia(aleatorioCria),
+                                cpfs[sorteioCpf.sorteia(aleatorioCria)],
+                                1L);
+                        return () -> envia(http, HttpRequest.newBuilder(URI.create(urlPedidos))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(dados)))
+                                .build(), 201);
+                    }),
+                    new Cenario("cancela", CANCELAMENTOS_POR_SEGUNDO, indice -> {
+                        final var idPedido = paraCancelar.get(indice);
+                        return () -> envia(http, HttpRequest.newBuilder(URI.create(urlPedidos + "/" + idPedido))
+                                .DELETE()
+                                .build(), 200);
+                    }),
+                    new Cenario("atualiza-status", ATUALIZACOES_POR_SEGUNDO, indice -> {
+                        final var evento = new AtualizaPedidoDTO(paraAtualizar.get(indice), StatusAtualizaPedidoEnum.EM_TRANSPORTE);
+                        // o test binder entrega na thread de quem envia: o tempo do send e o tempo de consumo do evento
+                        return () -> {
+                            entrada.send(MessageBuilder.withPayload(objectMapper.writeValueAsBytes(evento))
+                                    .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                                    .build(), DESTINO_ATUALIZA_STATUS);
+                            return true;
+                        };
+                    })
+            );
+
+            System.out.println("Aquecimento de " + AQUECIMENTO_EM_SEGUNDOS + "s...");
+            executa(cenarios, AQUECIMENTO_EM_SEGUNDOS, executor);
+
+            System.out.println("Medicao de " + DURACAO_EM_SEGUNDOS + "s...");
+            final var medicoes = executa(cenarios, DURACAO_EM_SEGUNDOS, executor);
+
+            grava(objectMapper, medicoes);
+
+            descarteAtivo.set(false);
+            descartador.join();
+        } finally {
+            mockServerProduto.stop();
+            mockServerCliente.stop();
+        }
+    }
+
+    private static ConfigurableApplicationContext sobeApp(final int portaProduto,
+                                                          final int portaCliente) {
+        return new SpringApplicationBuilder(TestChannelBinderConfiguration.getCompleteConfiguration(Techchallenge4Application.class))
+                .run(
+                        // mesma configuracao da app; abaixo so o que depende de infraestrutura externa
+                        "--spring.config.additional-location=optional:file:src/main/resources/application.properties",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:harness;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--pedido.datasource.replica.urls=",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        "--spring.cloud.stream.default-binder=integration",
+                        "--spring.cloud.function.definition=atualiza",
+                        "--pedido.outbox.relay.habilitado=true",
+                        "--pedido.outbox.relay.aguarda-confirmacao=false",
+                        "--pedido.http.produto.url=http://localhost:" + portaProduto + "/produto",
+                        "--pedido.http.cliente.url=http://localhost:" + portaCliente + "/cliente",
+                        "--logging.level.root=WARN"
+                );
+    }
+
+    // Modelo aberto: cada cenario dispara no ritmo configurado, sem esperar a resposta anterior
+    private static Map<String, Medicao> executa(final List<Cenario> cenarios,
+                                                final int segundos,
+                                                final ExecutorService executor) throws Exception {
+        final var medicoes = new LinkedHashMap<String, Medicao>();
+        final var disparadores = new ArrayList<Thread>();
+        final var inicio = System.nanoTime();
+        for (final var cenario : cenarios) {
+            if (cenario.porSegundo <= 0) {
+                continue;
+            }
+            final var medicao = new Medicao(inicio);
+            medicoes.put(cenario.nome, medicao);
+            disparadores.add(Thread.ofPlatform()
+                    .name("disparo-" + cenario.nome)
+                    .start(() -> dispara(cenario, segundos, medicao, executor)));
+        }
+        for (final var disparador : disparadores) {
+            disparador.join();
+        }
+        for (final var medicao : medicoes.values()) {
+            for (final var futuro : medicao.futuros) {
+                futuro.get();
+            }
+        }
+        return medicoes;
+    }
+
+    private static void dispara(final Cenario cenario,
+                                final int segundos,
+                                final Medicao medicao,
+                                final ExecutorService executor) {
+        final var total = cenario.porSegundo * segundos;
+        final var intervalo = TimeUnit.SECONDS.toNanos(1) / cenario.porSegundo;
+        for (int i = 0; i < total; i++) {
+            final var previsto = medicao.inicio + i * intervalo;
+            for (var falta = previsto - System.nanoTime(); falta > 0; falta = previsto - System.nanoTime()) {
+                LockSupport.parkNanos(falta);
+            }
+            final var operacao = cenario.operacao.apply(cenario.executadas++);
+            medicao.futuros.add(executor.submit(() -> medicao.registra(previsto, operacao)));
+        }
+    }
+
+    private static boolean envia(final HttpClient http,
+                                 final HttpRequest requisicao,
+                                 final int statusEsperado) throws Exception {
+        return http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode() == statusEsperado;
+    }
+
+    private static void grava(final ObjectMapper objectMapper,
+                              final Map<String, Medicao> medicoes) throws Exception {
+        final var configuracao = new LinkedHashMap<String, Object>();
+        configuracao.put("duracaoEmSegundos", DURACAO_EM_SEGUNDOS);
+        configuracao.put("aquecimentoEmSegundos", AQUECIMENTO_EM_SEGUNDOS);
+        configuracao.put("criacoesPorSegundo", CRIACOES_POR_SEGUNDO);
+        configuracao.put("cancelamentosPorSegundo", CANCELAMENTOS_POR_SEGUNDO);
+        configuracao.put("atualizacoesPorSegundo", ATUALIZACOES_POR_SEGUNDO);
+        configuracao.put("cpfs", QUANTIDADE_DE_CPFS);
+        configuracao.put("eans", QUANTIDADE_DE_EANS);
+        configuracao.put("distribuicao", DISTRIBUICAO);
+        configuracao.put("expoenteZipf", EXPOENTE_ZIPF);
+        configuracao.put("atrasoDependenciasMs", ATRASO_DEPENDENCIAS_EM_MILISSEGUNDOS);
+        configuracao.put("semente", SEMENTE);
+
+        final var cenarios = new LinkedHashMap<String, Object>();
+        medicoes.forEach((nome, medicao) -> {
+            final var resumo = medicao.resume();
+            cenarios.put(nome, resumo);
+            System.out.println(nome + ": " + resumo);
+        });
+
+        final var resultado = new LinkedHashMap<String, Object>();
+        resultado.put("executadoEm", LocalDateTime.now().toString());
+        resultado.put("configuracao", configuracao);
+        resultado.put("cenarios", cenarios);
+
+        final var arquivo = Path.of(ARQUIVO_RESULTADO);
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(arquivo.toFile(), resultado);
+        System.out.println("Resultado gravado em " + arquivo.toAbsolutePath());
+    }
+
+    // O test binder guarda em memoria tudo o que o relay do outbox publica; descarta para a fila nao crescer durante a carga
+    private static void descartaPublicados(final OutputDestination saida,
+                                           final AtomicBoolean ativo) {
+        while (ativo.get()) {
+            for (final var destino : DESTINOS_PUBLICADOS) {
+                try {
+                    Message<byte[]> mensagem;
+                    do {
+                        mensagem = saida.receive(0, destino);
+                    } while (Objects.nonNull(mensagem));
+                } catch (Exception e) {
+                    // destino ainda sem nenhuma publicacao
+                }
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    private static List<Long> criaPedidos(final PedidoRepository repository,
+                                          final int quantidade,
+                                          final String[] cpfs,
+                                          final Distribuicao sorteioCpf,
+                                          final Distribuicao sorteioEan,
+                                          final SplittableRandom aleatorio) {
+        final var pedidos = new ArrayList<PedidoEntity>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            pedidos.add(PedidoEntity.builder()
+                    .cpfCliente(cpfs[sorteioCpf.sorteia(aleatorio)])
+                    .ean(EAN_INICIAL + sorteioEan.sorteia(aleatorio))
+                    .quantidade(1L)
+                    .statusPedido(StatusPedidoEnum.CRIADO)
+                    .dataDeCriacao(LocalDateTime.now())
+                    .build());
+        }
+        return repository.saveAll(pedidos)
+                .stream()
+                .map(PedidoEntity::getId)
+                .toList();
+    }
+
+    private static Distribuicao distribuicao(final int tamanho) {
+        if ("uniforme".equals(DISTRIBUICAO)) {
+            return aleatorio -> aleatorio.nextInt(tamanho);
+        }
+        if (!"zipf".equals(DISTRIBUICAO)) {
+            throw new IllegalArgumentException("DISTRIBUICAO INVALIDA: " + DISTRIBUICAO);
+        }
+        // Zipf: a posicao k sai com peso 1/k^s, entao poucos CPFs e EANs concentram a maior parte dos pedidos
+        final var acumulado = new double[tamanho];
+        var soma = 0.0;
+        for (int k = 0; k < tamanho; k++) {
+            soma += 1.0 / Math.pow(k + 1, EXPOENTE_ZIPF);
+            acumulado[k] = soma;
+        }
+        final var total = soma;
+        return aleatorio -> {
+            final var posicao = Arrays.binarySearch(acumulado, aleatorio.nextDouble() * total);
+            return Math.min(posicao >= 0 ? posicao : -posicao - 1, tamanho - 1);
+        };
+    }
+
+    private static String[] geraCpfs(final int quantidade) {
+        final var cpfs = new String[quantidade];
+        var base = 100000000L;
+        for (int i = 0; i < quantidade; base++) {
+            final var cpf = comDigitosVerificadores(Long.toString(base));
+            if (ValidadorCpf.valido(cpf)) {
+                cpfs[i++] = cpf;
+            }
+        }
+        return cpfs;
+    }
+
+    private static String comDigitosVerificadores(final String base) {
+        final var cpf = new StringBuilder(base);
+        for (int tamanho = 9; tamanho <= 10; tamanho++) {
+            var soma = 0;
+            for (int i = 0; i < tamanho; i++) {
+                soma += (cpf.charAt(i) - '0') * (tamanho + 1 - i);
+            }
+            final var resto = soma % 11;
+            cpf.append(resto < 2 ? 0 : 11 - resto);
+        }
+        return cpf.toString();
+    }
+
+    private static ClientAndServer criaMockServerProduto() {
+        final var clientAndServer = ClientAndServer.startClientAndServer();
+
+        clientAndServer.when(
+                        request()
+                                .withMethod("GET")
+                                .withPath("/produto/estoque/.*")
+                )
+                .respond(
+                        response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("true")
+                                .withDelay(TimeUnit.MILLISECONDS, ATRASO_DEPENDENCIAS_EM_MILISSEGUNDOS)
+                );
+
+        return clientAndServer;
+    }
+
+    private static ClientAndServer criaMockServerCliente() {
+        final var clientAndServer = ClientAndServer.startClientAndServer();
+
+        clientAndServer.when(
+                        request()
+                                .withMethod("GET")
+                                .withPath("/cliente/.*")
+                )
+                .respond(
+                        response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("""
+                                            {
+                                                "cpf": "71622958004",
+                                                "nome": "Cliente Teste",
+                                                "enderecoLogradouro": "Rua Teste",
+                                                "enderecoNumero": 123,
+                                                "enderecoSiglaEstado": "SP",
+                                                "dataDeCriacao": "2021-10-10T10:00:00"
+                                            }
+                                        """)
+                                .withDelay(TimeUnit.MILLISECONDS, ATRASO_DEPENDENCIAS_EM_MILISSEGUNDOS)
+                );
+
+        return clientAndServer;
+    }
+
+    private interface Distribuicao {
+        int sorteia(SplittableRandom aleatorio);
+    }
+
+    private static final class Cenario {
+
+        private final String nome;
+        private final int porSegundo;
+        private final IntFunction<Callable<Boolean>> operacao;
+        // so a thread de disparo do cenario mexe no contador e no sorteio, o que deixa a carga reproduzivel pela semente
+        private int executadas;
+
+        private Cenario(final String nome,
+                        final int porSegundo,
+                        final IntFunction<Callable<Boolean>> operacao) {
+            this.nome = nome;
+            this.porSegundo = porSegundo;
+            this.operacao = operacao;
+        }
+
+    }
+
+    private static final class Medicao {
+
+        private final long inicio;
+        private final List<Future<?>> futuros = new ArrayList<>();
+        private final Queue<Long> latencias = new ConcurrentLinkedQueue<>();
+        private final LongAdder erros = new LongAdder();
+        private final AtomicLong ultimaConclusao = new AtomicLong();
+
+        private Medicao(final long inicio) {
+            this.inicio = inicio;
+        }
+
+        // Latencia contada a partir do instante previsto de disparo: atraso na fila do cliente tambem entra no percentil
+        private void registra(final long previsto,
+                              final Callable<Boolean> operacao) {
+            boolean sucesso;
+            try {
+                sucesso = operacao.call();
+            } catch (Exception e) {
+                sucesso = false;
+            }
+            final var fim = System.nanoTime();
+            this.latencias.add(fim - previsto);
+            if (!sucesso) {
+                this.erros.increment();
+            }
+            this.ultimaConclusao.accumulateAndGet(fim, Math::max);
+        }
+
+        private Map<String, Object> resume() {
+            final var ordenadas = this.latencias.stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            final var segundos = (this.ultimaConclusao.get() - this.inicio) / 1_000_000_000.0;
+
+            final var latenciaMs = new LinkedHashMap<String, Object>();
+            latenciaMs.put("p50", percentil(ordenadas, 0.50));
+            latenciaMs.put("p95", percentil(ordenadas, 0.95));
+            latenciaMs.put("p99", percentil(ordenadas, 0.99));
+            latenciaMs.put("max", percentil(ordenadas, 1.0));
+
+            final var resumo = new LinkedHashMap<String, Object>();
+            resumo.put("requisicoes", ordenadas.length);
+            resumo.put("erros", this.erros.sum());
+            resumo.put("vazaoPorSegundo", segundos > 0 ? Math.round(ordenadas.length / segundos * 100) / 100.0 : 0.0);
+            resumo.put("latenciaMs", latenciaMs);
+            return resumo;
+        }
+
+        private static double percentil(final long[] ordenadas,
+                                        final double fracao) {
+            if (ordenadas.length == 0) {
+                return 0.0;
+            }
+            final var posicao = Math.max((int) Math.ceil(fracao * ordenadas.length) - 1, 0);
+            return Math.round(ordenadas[posicao] / 10_000.0) / 100.0;
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.fiap.techchallenge4.performance;
+
+import com.fiap.techchallenge4.domain.CursorPedido;
+import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+
+// Roda contra a app e o PostgreSQL do docker-compose; a massa e criada uma unica vez e reaproveitada nas execucoes seguintes
+public class ListaPedidosClienteSimulation extends Simulation {
+
+    private static final String URL_BANCO = System.getProperty("banco.url", "jdbc:postgresql://localhost:5434/tech_challenge_4_pedidos");
+    private static final String CPF_CLIENTE = "52998224725";
+    private static final int TAMANHO_DA_PAGINA = 20;
+    private static final int PAGINA_PROFUNDA = 10000;
+    private static final int PEDIDOS_DO_CLIENTE = 250000;
+    private static final int PEDIDOS_DE_OUTROS_CLIENTES = 3000000;
+    private static final int LIMITE_P95_EM_MILISSEGUNDOS = Integer.getInteger("limiteP95", 50);
+
+    private final String cursorPaginaProfunda = this.preparaMassaDeDados();
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl("http://localhost:8081");
+
+    ActionBuilder primeiraPaginaRequest = http("pagina 1")
+            .get("/pedido/cliente/" + CPF_CLIENTE + "?tamanho=" + TAMANHO_DA_PAGINA)
+            .check(status().is(200))
+            .check(jsonPath("$.pedidos.length()").is(String.valueOf(TAMANHO_DA_PAGINA)));
+
+    ActionBuilder paginaProfundaRequest = http("pagina " + PAGINA_PROFUNDA)
+            .get("/pedido/cliente/" + CPF_CLIENTE + "?tamanho=" + TAMANHO_DA_PAGINA + "&cursor=" + this.cursorPaginaProfunda)
+            .check(status().is(200))
+            .check(jsonPath("$.pedidos.length()").is(String.valueOf(TAMANHO_DA_PAGINA)));
+
+    ScenarioBuilder cenarioPrimeiraPagina = scenario("Historico do cliente - pagina 1")
+            .exec(primeiraPaginaRequest);
+
+    ScenarioBuilder cenarioPaginaProfunda = scenario("Historico do cliente - pagina " + PAGINA_PROFUNDA)
+            .exec(paginaProfundaRequest);
+
+
+    {
+
+        // Com keyset as duas paginas fazem o mesmo trabalho no indice; o p95 de ambas deve ficar no mesmo patamar
+        setUp(
+                cenarioPrimeiraPagina.injectOpen(
+                        constantUsersPerSec(100)
+                                .during(Duration.ofSeconds(30))),
+                cenarioPaginaProfunda.injectOpen(
+                        constantUsersPerSec(100)
+                                .during(Duration.ofSeconds(30)))
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        details("pagina 1").responseTime().percentile3().lt(LIMITE_P95_EM_MILISSEGUNDOS),
+                        details("pagina " + PAGINA_PROFUNDA).responseTime().percentile3().lt(LIMITE_P95_EM_MILISSEGUNDOS),
+                        global().failedRequests().count().is(0L));
+
+    }
+
+    private String preparaMassaDeDados() {
+        try (final var conexao = DriverManager.getConnection(URL_BANCO, "root", "root")) {
+            if (contaPedidosDoCliente(conexao) < PEDIDOS_DO_CLIENTE) {
+                insereMassa(conexao);
+            }
+            return cursorDaPagina(conexao, PAGINA_PROFUNDA);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long contaPedidosDoCliente(final Connection conexao) throws SQLException {
+        try (final var comando = conexao.prepareStatement("SELECT count(*) FROM tb_pedido WHERE cpf_cliente = ?")) {
+            comando.setString(1, CPF_CLIENTE);
+            try (final var resultado = comando.executeQuery()) {
+                resultado.next();
+                return resultado.getLong(1);
+            }
+        }
+    }
+
+    private static void insereMassa(final Connection conexao) throws SQLException {
+        try (final var comando = conexao.prepareStatement("""
+                INSERT INTO tb_pedido (id, cpf_cliente, ean, quantidade, status_pedido, data_de_criacao)
+                SELECT nextval('tb_pedido_seq'),
+                       CASE WHEN i <= ? THEN ? ELSE lpad((i % 100000)::text, 11, '0') END,
+                       7894900011517,
+                       1 + i % 10,
+                       'ENTREGUE',
+                       now() - (i * interval '1 second')
+                FROM generate_series(1, ?) AS i
+                """)) {
+            comando.setInt(1, PEDIDOS_DO_CLIENTE);
+            comando.setString(2, CPF_CLIENTE);
+            comando.setInt(3, PEDIDOS_DO_CLIENTE + PEDIDOS_DE_OUTROS_CLIENTES);
+            comando.executeUpdate();
+        }
+        try (final var comando = conexao.createStatement()) {
+            comando.execute("ANALYZE tb_pedido");
+        }
+    }
+
+    // Cursor do ultimo pedido da pagina anterior, calculado uma vez com OFFSET so para montar o teste
+    private static String cursorDaPagina(final Connection conexao,
+                                         final int pagina) throws SQLException {
+        try (final var comando = conexao.prepareStatement("""
+                SELECT data_de_criacao, id FROM tb_pedido
+                WHERE cpf_cliente = ?
+                ORDER BY data_de_criacao DESC, id DESC
+                OFFSET ? LIMIT 1
+                """)) {
+            comando.setString(1, CPF_CLIENTE);
+            comando.setInt(2, (pagina - 1) * TAMANHO_DA_PAGINA - 1);
+            try (final var resultado = comando.executeQuery()) {
+                resultado.next();
+                return new CursorPedido(
+                        resultado.getObject("data_de_criacao", LocalDateTime.class),
+                        resultado.getLong("id")
+                ).codifica();
+            }
+        }
+    }
+
+}
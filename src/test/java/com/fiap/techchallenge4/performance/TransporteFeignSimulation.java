@@ -0,0 +1,108 @@
+package com.fiap.techchallenge4.performance;
+
+import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.model.MediaType;
+
+import java.time.Duration;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+
+// Mesmos stand-ins do PerformanceTestSimulation, com carga maior e constante. Suba a app com PEDIDO_CLIENTE_CACHE_HABILITADO=false
+// (as duas consultas vao pela rede) e compare o relatorio de FEIGN_HC5=false (HttpURLConnection) com FEIGN_HC5=true (pool hc5)
+public class TransporteFeignSimulation extends Simulation {
+
+    private static final String TRANSPORTE = System.getProperty("transporte", "hc5");
+    private static final int USUARIOS_POR_SEGUNDO = Integer.getInteger("usuariosPorSegundo", 300);
+
+    private final ClientAndServer mockServerProduto = this.criaMockServerProduto();
+    private final ClientAndServer mockServerCliente = this.criaMockServerCliente();
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl("http://localhost:8081");
+
+    ActionBuilder criaPedidoRequest = http("cria pedido - " + TRANSPORTE)
+            .post("/pedido")
+            .header("Content-Type", "application/json")
+            .body(StringBody("""
+                              {
+                                "ean": 123,
+                                "cpfCliente": "71622958004",
+                                "quantidade": 1
+                              }
+                    """))
+            .check(status().is(201));
+
+    ScenarioBuilder cenarioCriaPedido = scenario("Cria pedido - transporte " + TRANSPORTE)
+            .exec(criaPedidoRequest);
+
+
+    {
+
+        setUp(
+                cenarioCriaPedido.injectOpen(
+                        rampUsersPerSec(1)
+                                .to(USUARIOS_POR_SEGUNDO)
+                                .during(Duration.ofSeconds(10)),
+                        constantUsersPerSec(USUARIOS_POR_SEGUNDO)
+                                .during(Duration.ofSeconds(60)))
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        global().failedRequests().count().is(0L));
+
+    }
+
+    private ClientAndServer criaMockServerProduto() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8080);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/produto/estoque/123/1")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("true")
+                );
+
+        return clientAndServer;
+    }
+
+    private ClientAndServer criaMockServerCliente() {
+        final var clientAndServer = ClientAndServer.startClientAndServer(8083);
+
+        clientAndServer.when(
+                        HttpRequest.request()
+                                .withMethod("GET")
+                                .withPath("/cliente/71622958004")
+                )
+                .respond(
+                        HttpResponse.response()
+                                .withContentType(MediaType.APPLICATION_JSON)
+                                .withStatusCode(200)
+                                .withBody("""
+                                            {
+                                                "cpf": "71622958004",
+                                                "nome": "Cliente Teste",
+                                                "enderecoLogradouro": "Rua Teste",
+                                                "enderecoNumero": 123,
+                                                "enderecoSiglaEstado": "SP",
+                                                "dataDeCriacao": "2021-10-10T10:00:00"
+                                            }
+                                        """)
+                );
+
+        return clientAndServer;
+    }
+
+}
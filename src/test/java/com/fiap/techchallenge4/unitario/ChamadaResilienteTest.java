@@ -0,0 +1,91 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.resiliencia.ChamadaResiliente;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ServicoIndisponivelException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChamadaResilienteTest {
+
+    @Test
+    public void executa_circuitoAberto_recusaSemChamarADependencia() {
+        // preparação
+        var circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        var chamadaResiliente = new ChamadaResiliente(circuitBreakers, BulkheadRegistry.ofDefaults());
+        var chamadas = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrows(RuntimeException.class, () -> chamadaResiliente.executa("produto", () -> {
+                chamadas.incrementAndGet();
+                throw new RuntimeException("API PRODUTO FORA!");
+            }));
+        }
+
+        // execução
+        var excecao = Assertions.assertThrows(
+                ServicoIndisponivelException.class,
+                () -> chamadaResiliente.executa("produto", chamadas::incrementAndGet)
+        );
+
+        // avaliação
+        Assertions.assertEquals("SERVICO DE PRODUTO INDISPONIVEL!", excecao.getMessage());
+        Assertions.assertEquals(2, chamadas.get());
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.circuitBreaker("produto").getState());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.circuitBreaker("cliente").getState());
+        Assertions.assertEquals(1, chamadaResiliente.executa("cliente", () -> 1));
+    }
+
+    @Test
+    public void executa_bulkheadCheio_recusaSemAbrirOCircuito() throws Exception {
+        // preparação
+        var circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+        var bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        var chamadaResiliente = new ChamadaResiliente(circuitBreakers, bulkheads);
+        var emAndamento = new CountDownLatch(1);
+        var libera = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+
+        var ocupada = executor.submit(() -> chamadaResiliente.executa("cliente", () -> {
+            emAndamento.countDown();
+            try {
+                return libera.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        emAndamento.await(5, TimeUnit.SECONDS);
+
+        // execução
+        Assertions.assertThrows(
+                ServicoIndisponivelException.class,
+                () -> chamadaResiliente.executa("cliente", () -> true)
+        );
+
+        // avaliação
+        libera.countDown();
+        Assertions.assertTrue(ocupada.get());
+        Assertions.assertEquals(0, circuitBreakers.circuitBreaker("cliente").getMetrics().getNumberOfFailedCalls());
+        Assertions.assertTrue(chamadaResiliente.executa("cliente", () -> true));
+        executor.shutdown();
+    }
+
+}
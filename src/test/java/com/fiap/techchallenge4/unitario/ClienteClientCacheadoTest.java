@@ -0,0 +1,128 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.cliente.client.ClienteClient;
+import com.fiap.techchallenge4.infrastructure.cliente.client.ClienteClientCacheado;
+import com.fiap.techchallenge4.infrastructure.cliente.client.response.ClienteDTO;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ClienteClientCacheadoTest {
+
+    @Test
+    public void pegaCliente_segundaConsultaVemDoCache() {
+        // preparação
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenReturn(
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
+                        )
+                );
+
+        var registry = new SimpleMeterRegistry();
+        var client = new ClienteClientCacheado(clientCliente, registry, true, Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+
+        // execução
+        var primeiraConsulta = client.pegaCliente("71622958004");
+        var segundaConsulta = client.pegaCliente("716.229.580-04");
+
+        // avaliação
+        verify(clientCliente, times(1)).pegaCliente("71622958004");
+        Assertions.assertNotNull(primeiraConsulta);
+        Assertions.assertEquals(primeiraConsulta, segundaConsulta);
+        Assertions.assertEquals(1.0, registry.get("cache.gets").tag("cache", ClienteClientCacheado.NOME_CACHE).tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void pegaCliente_clienteNaoEncontradoTambemVaiParaOCache() {
+        // preparação
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        Mockito.when(clientCliente.pegaCliente("12345678909"))
+                .thenThrow(naoEncontrado());
+
+        var client = new ClienteClientCacheado(clientCliente, new SimpleMeterRegistry(), true, Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+
+        // execução
+        var primeiraConsulta = client.pegaCliente("12345678909");
+        var segundaConsulta = client.pegaCliente("12345678909");
+
+        // avaliação
+        verify(clientCliente, times(1)).pegaCliente("12345678909");
+        Assertions.assertNull(primeiraConsulta);
+        Assertions.assertNull(segundaConsulta);
+    }
+
+    @Test
+    public void pegaCliente_erroNaConsultaNaoVaiParaOCache() {
+        // preparação
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenThrow(new RuntimeException("API INDISPONIVEL!!"));
+
+        var client = new ClienteClientCacheado(clientCliente, new SimpleMeterRegistry(), true, Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+
+        // execução e avaliação
+        Assertions.assertThrows(RuntimeException.class, () -> client.pegaCliente("71622958004"));
+        Assertions.assertThrows(RuntimeException.class, () -> client.pegaCliente("71622958004"));
+        verify(clientCliente, times(2)).pegaCliente("71622958004");
+    }
+
+    @Test
+    public void pegaCliente_errorNaConsultaNaoPrendeAsProximasConsultas() {
+        // preparação
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenThrow(new StackOverflowError("teste"));
+
+        var client = new ClienteClientCacheado(clientCliente, new SimpleMeterRegistry(), true, Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+
+        // execução e avaliação
+        Assertions.assertThrows(StackOverflowError.class, () -> client.pegaCliente("71622958004"));
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+                Assertions.assertThrows(StackOverflowError.class, () -> client.pegaCliente("71622958004"))
+        );
+    }
+
+    @Test
+    public void pegaCliente_cacheDesabilitadoSempreConsulta() {
+        // preparação
+        var clientCliente = Mockito.mock(ClienteClient.class);
+
+        var client = new ClienteClientCacheado(clientCliente, new SimpleMeterRegistry(), false, Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+
+        // execução
+        client.pegaCliente("71622958004");
+        client.pegaCliente("71622958004");
+
+        // avaliação
+        verify(clientCliente, times(2)).pegaCliente("71622958004");
+    }
+
+    // Resposta do Feign para o GET /cliente/{cpf} com 404
+    private static FeignException.NotFound naoEncontrado() {
+        return new FeignException.NotFound(
+                "[404 Not Found] during [GET] to [http://cliente/12345678909]",
+                Request.create(Request.HttpMethod.GET, "http://cliente/12345678909", Map.of(), null, StandardCharsets.UTF_8, null),
+                null,
+                Map.of()
+        );
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.codec.CodificadorEventos;
+import com.fiap.techchallenge4.infrastructure.config.ConversorCborConfig;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaEstoqueDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+public class CodificadorEventosTest {
+
+    private static final String ATUALIZA_ESTOQUE = "{\"ean\":7894900011517,\"quantidade\":3,\"statusEstoque\":\"RETIRA_DO_ESTOQUE\"}";
+
+    @Test
+    public void codifica_destinoEmCbor_geraPayloadMenorQueOConversorCborLe() {
+        // preparação
+        var codificador = new CodificadorEventos(Set.of("produto-atualiza-estoque"));
+        var conversor = new ConversorCborConfig().conversorCbor(new Jackson2ObjectMapperBuilder());
+
+        // execução
+        var payload = codificador.codifica("produto-atualiza-estoque", ATUALIZA_ESTOQUE);
+        var evento = conversor.fromMessage(
+                MessageBuilder.withPayload(payload)
+                        .setHeader(MessageHeaders.CONTENT_TYPE, codificador.contentType("produto-atualiza-estoque"))
+                        .build(),
+                AtualizaEstoqueDTO.class
+        );
+
+        // avaliação
+        Assertions.assertEquals(CodificadorEventos.APPLICATION_CBOR, codificador.contentType("produto-atualiza-estoque"));
+        Assertions.assertTrue(payload.length < ATUALIZA_ESTOQUE.getBytes(StandardCharsets.UTF_8).length);
+        Assertions.assertEquals(new AtualizaEstoqueDTO(7894900011517L, 3L, StatusEstoqueEnum.RETIRA_DO_ESTOQUE), evento);
+    }
+
+    @Test
+    public void codifica_destinoForaDaLista_mantemJson() {
+        // preparação
+        var codificador = new CodificadorEventos(Set.of("produto-atualiza-estoque"));
+
+        // execução
+        var payload = codificador.codifica("logistica-prepara-entrega", ATUALIZA_ESTOQUE);
+
+        // avaliação
+        Assertions.assertEquals(MimeTypeUtils.APPLICATION_JSON, codificador.contentType("logistica-prepara-entrega"));
+        Assertions.assertArrayEquals(ATUALIZA_ESTOQUE.getBytes(StandardCharsets.UTF_8), payload);
+    }
+
+    @Test
+    public void conversorCbor_mensagemEmJson_ficaParaOConversorPadrao() {
+        // preparação
+        var conversor = new ConversorCborConfig().conversorCbor(new Jackson2ObjectMapperBuilder());
+        var mensagem = MessageBuilder.withPayload("{\"idDoPedido\":1,\"statusEntrega\":\"ENTREGUE\"}".getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+
+        // execução
+        var evento = conversor.fromMessage(mensagem, AtualizaPedidoDTO.class);
+
+        // avaliação
+        Assertions.assertNull(evento);
+    }
+
+}
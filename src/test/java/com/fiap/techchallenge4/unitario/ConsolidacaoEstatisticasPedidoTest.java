@@ -0,0 +1,166 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.estatisticas.ConsolidacaoEstatisticasPedido;
+import com.fiap.techchallenge4.infrastructure.estatisticas.ContadoresStatusPedido;
+import com.fiap.techchallenge4.infrastructure.model.PedidoEstatisticaEntity;
+import com.fiap.techchallenge4.infrastructure.repository.PedidoEstatisticaRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class ConsolidacaoEstatisticasPedidoTest {
+
+    @Test
+    public void estatisticas_somaConsolidadoComVariacoesAindaNaoConsolidadas() {
+        // preparação
+        var contadores = new ContadoresStatusPedido();
+        contadores.consolidado(Map.of(StatusPedidoEnum.CRIADO, 10L, StatusPedidoEnum.ENTREGUE, 5L), null);
+
+        // execução
+        contadores.criados(StatusPedidoEnum.CRIADO, 3);
+        contadores.transicionados(StatusPedidoEnum.CRIADO, StatusPedidoEnum.EM_TRANSPORTE, 2);
+        var estatisticas = contadores.estatisticas();
+
+        // avaliação
+        Assertions.assertEquals(11L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.CRIADO));
+        Assertions.assertEquals(2L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.EM_TRANSPORTE));
+        Assertions.assertEquals(5L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.ENTREGUE));
+        Assertions.assertEquals(0L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.CANCELADO));
+        Assertions.assertEquals(18L, estatisticas.total());
+    }
+
+    @Test
+    public void consolida_somaAsVariacoesNaTabelaEZeraOsContadores() {
+        // preparação
+        var contadores = new ContadoresStatusPedido();
+        var repository = Mockito.mock(PedidoEstatisticaRepository.class);
+
+        Mockito.when(repository.soma(Mockito.any(), Mockito.anyLong()))
+                .thenReturn(1);
+        Mockito.when(repository.findAll())
+                .thenReturn(List.of(
+                        new PedidoEstatisticaEntity(StatusPedidoEnum.CRIADO, 7L),
+                        new PedidoEstatisticaEntity(StatusPedidoEnum.CANCELADO, 1L)
+                ));
+
+        var consolidacao = new ConsolidacaoEstatisticasPedido(contadores, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+        contadores.criados(StatusPedidoEnum.CRIADO, 2);
+        contadores.transicionados(StatusPedidoEnum.CRIADO, StatusPedidoEnum.CANCELADO, 1);
+
+        // execução
+        consolidacao.consolida();
+
+        // avaliação
+        verify(repository, times(1)).soma(StatusPedidoEnum.CRIADO, 1L);
+        verify(repository, times(1)).soma(StatusPedidoEnum.CANCELADO, 1L);
+        verify(repository, times(0)).save(Mockito.any());
+        Assertions.assertTrue(contadores.drena().isEmpty());
+
+        var estatisticas = contadores.estatisticas();
+        Assertions.assertEquals(7L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.CRIADO));
+        Assertions.assertEquals(8L, estatisticas.total());
+        Assertions.assertNotNull(estatisticas.consolidadoEm());
+    }
+
+    @Test
+    public void consolida_statusSemLinha_insereComAVariacao() {
+        // preparação
+        var contadores = new ContadoresStatusPedido();
+        var repository = Mockito.mock(PedidoEstatisticaRepository.class);
+
+        Mockito.when(repository.soma(Mockito.any(), Mockito.anyLong()))
+                .thenReturn(0);
+
+        var consolidacao = new ConsolidacaoEstatisticasPedido(contadores, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+        contadores.criados(StatusPedidoEnum.PENDENTE, 4);
+
+        // execução
+        consolidacao.consolida();
+
+        // avaliação
+        verify(repository, times(1)).save(new PedidoEstatisticaEntity(StatusPedidoEnum.PENDENTE, 4L));
+    }
+
+    @Test
+    public void consolida_falhaNaBase_devolveAsVariacoesParaAProximaConsolidacao() {
+        // preparação
+        var contadores = new ContadoresStatusPedido();
+        var repository = Mockito.mock(PedidoEstatisticaRepository.class);
+
+        Mockito.when(repository.soma(Mockito.any(), Mockito.anyLong()))
+                .thenThrow(new RuntimeException("banco fora"));
+
+        var consolidacao = new ConsolidacaoEstatisticasPedido(contadores, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+        contadores.criados(StatusPedidoEnum.CRIADO, 3);
+
+        // execução
+        consolidacao.consolida();
+
+        // avaliação
+        Assertions.assertEquals(Map.of(StatusPedidoEnum.CRIADO, 3L), contadores.drena());
+        Assertions.assertNull(contadores.estatisticas().consolidadoEm());
+    }
+
+    @Test
+    public void reconcilia_sobrescreveComAContagemDaTbPedidoEDescartaAsVariacoesLocais() {
+        // preparação
+        var contadores = new ContadoresStatusPedido();
+        var repository = Mockito.mock(PedidoEstatisticaRepository.class);
+
+        Mockito.when(repository.contaPedidosPorStatus())
+                .thenReturn(List.of(
+                        new PedidoEstatisticaEntity(StatusPedidoEnum.CRIADO, 40L),
+                        new PedidoEstatisticaEntity(StatusPedidoEnum.ENTREGUE, 2L)
+                ));
+        Mockito.when(repository.sobrescreve(Mockito.any(), Mockito.anyLong()))
+                .thenReturn(1);
+        Mockito.when(repository.sobrescreve(Mockito.eq(StatusPedidoEnum.ENTREGUE), Mockito.anyLong()))
+                .thenReturn(0);
+
+        var consolidacao = new ConsolidacaoEstatisticasPedido(contadores, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+        contadores.criados(StatusPedidoEnum.CRIADO, 5);
+
+        // execução
+        consolidacao.reconcilia();
+
+        // avaliação
+        verify(repository, times(1)).sobrescreve(StatusPedidoEnum.CRIADO, 40L);
+        verify(repository, times(1)).sobrescreve(StatusPedidoEnum.CANCELADO, 0L);
+        verify(repository, times(1)).save(new PedidoEstatisticaEntity(StatusPedidoEnum.ENTREGUE, 2L));
+        verify(repository, times(0)).soma(Mockito.any(), Mockito.anyLong());
+
+        var estatisticas = contadores.estatisticas();
+        Assertions.assertEquals(40L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.CRIADO));
+        Assertions.assertEquals(42L, estatisticas.total());
+        Assertions.assertNotNull(estatisticas.consolidadoEm());
+    }
+
+    @Test
+    public void reconcilia_falhaNaBase_devolveAsVariacoesParaAProximaConsolidacao() {
+        // preparação
+        var contadores = new ContadoresStatusPedido();
+        var repository = Mockito.mock(PedidoEstatisticaRepository.class);
+
+        Mockito.when(repository.contaPedidosPorStatus())
+                .thenThrow(new RuntimeException("banco fora"));
+
+        var consolidacao = new ConsolidacaoEstatisticasPedido(contadores, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+        contadores.criados(StatusPedidoEnum.CRIADO, 3);
+
+        // execução
+        consolidacao.reconcilia();
+
+        // avaliação
+        Assertions.assertEquals(Map.of(StatusPedidoEnum.CRIADO, 3L), contadores.drena());
+        Assertions.assertNull(contadores.estatisticas().consolidadoEm());
+    }
+
+}
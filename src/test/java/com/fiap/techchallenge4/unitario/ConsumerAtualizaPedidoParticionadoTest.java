@@ -0,0 +1,144 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.consumer.ConsumerAtualizaPedidoParticionado;
+import com.fiap.techchallenge4.infrastructure.consumer.FilasPorPedido;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.useCase.PedidoUseCase;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class ConsumerAtualizaPedidoParticionadoTest {
+
+    @Test
+    public void atualizaParticionado_mesmoPedido_aplicaNaOrdemDeChegada() throws Exception {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+        var aplicados = Collections.synchronizedList(new ArrayList<AtualizaPedidoDTO>());
+
+        Mockito.doAnswer(invocacao -> {
+            AtualizaPedidoDTO evento = invocacao.getArgument(0);
+            // o primeiro evento de cada pedido demora mais; se as filas nao respeitassem o pedido, o segundo passaria na frente
+            if(StatusAtualizaPedidoEnum.EM_TRANSPORTE.equals(evento.statusEntrega())) {
+                Thread.sleep(20);
+            }
+            aplicados.add(evento);
+            return null;
+        }).when(service).atualiza(Mockito.any());
+
+        var consumer = new ConsumerAtualizaPedidoParticionado(service, 4, 3);
+
+        // execução
+        long deliveryTag = 1;
+        for (long idDoPedido = 1; idDoPedido <= 20; idDoPedido++) {
+            consumer.atualizaParticionado().accept(mensagem(canal, deliveryTag++, idDoPedido, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+            consumer.atualizaParticionado().accept(mensagem(canal, deliveryTag++, idDoPedido, StatusAtualizaPedidoEnum.ENTREGUE));
+        }
+        consumer.close();
+
+        // avaliação
+        Assertions.assertEquals(40, aplicados.size());
+        for (long idDoPedido = 1; idDoPedido <= 20; idDoPedido++) {
+            final var id = idDoPedido;
+            var doPedido = aplicados.stream()
+                    .filter(evento -> evento.idDoPedido() == id)
+                    .map(AtualizaPedidoDTO::statusEntrega)
+                    .toList();
+            Assertions.assertEquals(List.of(StatusAtualizaPedidoEnum.EM_TRANSPORTE, StatusAtualizaPedidoEnum.ENTREGUE), doPedido);
+        }
+        verify(canal, times(40)).basicAck(Mockito.anyLong(), Mockito.eq(false));
+    }
+
+    @Test
+    public void atualizaParticionado_falhaNaBase_tentaDeNovoEDescartaDepoisDasTentativas() throws Exception {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+
+        Mockito.doThrow(new RuntimeException("banco fora"))
+                .when(service).atualiza(Mockito.any());
+
+        var consumer = new ConsumerAtualizaPedidoParticionado(service, 2, 3);
+
+        // execução
+        consumer.atualizaParticionado().accept(mensagem(canal, 7L, 1L, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+        consumer.close();
+
+        // avaliação
+        verify(service, times(3)).atualiza(Mockito.any());
+        verify(canal, times(1)).basicNack(7L, false, false);
+        verify(canal, times(0)).basicAck(Mockito.anyLong(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void atualizaParticionado_eventoInvalido_descartaSemTentarDeNovo() throws Exception {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+
+        Mockito.doThrow(new IllegalArgumentException("ID DO PEDIDO INVALIDO"))
+                .when(service).atualiza(Mockito.any());
+
+        var consumer = new ConsumerAtualizaPedidoParticionado(service, 2, 3);
+
+        // execução
+        consumer.atualizaParticionado().accept(mensagem(canal, 3L, null, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+        consumer.close();
+
+        // avaliação
+        verify(service, times(1)).atualiza(Mockito.any());
+        verify(canal, times(1)).basicNack(3L, false, false);
+    }
+
+    @Test
+    public void particionaAtualizacao_usaOIdDoPedidoComoChaveDaParticao() {
+        // preparação
+        var consumer = new ConsumerAtualizaPedidoParticionado(Mockito.mock(PedidoUseCase.class), 2, 3);
+
+        // execução
+        var mensagem = consumer.particionaAtualizacao()
+                .apply(new AtualizaPedidoDTO(42L, StatusAtualizaPedidoEnum.ENTREGUE));
+
+        // avaliação
+        Assertions.assertEquals(42L, mensagem.getHeaders().get(ConsumerAtualizaPedidoParticionado.CABECALHO_ID_DO_PEDIDO));
+        Assertions.assertEquals(42L, mensagem.getPayload().idDoPedido());
+    }
+
+    @Test
+    public void filasPorPedido_mesmoPedidoSempreNaMesmaFila() throws InterruptedException {
+        // preparação
+        var filas = new FilasPorPedido(8, "teste-");
+
+        // execução e avaliação
+        Assertions.assertEquals(filas.fila(123456L), filas.fila(123456L));
+        Assertions.assertEquals(0, filas.fila(null));
+        for (long idDoPedido = -100; idDoPedido <= 100; idDoPedido++) {
+            Assertions.assertTrue(filas.fila(idDoPedido) >= 0 && filas.fila(idDoPedido) < 8);
+        }
+        filas.close();
+    }
+
+    private static Message<AtualizaPedidoDTO> mensagem(final Channel canal,
+                                                       final long deliveryTag,
+                                                       final Long idDoPedido,
+                                                       final StatusAtualizaPedidoEnum status) throws IOException {
+        return MessageBuilder.withPayload(new AtualizaPedidoDTO(idDoPedido, status))
+                .setHeader(AmqpHeaders.CHANNEL, canal)
+                .setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag)
+                .build();
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.infrastructure.consumer.ConsumerAtualizaPedido;
+import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
+import com.fiap.techchallenge4.useCase.PedidoUseCase;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.integration.amqp.inbound.AmqpInboundChannelAdapter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class ConsumerAtualizaPedidoTest {
+
+    @Test
+    public void atualizaLote_confirmaValidos_descartaInvalidos() throws IOException {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+
+        Mockito.when(service.atualizaLote(Mockito.any()))
+                .thenReturn(List.of(true, false, true));
+
+        var consumer = new ConsumerAtualizaPedido(service, 3);
+
+        // execução
+        consumer.atualizaLote().accept(mensagem(canal, 3));
+
+        // avaliação
+        verify(canal, times(1)).basicAck(1L, false);
+        verify(canal, times(1)).basicNack(2L, false, false);
+        verify(canal, times(1)).basicAck(3L, false);
+        verifyNoMoreInteractions(canal);
+    }
+
+    @Test
+    public void atualizaLote_falhaNaBase_devolveTodasAsMensagensParaAFila() throws IOException {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+
+        Mockito.when(service.atualizaLote(Mockito.any()))
+                .thenThrow(new RuntimeException("banco fora"));
+
+        var consumer = new ConsumerAtualizaPedido(service, 3);
+
+        // execução
+        consumer.atualizaLote().accept(mensagem(canal, 2));
+
+        // avaliação
+        verify(canal, times(1)).basicNack(1L, false, true);
+        verify(canal, times(1)).basicNack(2L, false, true);
+        verify(canal, times(0)).basicAck(Mockito.anyLong(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void atualizaLote_falhaNoLoteReentregue_aplicaCadaEventoEDescartaOQueContinuaFalhando() throws IOException {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+
+        Mockito.when(service.atualizaLote(Mockito.any()))
+                .thenThrow(new RuntimeException("evento envenenado"));
+        Mockito.doThrow(new RuntimeException("evento envenenado"))
+                .when(service).atualiza(new AtualizaPedidoDTO(2L, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+
+        var consumer = new ConsumerAtualizaPedido(service, 3);
+
+        // execução
+        consumer.atualizaLote().accept(mensagem(canal, 2, true));
+
+        // avaliação
+        verify(service, times(1)).atualiza(new AtualizaPedidoDTO(1L, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+        verify(service, times(3)).atualiza(new AtualizaPedidoDTO(2L, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+        verify(canal, times(1)).basicAck(1L, false);
+        verify(canal, times(1)).basicNack(2L, false, false);
+        verifyNoMoreInteractions(canal);
+    }
+
+    @Test
+    public void atualizaLote_semCabecalhosConsolidados_naoConfirmaNada() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCase.class);
+        var canal = Mockito.mock(Channel.class);
+
+        var consumer = new ConsumerAtualizaPedido(service, 3);
+        var mensagem = MessageBuilder.withPayload(List.of(new AtualizaPedidoDTO(1L, StatusAtualizaPedidoEnum.EM_TRANSPORTE)))
+                .setHeader(AmqpHeaders.CHANNEL, canal)
+                .setHeader(AmqpInboundChannelAdapter.CONSOLIDATED_HEADERS, List.of("sem delivery tag"))
+                .build();
+
+        // execução
+        Assertions.assertThrows(IllegalStateException.class, () -> consumer.atualizaLote().accept(mensagem));
+
+        // avaliação
+        verifyNoInteractions(service);
+        verifyNoInteractions(canal);
+    }
+
+    private static Message<List<AtualizaPedidoDTO>> mensagem(final Channel canal,
+                                                             final int quantidade) {
+        return mensagem(canal, quantidade, false);
+    }
+
+    private static Message<List<AtualizaPedidoDTO>> mensagem(final Channel canal,
+                                                             final int quantidade,
+                                                             final boolean reentregue) {
+        var eventos = new ArrayList<AtualizaPedidoDTO>();
+        var cabecalhos = new ArrayList<Map<String, Object>>();
+        for (long i = 1; i <= quantidade; i++) {
+            eventos.add(new AtualizaPedidoDTO(i, StatusAtualizaPedidoEnum.EM_TRANSPORTE));
+            cabecalhos.add(Map.of(AmqpHeaders.DELIVERY_TAG, i, AmqpHeaders.REDELIVERED, reentregue));
+        }
+        return MessageBuilder.withPayload((List<AtualizaPedidoDTO>) eventos)
+                .setHeader(AmqpHeaders.CHANNEL, canal)
+                .setHeader(AmqpInboundChannelAdapter.CONSOLIDATED_HEADERS, cabecalhos)
+                .build();
+    }
+
+}
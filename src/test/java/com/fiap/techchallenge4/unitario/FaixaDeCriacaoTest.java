@@ -0,0 +1,58 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.model.FaixaDeCriacao;
+import com.fiap.techchallenge4.infrastructure.model.GeradorIdPedido;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class FaixaDeCriacaoTest {
+
+    @Test
+    public void doId_idGerado_devolveOMesDaCriacao() {
+        // preparação
+        var id = GeradorIdPedido.compoe(LocalDateTime.of(2026, 10, 31, 23, 59, 59), 51L);
+
+        // execução
+        var faixa = FaixaDeCriacao.doId(id);
+
+        // avaliação
+        Assertions.assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), faixa.inicio());
+        Assertions.assertEquals(LocalDateTime.of(2026, 11, 1, 0, 0), faixa.fim());
+    }
+
+    @Test
+    public void dosIds_idsDeMesesDiferentes_cobreDoPrimeiroAoUltimoMes() {
+        // preparação
+        var ids = List.of(
+                GeradorIdPedido.compoe(LocalDateTime.of(2026, 12, 5, 10, 0), 101L),
+                GeradorIdPedido.compoe(LocalDateTime.of(2026, 10, 1, 0, 0), 1L)
+        );
+
+        // execução
+        var faixa = FaixaDeCriacao.dosIds(ids);
+
+        // avaliação
+        Assertions.assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), faixa.inicio());
+        Assertions.assertEquals(LocalDateTime.of(2027, 1, 1, 0, 0), faixa.fim());
+    }
+
+    @Test
+    public void dosIds_idAnteriorAoFormatoComMes_naoRestringeAParticao() {
+        // preparação
+        var ids = List.of(
+                GeradorIdPedido.compoe(LocalDateTime.of(2026, 10, 1, 0, 0), 1L),
+                1501L
+        );
+
+        // execução
+        var faixa = FaixaDeCriacao.dosIds(ids);
+
+        // avaliação
+        Assertions.assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0), faixa.inicio());
+        Assertions.assertEquals(LocalDateTime.of(9999, 1, 1, 0, 0), faixa.fim());
+    }
+
+}
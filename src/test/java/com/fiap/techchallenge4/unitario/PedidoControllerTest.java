@@ -1,7 +1,16 @@
 package com.fiap.techchallenge4.unitario;
 
+import com.fiap.techchallenge4.domain.StatusLotePedidoEnum;
+import com.fiap.techchallenge4.domain.StatusPedidoEnum;
 import com.fiap.techchallenge4.infrastructure.controller.PedidoController;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EstatisticasPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EventoStatusPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaPedidosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoLotePedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusDoPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.idempotencia.RegistroIdempotencia;
 import com.fiap.techchallenge4.useCase.impl.PedidoUseCaseImpl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -12,9 +21,14 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 
 public class PedidoControllerTest {
@@ -31,7 +45,7 @@ public class PedidoControllerTest {
                         true
                 );
 
-        var controller = new PedidoController(service);
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
 
         // execução
         var produto = controller.cria(
@@ -39,11 +53,157 @@ public class PedidoControllerTest {
                         7894900011517L,
                         "71622958004",
                         100L
-                )
+                ),
+                null
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.CREATED, produto.getStatusCode());
+    }
+
+    @Test
+    public void cria_comIdempotencyKey_delegaAoRegistroDeIdempotencia() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        var idempotencia = Mockito.mock(RegistroIdempotencia.class);
+        Mockito.when(idempotencia.executa(Mockito.eq("chave-1"), any(), any()))
+                .thenReturn(
+                        true
+                );
+
+        var controller = new PedidoController(service, idempotencia, false);
+
+        // execução
+        var produto = controller.cria(
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "71622958004",
+                        100L
+                ),
+                "chave-1"
         );
 
         // avaliação
         Assertions.assertEquals(HttpStatus.CREATED, produto.getStatusCode());
+        Mockito.verify(service, Mockito.times(0)).cria(any());
+    }
+
+    @Test
+    public void cria_aceiteAssincrono_deveRetornar202ComOPedidoPendente() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.aceita(
+                            any(CriaPedidoDTO.class)
+                        )
+                )
+                .thenReturn(
+                        10L
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), true);
+
+        // execução
+        var produto = controller.cria(
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "71622958004",
+                        100L
+                ),
+                null
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.ACCEPTED, produto.getStatusCode());
+        Assertions.assertEquals(new StatusDoPedidoDTO(10L, StatusPedidoEnum.PENDENTE), produto.getBody());
+        Assertions.assertEquals("/pedido/10/status", produto.getHeaders().getLocation().toString());
+        Mockito.verify(service, Mockito.times(0)).cria(any());
+    }
+
+    @Test
+    public void consultaStatus_pedidoNaoExiste_deveRetornar404() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.consultaStatus(
+                                anyLong()
+                        )
+                )
+                .thenReturn(
+                        Optional.empty()
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), true);
+
+        // execução
+        var status = controller.consultaStatus(1L);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, status.getStatusCode());
+    }
+
+    @Test
+    public void historico_deveRetornar200_comEventosDoPedido() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.historico(
+                                anyLong()
+                        )
+                )
+                .thenReturn(
+                        List.of(
+                                new EventoStatusPedidoDTO(null, StatusPedidoEnum.CRIADO, LocalDateTime.now()),
+                                new EventoStatusPedidoDTO(StatusPedidoEnum.CRIADO, StatusPedidoEnum.CANCELADO, LocalDateTime.now())
+                        )
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
+
+        // execução
+        var historico = controller.historico(1L);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, historico.getStatusCode());
+        Assertions.assertEquals(2, historico.getBody().size());
+    }
+
+    @Test
+    public void historico_pedidoNaoExiste_deveRetornar404() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.historico(
+                                anyLong()
+                        )
+                )
+                .thenReturn(
+                        List.of()
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
+
+        // execução
+        var historico = controller.historico(1L);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, historico.getStatusCode());
+    }
+
+    @Test
+    public void estatisticas_deveRetornar200_comQuantidadePorStatus() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.estatisticas())
+                .thenReturn(
+                        new EstatisticasPedidoDTO(Map.of(StatusPedidoEnum.CRIADO, 3L, StatusPedidoEnum.CANCELADO, 1L), 4L, LocalDateTime.now())
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
+
+        // execução
+        var estatisticas = controller.estatisticas();
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, estatisticas.getStatusCode());
+        Assertions.assertEquals(3L, estatisticas.getBody().quantidadePorStatus().get(StatusPedidoEnum.CRIADO));
+        Assertions.assertEquals(4L, estatisticas.getBody().total());
     }
 
     @Test
@@ -58,7 +218,7 @@ public class PedidoControllerTest {
                         false
                 );
 
-        var controller = new PedidoController(service);
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
 
         // execução
         var produto = controller.cria(
@@ -66,13 +226,82 @@ public class PedidoControllerTest {
                         7894900011517L,
                         "71622958004",
                         100L
-                )
+                ),
+                null
         );
 
         // avaliação
         Assertions.assertEquals(HttpStatus.CONFLICT, produto.getStatusCode());
     }
 
+    @Test
+    public void criaLote_deveRetornar200_comResultadoPorLinha() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.criaLote(
+                                anyList()
+                        )
+                )
+                .thenReturn(
+                        List.of(
+                                new ResultadoLotePedidoDTO(0, StatusLotePedidoEnum.CRIADO, 1L, null),
+                                new ResultadoLotePedidoDTO(1, StatusLotePedidoEnum.SEM_ESTOQUE, null, null)
+                        )
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
+
+        // execução
+        var produto = controller.criaLote(
+                List.of(
+                        new CriaPedidoDTO(
+                                7894900011517L,
+                                "71622958004",
+                                100L
+                        ),
+                        new CriaPedidoDTO(
+                                7894900011524L,
+                                "71622958004",
+                                100L
+                        )
+                )
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, produto.getStatusCode());
+        Assertions.assertEquals(2, produto.getBody().size());
+    }
+
+    @Test
+    public void listaPorCliente_deveRetornar200_comPaginaECursor() {
+        // preparação
+        var service = Mockito.mock(PedidoUseCaseImpl.class);
+        Mockito.when(service.listaPorCliente(
+                                "71622958004",
+                                null,
+                                20
+                        )
+                )
+                .thenReturn(
+                        new PaginaPedidosDTO(
+                                List.of(
+                                        new PedidoDTO(1L, 7894900011517L, 100L, StatusPedidoEnum.CRIADO, LocalDateTime.now())
+                                ),
+                                "cursor"
+                        )
+                );
+
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
+
+        // execução
+        var pedidos = controller.listaPorCliente("71622958004", null, 20);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, pedidos.getStatusCode());
+        Assertions.assertEquals(1, pedidos.getBody().pedidos().size());
+        Assertions.assertEquals("cursor", pedidos.getBody().proximoCursor());
+    }
+
     @Test
     public void cancela_deveRetornar200_salvaNaBaseDeDados() {
         // preparação
@@ -85,7 +314,7 @@ public class PedidoControllerTest {
                         true
                 );
 
-        var controller = new PedidoController(service);
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
 
         // execução
         var produto = controller.cancela(1L);
@@ -106,7 +335,7 @@ public class PedidoControllerTest {
                         false
                 );
 
-        var controller = new PedidoController(service);
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
 
         // execução
         var produto = controller.cancela(1L);
@@ -130,7 +359,7 @@ public class PedidoControllerTest {
                         any(CriaPedidoDTO.class)
                 );
 
-        var controller = new PedidoController(service);
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
@@ -139,7 +368,8 @@ public class PedidoControllerTest {
                             ean,
                             cpfCliente,
                             quantidade
-                    )
+                    ),
+                    null
             );
         });
     }
@@ -161,7 +391,7 @@ public class PedidoControllerTest {
                         anyLong()
                 );
 
-        var controller = new PedidoController(service);
+        var controller = new PedidoController(service, Mockito.mock(RegistroIdempotencia.class), false);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
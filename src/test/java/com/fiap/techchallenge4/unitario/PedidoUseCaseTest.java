@@ -1,38 +1,77 @@
 package com.fiap.techchallenge4.unitario;
 
+import com.fiap.techchallenge4.domain.CursorPedido;
+import com.fiap.techchallenge4.domain.ResultadoCriacaoEnum;
 import com.fiap.techchallenge4.domain.StatusAtualizaPedidoEnum;
+import com.fiap.techchallenge4.domain.StatusLotePedidoEnum;
 import com.fiap.techchallenge4.domain.StatusPedidoEnum;
 import com.fiap.techchallenge4.infrastructure.cliente.client.ClienteClient;
 import com.fiap.techchallenge4.infrastructure.cliente.client.response.ClienteDTO;
 import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaPedidoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.EventoStatusPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraAposEscrita;
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraNoPrimario;
+import com.fiap.techchallenge4.infrastructure.estatisticas.ContadoresStatusPedido;
+import com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido;
 import com.fiap.techchallenge4.infrastructure.model.PedidoEntity;
+import com.fiap.techchallenge4.infrastructure.model.PedidoStatusEventoEntity;
+import com.fiap.techchallenge4.infrastructure.outbox.OutboxEventos;
 import com.fiap.techchallenge4.infrastructure.produto.client.ProdutoClient;
 import com.fiap.techchallenge4.infrastructure.repository.PedidoRepository;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ServicoIndisponivelException;
 import com.fiap.techchallenge4.useCase.impl.PedidoUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 
 public class PedidoUseCaseTest {
 
+    private ExecutorService executorConsulta;
+
+    @BeforeEach
+    public void criaExecutorConsulta() {
+        this.executorConsulta = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void encerraExecutorConsulta() {
+        this.executorConsulta.shutdownNow();
+    }
+
     @Test
     public void cria_salvaNaBaseDeDados() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -62,10 +101,7 @@ public class PedidoUseCaseTest {
         Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(true);
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
-                .thenReturn(true);
-
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
         boolean cria = service.cria(
@@ -78,18 +114,19 @@ public class PedidoUseCaseTest {
 
         // avaliação
         verify(repository, times(1)).save(Mockito.any());
-        verify(streamBridge, times(2)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(2)).registra(Mockito.any(), Mockito.any());
 
         Assertions.assertTrue(cria);
     }
 
     @Test
-    public void cria_naoSalvaNaBaseDeDados_clienteNaoEncontrado() {
+    public void cria_registraTempoPorEtapaEResultado() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
+        var registry = new SimpleMeterRegistry();
 
         Mockito.when(repository.save(Mockito.any()))
                 .thenReturn(
@@ -102,17 +139,177 @@ public class PedidoUseCaseTest {
                                 LocalDateTime.now()
                         )
                 );
-
         Mockito.when(clientCliente.pegaCliente(Mockito.any()))
                 .thenReturn(null);
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(registry), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        service.cria(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(new ClienteDTO("71622958004", "teste", "teste", 100, "SP", LocalDateTime.now()));
+        service.cria(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                service.cria(new CriaPedidoDTO(7894900011517L, "teste", 100L))
+        );
+
+        // avaliação
+        Assertions.assertEquals(2, registry.get(MetricasPedido.TIMER_ETAPA).tag("operacao", "cria").tag("etapa", "consulta-cliente").timer().count());
+        Assertions.assertEquals(1, registry.get(MetricasPedido.TIMER_ETAPA).tag("operacao", "cria").tag("etapa", "consulta-estoque").timer().count());
+        Assertions.assertEquals(1, registry.get(MetricasPedido.TIMER_ETAPA).tag("operacao", "cria").tag("etapa", "gravacao").timer().count());
+        Assertions.assertEquals(2, registry.get(MetricasPedido.TIMER_ETAPA).tag("operacao", "cria").tag("etapa", "total").timer().count());
+        Assertions.assertEquals(1.0, registry.get(MetricasPedido.CONTADOR_RESULTADO).tag("operacao", "cria").tag("resultado", "sucesso").counter().count());
+        Assertions.assertEquals(1.0, registry.get(MetricasPedido.CONTADOR_RESULTADO).tag("operacao", "cria").tag("resultado", "conflito").counter().count());
+        Assertions.assertEquals(1.0, registry.get(MetricasPedido.CONTADOR_RESULTADO).tag("operacao", "cria").tag("resultado", "invalido").counter().count());
+    }
+
+    @Test
+    public void cria_erroNaConsulta_contaComoErro() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var registry = new SimpleMeterRegistry();
+
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenThrow(new RuntimeException("API CLIENTE INDISPONIVEL!"));
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(registry), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var cria = service.cria(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+
+        // avaliação
+        Assertions.assertFalse(cria);
+        Assertions.assertEquals(1.0, registry.get(MetricasPedido.CONTADOR_RESULTADO).tag("operacao", "cria").tag("resultado", "erro").counter().count());
+        Assertions.assertEquals(1, registry.get(MetricasPedido.TIMER_ETAPA).tag("operacao", "cria").tag("etapa", "consulta-cliente").timer().count());
+    }
+
+    @Test
+    public void criaComResultado_separaFalhaDaRecusa() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var repository = Mockito.mock(PedidoRepository.class);
 
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenThrow(new RuntimeException("API CLIENTE INDISPONIVEL!"));
+        Mockito.when(clientCliente.pegaCliente("11144477735"))
+                .thenReturn(null);
         Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(true);
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var falhou = service.criaComResultado(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+        var recusado = service.criaComResultado(new CriaPedidoDTO(7894900011517L, "11144477735", 100L));
+
+        // avaliação
+        Assertions.assertEquals(ResultadoCriacaoEnum.FALHOU, falhou);
+        Assertions.assertEquals(ResultadoCriacaoEnum.RECUSADO, recusado);
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void cria_servicoIndisponivel_propagaSemGravar(boolean paralela) {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var registry = new SimpleMeterRegistry();
+
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(new ClienteDTO("71622958004", "teste", "teste", 100, "SP", LocalDateTime.now()));
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenThrow(new ServicoIndisponivelException("produto", null));
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(registry), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, paralela, 1000);
+
+        // execução
+        var excecao = Assertions.assertThrows(
+                ServicoIndisponivelException.class,
+                () -> service.cria(new CriaPedidoDTO(7894900011517L, "71622958004", 100L))
+        );
+
+        // avaliação
+        Assertions.assertEquals("SERVICO DE PRODUTO INDISPONIVEL!", excecao.getMessage());
+        Assertions.assertEquals(1.0, registry.get(MetricasPedido.CONTADOR_RESULTADO).tag("operacao", "cria").tag("resultado", "indisponivel").counter().count());
+        verify(repository, times(0)).save(Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void cria_executorDeConsultaCheio_respondeIndisponivelECancelaConsultaJaSubmetida() throws Exception {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var registry = new SimpleMeterRegistry();
+
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(5000);
+                    return null;
+                });
+
+        // uma thread e nenhuma fila: a consulta de cliente ocupa o executor e a de estoque e recusada
+        var executorCheio = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), executorCheio, Runnable::run, new MetricasPedido(registry), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        try {
+            // execução
+            var excecao = Assertions.assertThrows(
+                    ServicoIndisponivelException.class,
+                    () -> service.cria(new CriaPedidoDTO(7894900011517L, "71622958004", 100L))
+            );
+
+            // avaliação
+            Assertions.assertInstanceOf(RejectedExecutionException.class, excecao.getCause());
+            executorCheio.shutdown();
+            Assertions.assertTrue(executorCheio.awaitTermination(1, TimeUnit.SECONDS));
+            Assertions.assertEquals(1.0, registry.get(MetricasPedido.CONTADOR_RESULTADO).tag("operacao", "cria").tag("resultado", "indisponivel").counter().count());
+            verify(clientProduto, times(0)).temEstoque(Mockito.any(), Mockito.any());
+            verify(repository, times(0)).save(Mockito.any());
+        } finally {
+            executorCheio.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cria_naoSalvaNaBaseDeDados_clienteNaoEncontrado() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(
+                        new PedidoEntity(
+                                1L,
+                                "71622958004",
+                                7894900011517L,
+                                100L,
+                                StatusPedidoEnum.CRIADO,
+                                LocalDateTime.now()
+                        )
+                );
+
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(null);
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(true);
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
         boolean cria = service.cria(
@@ -125,7 +322,7 @@ public class PedidoUseCaseTest {
 
         // avaliação
         verify(repository, times(0)).save(Mockito.any());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
 
         Assertions.assertFalse(cria);
     }
@@ -135,7 +332,7 @@ public class PedidoUseCaseTest {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -165,10 +362,7 @@ public class PedidoUseCaseTest {
         Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(false);
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
-                .thenReturn(true);
-
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
         boolean cria = service.cria(
@@ -181,7 +375,7 @@ public class PedidoUseCaseTest {
 
         // avaliação
         verify(repository, times(0)).save(Mockito.any());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
 
         Assertions.assertFalse(cria);
     }
@@ -191,7 +385,7 @@ public class PedidoUseCaseTest {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -221,10 +415,7 @@ public class PedidoUseCaseTest {
         Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(null);
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
-                .thenReturn(true);
-
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
         boolean cria = service.cria(
@@ -237,17 +428,17 @@ public class PedidoUseCaseTest {
 
         // avaliação
         verify(repository, times(0)).save(Mockito.any());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
 
         Assertions.assertFalse(cria);
     }
 
     @Test
-    public void cancela_salvaNaBaseDeDados() {
+    public void cria_salvaNaBaseDeDados_consultasSequenciais() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -261,98 +452,136 @@ public class PedidoUseCaseTest {
                                 LocalDateTime.now()
                         )
                 );
-        Mockito.when(repository.findByIdAndStatusPedido(Mockito.any(), Mockito.any()))
+
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
                 .thenReturn(
-                        Optional.of(
-                                new PedidoEntity(
-                                        1L,
-                                        "71622958004",
-                                        7894900011517L,
-                                        100L,
-                                        StatusPedidoEnum.CRIADO,
-                                        LocalDateTime.now()
-                                )
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
                         )
                 );
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(true);
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
 
         // execução
-        boolean cria = service.cancela(1L);
+        boolean cria = service.cria(
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "71622958004",
+                        100L
+                )
+        );
 
         // avaliação
-        verify(repository, times(1)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
         verify(repository, times(1)).save(Mockito.any());
-        verify(streamBridge, times(2)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(2)).registra(Mockito.any(), Mockito.any());
 
         Assertions.assertTrue(cria);
     }
 
     @Test
-    public void cancela_naoSalvaNaBaseDeDados_statusPedidoDiferenteDeCriadoOuPedidoNaoEncontrado() {
+    public void cria_naoSalvaNaBaseDeDados_clienteNaoEncontradoEncerraConsultaDeEstoque() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
-        Mockito.when(repository.save(Mockito.any()))
-                .thenReturn(
-                        new PedidoEntity(
-                                1L,
-                                "71622958004",
-                                7894900011517L,
-                                100L,
-                                StatusPedidoEnum.EM_TRANSPORTE,
-                                LocalDateTime.now()
-                        )
-                );
-        Mockito.when(repository.findByIdAndStatusPedido(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        Optional.empty()
-                );
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(null);
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
-                .thenReturn(true);
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(5000);
+                    return true;
+                });
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 3000L, true, 1000);
 
         // execução
-        boolean cria = service.cancela(1L);
+        var inicio = System.currentTimeMillis();
+        boolean cria = service.cria(
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "71622958004",
+                        100L
+                )
+        );
+        var duracao = System.currentTimeMillis() - inicio;
 
         // avaliação
-        verify(repository, times(1)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
         verify(repository, times(0)).save(Mockito.any());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
 
         Assertions.assertFalse(cria);
+        Assertions.assertTrue(duracao < 3000);
+        // a consulta de estoque foi cancelada (antes de comecar ou no meio do sleep): o executor esvazia na hora
+        this.executorConsulta.shutdown();
+        Assertions.assertDoesNotThrow(() -> Assertions.assertTrue(this.executorConsulta.awaitTermination(1, TimeUnit.SECONDS)));
     }
 
     @Test
-    public void atualiza_EMTRANSPORTE_salvaNaBaseDeDados() {
+    public void cria_naoSalvaNaBaseDeDados_consultasExcedemTempoLimite() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
-        Mockito.when(repository.save(Mockito.any()))
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
                 .thenReturn(
-                        new PedidoEntity(
-                                1L,
+                        new ClienteDTO(
                                 "71622958004",
-                                7894900011517L,
-                                100L,
-                                StatusPedidoEnum.CRIADO,
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
                                 LocalDateTime.now()
                         )
                 );
-        Mockito.when(repository.findByIdAndStatusPedido(Mockito.any(), Mockito.any()))
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(2000);
+                    return true;
+                });
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 200L, true, 1000);
+
+        // execução
+        boolean cria = service.cria(
+                new CriaPedidoDTO(
+                        7894900011517L,
+                        "71622958004",
+                        100L
+                )
+        );
+
+        // avaliação
+        verify(repository, times(0)).save(Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
+
+        Assertions.assertFalse(cria);
+    }
+
+    @Test
+    public void criaLote_salvaSomenteLinhasAceitas_consultandoCadaClienteUmaVez() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.saveAll(Mockito.anyList()))
                 .thenReturn(
-                        Optional.of(
+                        List.of(
                                 new PedidoEntity(
                                         1L,
                                         "71622958004",
@@ -360,121 +589,331 @@ public class PedidoUseCaseTest {
                                         100L,
                                         StatusPedidoEnum.CRIADO,
                                         LocalDateTime.now()
+                                ),
+                                new PedidoEntity(
+                                        2L,
+                                        "71622958004",
+                                        7894900011524L,
+                                        5L,
+                                        StatusPedidoEnum.CRIADO,
+                                        LocalDateTime.now()
                                 )
                         )
                 );
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenReturn(
+                        new ClienteDTO(
+                                "71622958004",
+                                "teste",
+                                "teste",
+                                100,
+                                "SP",
+                                LocalDateTime.now()
+                        )
+                );
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+        Mockito.when(clientProduto.temEstoque(7894900011531L, 1L))
+                .thenReturn(false);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
-        service.atualiza(
-                new AtualizaPedidoDTO(
-                        1L,
-                        StatusAtualizaPedidoEnum.EM_TRANSPORTE
+        var resultados = service.criaLote(
+                List.of(
+                        new CriaPedidoDTO(7894900011517L, "71622958004", 100L),
+                        new CriaPedidoDTO(7894900011517L, "teste", 100L),
+                        new CriaPedidoDTO(7894900011524L, "71622958004", 5L),
+                        new CriaPedidoDTO(7894900011531L, "71622958004", 1L)
                 )
         );
 
         // avaliação
-        verify(repository, times(1)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
-        verify(repository, times(1)).save(Mockito.any());
-        verifyNoInteractions(streamBridge);
+        verify(clientCliente, times(1)).pegaCliente("71622958004");
+        verify(repository, times(1)).saveAll(Mockito.argThat(pedidos -> ((List<?>) pedidos).size() == 2));
+        verify(outbox, times(4)).registra(Mockito.any(), Mockito.any());
+
+        Assertions.assertEquals(4, resultados.size());
+        Assertions.assertEquals(StatusLotePedidoEnum.CRIADO, resultados.get(0).status());
+        Assertions.assertEquals(1L, resultados.get(0).idDoPedido());
+        Assertions.assertEquals(StatusLotePedidoEnum.INVALIDO, resultados.get(1).status());
+        Assertions.assertEquals(StatusLotePedidoEnum.CRIADO, resultados.get(2).status());
+        Assertions.assertEquals(2L, resultados.get(2).idDoPedido());
+        Assertions.assertEquals(StatusLotePedidoEnum.SEM_ESTOQUE, resultados.get(3).status());
     }
 
     @Test
-    public void atualiza_EMTRANSPORTE_naoSalvaNaBaseDeDados_statusPedidoDiferenteDeCriadoOuPedidoNaoEncontrado() {
+    public void criaLote_linhasDoMesmoEanAcimaDoEstoque_recusaSemEstoque() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
-        Mockito.when(repository.save(Mockito.any()))
-                .thenReturn(
-                        new PedidoEntity(
-                                1L,
-                                "71622958004",
-                                7894900011517L,
-                                100L,
-                                StatusPedidoEnum.EM_TRANSPORTE,
-                                LocalDateTime.now()
-                        )
-                );
-        Mockito.when(repository.findByIdAndStatusPedido(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        Optional.empty()
-                );
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenReturn(new ClienteDTO("71622958004", "teste", "teste", 100, "SP", LocalDateTime.now()));
+        // estoque de 100: cada linha sozinha cabe, as duas juntas nao
+        Mockito.when(clientProduto.temEstoque(Mockito.eq(7894900011517L), Mockito.anyLong()))
+                .thenAnswer(invocacao -> (Long) invocacao.getArgument(1) <= 100L);
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
-        service.atualiza(
-                new AtualizaPedidoDTO(
-                        1L,
-                        StatusAtualizaPedidoEnum.EM_TRANSPORTE
+        var resultados = service.criaLote(
+                List.of(
+                        new CriaPedidoDTO(7894900011517L, "71622958004", 60L),
+                        new CriaPedidoDTO(7894900011517L, "71622958004", 60L)
                 )
         );
 
         // avaliação
-        verify(repository, times(1)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
-        verify(repository, times(0)).save(Mockito.any());
-        verifyNoInteractions(streamBridge);
+        verify(clientProduto, times(1)).temEstoque(7894900011517L, 120L);
+        verify(repository, times(0)).saveAll(Mockito.anyList());
+        verifyNoInteractions(outbox);
+        Assertions.assertEquals(StatusLotePedidoEnum.SEM_ESTOQUE, resultados.get(0).status());
+        Assertions.assertEquals(StatusLotePedidoEnum.SEM_ESTOQUE, resultados.get(1).status());
     }
 
     @Test
-    public void atualiza_ENTREGUE_salvaNaBaseDeDados() {
+    public void criaLote_clienteNaoEncontrado_naoSalvaNaBaseDeDados() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
-        Mockito.when(repository.save(Mockito.any()))
-                .thenReturn(
-                        new PedidoEntity(
-                                1L,
-                                "71622958004",
-                                7894900011517L,
-                                100L,
-                                StatusPedidoEnum.CRIADO,
-                                LocalDateTime.now()
-                        )
-                );
-        Mockito.when(repository.findByIdAndStatusPedido(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        Optional.of(
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(null);
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        var resultados = service.criaLote(
+                List.of(
+                        new CriaPedidoDTO(7894900011517L, "71622958004", 100L)
+                )
+        );
+
+        // avaliação
+        verify(repository, times(0)).saveAll(Mockito.any());
+        verifyNoInteractions(outbox);
+
+        Assertions.assertEquals(StatusLotePedidoEnum.CLIENTE_NAO_ENCONTRADO, resultados.get(0).status());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {
+            0,
+            3
+    })
+    public void criaLote_tamanhoDoLoteInvalido(int quantidadeDeLinhas) {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 2);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            service.criaLote(
+                    Stream.generate(() -> new CriaPedidoDTO(7894900011517L, "71622958004", 100L))
+                            .limit(quantidadeDeLinhas)
+                            .toList()
+            );
+        });
+        verifyNoInteractions(clientCliente);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void cancela_salvaNaBaseDeDados() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(
+                        new PedidoEntity(
+                                1L,
+                                "71622958004",
+                                7894900011517L,
+                                100L,
+                                StatusPedidoEnum.CRIADO,
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(repository.transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.of(
+                                new PedidoEntity(
+                                        1L,
+                                        "71622958004",
+                                        7894900011517L,
+                                        100L,
+                                        StatusPedidoEnum.CRIADO,
+                                        LocalDateTime.now()
+                                )
+                        )
+                );
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        boolean cria = service.cancela(1L);
+
+        // avaliação
+        verify(repository, times(1)).transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(repository, times(0)).save(Mockito.any());
+        verify(outbox, times(2)).registra(Mockito.any(), Mockito.any());
+
+        Assertions.assertTrue(cria);
+    }
+
+    @Test
+    public void cancela_naoSalvaNaBaseDeDados_statusPedidoDiferenteDeCriadoOuPedidoNaoEncontrado() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(
+                        new PedidoEntity(
+                                1L,
+                                "71622958004",
+                                7894900011517L,
+                                100L,
+                                StatusPedidoEnum.EM_TRANSPORTE,
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(repository.transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.empty()
+                );
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        boolean cria = service.cancela(1L);
+
+        // avaliação
+        verify(repository, times(1)).transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(repository, times(0)).save(Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
+
+        Assertions.assertFalse(cria);
+    }
+
+    @Test
+    public void cancela_atualizaContadoresDeStatusDepoisDoCommit() {
+        // preparação
+        var repository = Mockito.mock(PedidoRepository.class);
+        var contadores = new ContadoresStatusPedido();
+
+        Mockito.when(repository.transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.of(
                                 new PedidoEntity(
                                         1L,
                                         "71622958004",
                                         7894900011517L,
                                         100L,
-                                        StatusPedidoEnum.EM_TRANSPORTE,
+                                        StatusPedidoEnum.CANCELADO,
                                         LocalDateTime.now()
                                 )
                         )
                 );
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(Mockito.mock(ProdutoClient.class), Mockito.mock(ClienteClient.class), Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), contadores, 1000L, true, 1000);
+
+        // execução
+        service.cancela(1L);
+        var estatisticas = service.estatisticas();
+
+        // avaliação
+        Assertions.assertEquals(-1L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.CRIADO));
+        Assertions.assertEquals(1L, estatisticas.quantidadePorStatus().get(StatusPedidoEnum.CANCELADO));
+        Assertions.assertEquals(0L, estatisticas.total());
+    }
+
+    @Test
+    public void atualizaLote_falhaNoCommit_naoAlteraContadoresDeStatus() {
+        // preparação
+        var repository = Mockito.mock(PedidoRepository.class);
+        var transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        var contadores = new ContadoresStatusPedido();
+
+        Mockito.when(repository.atualizaStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        Mockito.doThrow(new RuntimeException("falha no commit"))
+                .when(transactionManager).commit(Mockito.any());
+
+        var service = new PedidoUseCaseImpl(Mockito.mock(ProdutoClient.class), Mockito.mock(ClienteClient.class), Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(transactionManager), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), contadores, 1000L, true, 1000);
+
+        // execução
+        Assertions.assertThrows(RuntimeException.class, () -> service.atualizaLote(
+                List.of(new AtualizaPedidoDTO(1L, StatusAtualizaPedidoEnum.EM_TRANSPORTE))
+        ));
+
+        // avaliação
+        Assertions.assertTrue(contadores.drena().isEmpty());
+    }
+
+    @Test
+    public void atualiza_EMTRANSPORTE_salvaNaBaseDeDados() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(
+                        new PedidoEntity(
+                                1L,
+                                "71622958004",
+                                7894900011517L,
+                                100L,
+                                StatusPedidoEnum.CRIADO,
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(repository.atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
         service.atualiza(
                 new AtualizaPedidoDTO(
                         1L,
-                        StatusAtualizaPedidoEnum.ENTREGUE
+                        StatusAtualizaPedidoEnum.EM_TRANSPORTE
                 )
         );
 
         // avaliação
-        verify(repository, times(1)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
-        verify(repository, times(1)).save(Mockito.any());
-        verifyNoInteractions(streamBridge);
+        verify(repository, times(1)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(repository, times(0)).save(Mockito.any());
+        verifyNoInteractions(outbox);
     }
 
     @Test
-    public void atualiza_ENTREGUE_naoSalvaNaBaseDeDados_statusPedidoDiferenteDeEMTRANSPORTEOuPedidoNaoEncontrado() {
+    public void atualiza_EMTRANSPORTE_naoSalvaNaBaseDeDados_statusPedidoDiferenteDeCriadoOuPedidoNaoEncontrado() {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -488,12 +927,86 @@ public class PedidoUseCaseTest {
                                 LocalDateTime.now()
                         )
                 );
-        Mockito.when(repository.findByIdAndStatusPedido(Mockito.any(), Mockito.any()))
+        Mockito.when(repository.atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(0);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        service.atualiza(
+                new AtualizaPedidoDTO(
+                        1L,
+                        StatusAtualizaPedidoEnum.EM_TRANSPORTE
+                )
+        );
+
+        // avaliação
+        verify(repository, times(1)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(repository, times(0)).save(Mockito.any());
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    public void atualiza_ENTREGUE_salvaNaBaseDeDados() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(
+                        new PedidoEntity(
+                                1L,
+                                "71622958004",
+                                7894900011517L,
+                                100L,
+                                StatusPedidoEnum.CRIADO,
+                                LocalDateTime.now()
+                        )
+                );
+        Mockito.when(repository.atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        service.atualiza(
+                new AtualizaPedidoDTO(
+                        1L,
+                        StatusAtualizaPedidoEnum.ENTREGUE
+                )
+        );
+
+        // avaliação
+        verify(repository, times(1)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(repository, times(0)).save(Mockito.any());
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    public void atualiza_ENTREGUE_naoSalvaNaBaseDeDados_statusPedidoDiferenteDeEMTRANSPORTEOuPedidoNaoEncontrado() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        new PedidoEntity(
+                                1L,
+                                "71622958004",
+                                7894900011517L,
+                                100L,
+                                StatusPedidoEnum.EM_TRANSPORTE,
+                                LocalDateTime.now()
+                        )
                 );
+        Mockito.when(repository.atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(0);
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução
         service.atualiza(
@@ -504,9 +1017,159 @@ public class PedidoUseCaseTest {
         );
 
         // avaliação
-        verify(repository, times(1)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
+        verify(repository, times(1)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
         verify(repository, times(0)).save(Mockito.any());
-        verifyNoInteractions(streamBridge);
+        verifyNoInteractions(outbox);
+    }
+
+
+    @Test
+    public void atualizaLote_agrupaPorStatus_umUpdatePorStatusNaMesmaTransacao() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var transactionManager = Mockito.mock(PlatformTransactionManager.class);
+
+        Mockito.when(repository.atualizaStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(2);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(transactionManager), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        var validos = service.atualizaLote(
+                List.of(
+                        new AtualizaPedidoDTO(1L, StatusAtualizaPedidoEnum.ENTREGUE),
+                        new AtualizaPedidoDTO(2L, StatusAtualizaPedidoEnum.EM_TRANSPORTE),
+                        new AtualizaPedidoDTO(3L, StatusAtualizaPedidoEnum.EM_TRANSPORTE),
+                        new AtualizaPedidoDTO(4L, StatusAtualizaPedidoEnum.ENTREGUE)
+                )
+        );
+
+        // avaliação
+        var ordem = inOrder(repository);
+        ordem.verify(repository, times(1)).atualizaStatusEmLote(Set.of(2L, 3L), StatusPedidoEnum.CRIADO, StatusPedidoEnum.EM_TRANSPORTE);
+        ordem.verify(repository, times(1)).atualizaStatusEmLote(Set.of(1L, 4L), StatusPedidoEnum.EM_TRANSPORTE, StatusPedidoEnum.ENTREGUE);
+        verify(repository, times(0)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(transactionManager, times(1)).getTransaction(Mockito.any());
+        verifyNoInteractions(outbox);
+
+        Assertions.assertEquals(List.of(true, true, true, true), validos);
+    }
+
+    @Test
+    public void atualizaLote_eventosInvalidos_marcadosComoInvalidosEDemaisAtualizados() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.atualizaStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        var validos = service.atualizaLote(
+                Arrays.asList(
+                        new AtualizaPedidoDTO(-1L, StatusAtualizaPedidoEnum.ENTREGUE),
+                        new AtualizaPedidoDTO(2L, StatusAtualizaPedidoEnum.EM_TRANSPORTE),
+                        new AtualizaPedidoDTO(3L, null),
+                        null
+                )
+        );
+
+        // avaliação
+        verify(repository, times(1)).atualizaStatusEmLote(Set.of(2L), StatusPedidoEnum.CRIADO, StatusPedidoEnum.EM_TRANSPORTE);
+        verifyNoMoreInteractions(repository);
+
+        Assertions.assertEquals(List.of(false, true, false, false), validos);
+    }
+
+
+    @Test
+    public void listaPorCliente_primeiraPagina_retornaCursorDoUltimoPedido() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        var agora = LocalDateTime.now();
+        Mockito.when(repository.buscaPorCliente("71622958004", 3))
+                .thenReturn(
+                        List.of(
+                                new PedidoEntity(3L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.CRIADO, agora),
+                                new PedidoEntity(2L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.CRIADO, agora.minusMinutes(1)),
+                                new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.CRIADO, agora.minusMinutes(2))
+                        )
+                );
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        var pagina = service.listaPorCliente("71622958004", null, 2);
+
+        // avaliação
+        Assertions.assertEquals(2, pagina.pedidos().size());
+        Assertions.assertEquals(3L, pagina.pedidos().get(0).idDoPedido());
+        Assertions.assertEquals(2L, pagina.pedidos().get(1).idDoPedido());
+
+        var cursor = CursorPedido.decodifica(pagina.proximoCursor());
+        Assertions.assertEquals(2L, cursor.getId());
+        Assertions.assertEquals(agora.minusMinutes(1), cursor.getDataDeCriacao());
+    }
+
+    @Test
+    public void listaPorCliente_comCursor_buscaAposAPosicaoESemProximaPagina() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        var dataDoCursor = LocalDateTime.of(2024, 3, 10, 12, 30, 15, 123456000);
+        Mockito.when(repository.buscaPorClienteApos("71622958004", dataDoCursor, 2L, 3))
+                .thenReturn(
+                        List.of(
+                                new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.CRIADO, dataDoCursor.minusMinutes(1))
+                        )
+                );
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução
+        var pagina = service.listaPorCliente("71622958004", new CursorPedido(dataDoCursor, 2L).codifica(), 2);
+
+        // avaliação
+        verify(repository, times(0)).buscaPorCliente(Mockito.any(), Mockito.anyInt());
+        Assertions.assertEquals(1, pagina.pedidos().size());
+        Assertions.assertNull(pagina.proximoCursor());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "nao-e-base64!",
+            "MjAyNC0wMy0xMA"
+    })
+    public void listaPorCliente_cursorInvalido_naoBuscaNaBaseDeDados(String cursor) {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
+
+        // execução e avaliação
+        var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            service.listaPorCliente("71622958004", cursor, 20);
+        });
+        Assertions.assertEquals("CURSOR INVALIDO!", excecao.getMessage());
+        verifyNoInteractions(repository);
     }
 
 
@@ -518,7 +1181,7 @@ public class PedidoUseCaseTest {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -548,10 +1211,7 @@ public class PedidoUseCaseTest {
         Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
                 .thenReturn(true);
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
-                .thenReturn(true);
-
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -564,7 +1224,7 @@ public class PedidoUseCaseTest {
             );
         });
         verify(repository, times(0)).save(Mockito.any());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
     }
 
     @ParameterizedTest
@@ -577,7 +1237,7 @@ public class PedidoUseCaseTest {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -592,10 +1252,7 @@ public class PedidoUseCaseTest {
                         )
                 );
 
-        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
-                .thenReturn(true);
-
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -603,9 +1260,9 @@ public class PedidoUseCaseTest {
                     idPedido == -1000 ? null : idPedido
             );
         });
-        verify(repository, times(0)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
+        verify(repository, times(0)).transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any());
         verify(repository, times(0)).save(Mockito.any());
-        verify(streamBridge, times(0)).send(Mockito.any(), Mockito.any());
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
     }
 
     @ParameterizedTest
@@ -618,7 +1275,7 @@ public class PedidoUseCaseTest {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -633,7 +1290,7 @@ public class PedidoUseCaseTest {
                         )
                 );
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -644,9 +1301,9 @@ public class PedidoUseCaseTest {
                     )
             );
         });
-        verify(repository, times(0)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
+        verify(repository, times(0)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
         verify(repository, times(0)).save(Mockito.any());
-        verifyNoInteractions(streamBridge);
+        verifyNoInteractions(outbox);
     }
 
     @ParameterizedTest
@@ -659,7 +1316,7 @@ public class PedidoUseCaseTest {
         // preparação
         var clientProduto = Mockito.mock(ProdutoClient.class);
         var clientCliente = Mockito.mock(ClienteClient.class);
-        var streamBridge = Mockito.mock(StreamBridge.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
         var repository = Mockito.mock(PedidoRepository.class);
 
         Mockito.when(repository.save(Mockito.any()))
@@ -674,7 +1331,7 @@ public class PedidoUseCaseTest {
                         )
                 );
 
-        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, streamBridge, repository);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, true, 1000);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -685,9 +1342,9 @@ public class PedidoUseCaseTest {
                     )
             );
         });
-        verify(repository, times(0)).findByIdAndStatusPedido(Mockito.any(), Mockito.any());
+        verify(repository, times(0)).atualizaStatus(Mockito.any(), Mockito.any(), Mockito.any());
         verify(repository, times(0)).save(Mockito.any());
-        verifyNoInteractions(streamBridge);
+        verifyNoInteractions(outbox);
     }
 
 
@@ -702,6 +1359,9 @@ public class PedidoUseCaseTest {
                 Arguments.of(123456789L, "teste", 100L),
                 Arguments.of(123456789L, "1234567891", 100L),
                 Arguments.of(123456789L, "123456789123", 100L),
+                Arguments.of(123456789L, "12345678901", 100L),
+                Arguments.of(123456789L, "11111111111", 100L),
+                Arguments.of(123456789L, "716.229.58004-", 100L),
                 Arguments.of(123456789L, "71622958004", null),
                 Arguments.of(123456789L, "71622958004", -1L),
                 Arguments.of(123456789L, "71622958004", 0L),
@@ -709,4 +1369,273 @@ public class PedidoUseCaseTest {
         );
     }
 
+    @Test
+    public void aceita_gravaPendenteEProcessaNoExecutorDeAceite() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var pedido = new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.PENDENTE, LocalDateTime.now());
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(pedido);
+        Mockito.when(repository.transicionaStatus(1L, StatusPedidoEnum.PENDENTE, StatusPedidoEnum.CRIADO))
+                .thenReturn(Optional.of(pedido));
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(new ClienteDTO("71622958004", "teste", "teste", 100, "SP", LocalDateTime.now()));
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var idPedido = service.aceita(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+
+        // avaliação
+        Assertions.assertEquals(1L, idPedido);
+        verify(repository, times(1)).save(Mockito.<PedidoEntity>argThat(salvo -> StatusPedidoEnum.PENDENTE.equals(salvo.getStatusPedido())));
+        verify(repository, times(1)).transicionaStatus(1L, StatusPedidoEnum.PENDENTE, StatusPedidoEnum.CRIADO);
+        verify(outbox, times(2)).registra(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void aceita_clienteNaoExiste_recusaSemPublicarEventos() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var pedido = new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.PENDENTE, LocalDateTime.now());
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(pedido);
+        Mockito.when(repository.transicionaStatus(1L, StatusPedidoEnum.PENDENTE, StatusPedidoEnum.RECUSADO))
+                .thenReturn(Optional.of(pedido));
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(null);
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        service.aceita(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+
+        // avaliação
+        verify(repository, times(1)).transicionaStatus(1L, StatusPedidoEnum.PENDENTE, StatusPedidoEnum.RECUSADO);
+        verify(outbox, times(0)).registra(Mockito.any(), Mockito.any());
+    }
+
+    @ParameterizedTest
+    @MethodSource("falhasDeInfraestrutura")
+    public void aceita_falhaNaConsultaDoCliente_deixaOPedidoPendente(final RuntimeException falha) {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.PENDENTE, LocalDateTime.now()));
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenThrow(falha);
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var contadores = new ContadoresStatusPedido();
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), contadores, 1000L, false, 1000);
+
+        // execução
+        var idPedido = service.aceita(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+
+        // avaliação
+        Assertions.assertEquals(1L, idPedido);
+        verify(repository, times(0)).transicionaStatus(Mockito.any(), Mockito.any(), Mockito.any());
+        verifyNoInteractions(outbox);
+        Assertions.assertEquals(Map.of(StatusPedidoEnum.PENDENTE, 1L), contadores.drena());
+    }
+
+    private static Stream<Arguments> falhasDeInfraestrutura() {
+        return Stream.of(
+                Arguments.of(new ServicoIndisponivelException("cliente", null)),
+                Arguments.of(new IllegalStateException("falha na consulta"))
+        );
+    }
+
+    @Test
+    public void aceita_filaCheia_removePendenteERespondeIndisponivel() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.PENDENTE, LocalDateTime.now()));
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, tarefa -> {
+            throw new RejectedExecutionException("fila cheia");
+        }, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        Assertions.assertThrows(ServicoIndisponivelException.class, () ->
+                service.aceita(new CriaPedidoDTO(7894900011517L, "71622958004", 100L))
+        );
+
+        // avaliação
+        verify(repository, times(1)).removePorId(1L);
+        verifyNoInteractions(clientCliente, clientProduto, outbox);
+    }
+
+    @Test
+    public void aceita_dadosInvalidos_naoGravaPendente() {
+        // preparação
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        var service = new PedidoUseCaseImpl(Mockito.mock(ProdutoClient.class), Mockito.mock(ClienteClient.class), Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                service.aceita(new CriaPedidoDTO(7894900011517L, "teste", 100L))
+        );
+
+        // avaliação
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void reprocessaPendentes_enfileiraDeNovoOsPedidosSemResultado() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var outbox = Mockito.mock(OutboxEventos.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+        var pendente = new PedidoEntity(7L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.PENDENTE, LocalDateTime.now().minusMinutes(5));
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.eq(100)))
+                .thenReturn(List.of(pendente));
+        Mockito.when(repository.transicionaStatus(7L, StatusPedidoEnum.PENDENTE, StatusPedidoEnum.CRIADO))
+                .thenReturn(Optional.of(pendente));
+        Mockito.when(clientCliente.pegaCliente(Mockito.any()))
+                .thenReturn(new ClienteDTO("71622958004", "teste", "teste", 100, "SP", LocalDateTime.now()));
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, outbox, repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var reenfileirados = service.reprocessaPendentes(LocalDateTime.now().minusMinutes(1), 100);
+
+        // avaliação
+        Assertions.assertEquals(1, reenfileirados);
+        verify(repository, times(1)).transicionaStatus(7L, StatusPedidoEnum.PENDENTE, StatusPedidoEnum.CRIADO);
+        verify(outbox, times(2)).registra(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void consultaStatus_pedidoNaoExiste_retornaVazio() {
+        // preparação
+        var repository = Mockito.mock(PedidoRepository.class);
+        Mockito.when(repository.buscaPorId(1L))
+                .thenReturn(Optional.empty());
+
+        var service = new PedidoUseCaseImpl(Mockito.mock(ProdutoClient.class), Mockito.mock(ClienteClient.class), Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var status = service.consultaStatus(1L);
+
+        // avaliação
+        Assertions.assertTrue(status.isEmpty());
+    }
+
+    @Test
+    public void consultaStatusEHistorico_pedidoRecemAceito_leemDoPrimario() {
+        // preparação
+        var repository = Mockito.mock(PedidoRepository.class);
+        var pendente = new PedidoEntity(1L, "71622958004", 7894900011517L, 100L, StatusPedidoEnum.PENDENTE, LocalDateTime.now());
+        var leiturasNoPrimario = new ArrayList<Boolean>();
+
+        Mockito.when(repository.save(Mockito.any()))
+                .thenReturn(pendente);
+        Mockito.when(repository.buscaPorId(Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    leiturasNoPrimario.add(LeituraNoPrimario.ativa());
+                    return Optional.of(pendente);
+                });
+        Mockito.when(repository.buscaHistorico(Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    leiturasNoPrimario.add(LeituraNoPrimario.ativa());
+                    return List.of();
+                });
+
+        var service = new PedidoUseCaseImpl(Mockito.mock(ProdutoClient.class), Mockito.mock(ClienteClient.class), Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, tarefa -> {}, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var idPedido = service.aceita(new CriaPedidoDTO(7894900011517L, "71622958004", 100L));
+        service.consultaStatus(idPedido);
+        service.historico(idPedido);
+        service.consultaStatus(2L);
+
+        // avaliação
+        Assertions.assertEquals(List.of(true, true, false), leiturasNoPrimario);
+    }
+
+    @Test
+    public void historico_retornaEventosNaOrdemDoJournal() {
+        // preparação
+        var repository = Mockito.mock(PedidoRepository.class);
+        var dataDeCriacao = LocalDateTime.now().minusMinutes(5);
+        Mockito.when(repository.buscaHistorico(1L))
+                .thenReturn(List.of(
+                        new PedidoStatusEventoEntity(10L, 1L, null, StatusPedidoEnum.CRIADO, dataDeCriacao),
+                        new PedidoStatusEventoEntity(11L, 1L, StatusPedidoEnum.CRIADO, StatusPedidoEnum.EM_TRANSPORTE, dataDeCriacao.plusMinutes(1))
+                ));
+
+        var service = new PedidoUseCaseImpl(Mockito.mock(ProdutoClient.class), Mockito.mock(ClienteClient.class), Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var historico = service.historico(1L);
+
+        // avaliação
+        Assertions.assertEquals(List.of(
+                new EventoStatusPedidoDTO(null, StatusPedidoEnum.CRIADO, dataDeCriacao),
+                new EventoStatusPedidoDTO(StatusPedidoEnum.CRIADO, StatusPedidoEnum.EM_TRANSPORTE, dataDeCriacao.plusMinutes(1))
+        ), historico);
+    }
+
+    @Test
+    public void cria_registraCriacaoNoHistoricoNaMesmaTransacao() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var clientCliente = Mockito.mock(ClienteClient.class);
+        var repository = Mockito.mock(PedidoRepository.class);
+
+        Mockito.when(clientCliente.pegaCliente("71622958004"))
+                .thenReturn(new ClienteDTO("71622958004", "teste", "teste", 100, "SP", LocalDateTime.now()));
+        Mockito.when(clientProduto.temEstoque(7894900011517L, 3L))
+                .thenReturn(true);
+        Mockito.when(repository.save(Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    PedidoEntity pedido = invocacao.getArgument(0);
+                    pedido.setId(1L);
+                    return pedido;
+                });
+
+        var transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        var service = new PedidoUseCaseImpl(clientProduto, clientCliente, Mockito.mock(OutboxEventos.class), repository, new TransactionTemplate(transactionManager), this.executorConsulta, Runnable::run, new MetricasPedido(new SimpleMeterRegistry()), new LeituraAposEscrita(Duration.ofSeconds(5)), new ContadoresStatusPedido(), 1000L, false, 1000);
+
+        // execução
+        var criou = service.cria(new CriaPedidoDTO(7894900011517L, "71622958004", 3L));
+
+        // avaliação
+        Assertions.assertTrue(criou);
+        var ordem = Mockito.inOrder(transactionManager, repository);
+        ordem.verify(transactionManager).getTransaction(Mockito.any());
+        ordem.verify(repository).save(Mockito.any());
+        ordem.verify(repository).registraCriacao(Mockito.argThat(pedidos -> pedidos.size() == 1
+                && pedidos.iterator().next().getStatusPedido() == StatusPedidoEnum.CRIADO));
+        ordem.verify(transactionManager).commit(Mockito.any());
+    }
+
 }
@@ -0,0 +1,120 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.produto.client.ProdutoClient;
+import com.fiap.techchallenge4.infrastructure.produto.client.ProdutoClientComEstoqueLocal;
+import com.fiap.techchallenge4.infrastructure.produto.client.response.EstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.produto.estoque.EstoqueLocal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class ProdutoClientComEstoqueLocalTest {
+
+    private static final String FUNCOES_COM_ESTOQUE_LOCAL = "atualiza;estoqueAlterado;estoqueRetiradoPorPedido";
+
+    @Test
+    public void temEstoque_comFolga_aprovaSemChamarAApiDeProduto() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var registry = new SimpleMeterRegistry();
+        var estoqueLocal = new EstoqueLocal(registry);
+
+        Mockito.when(clientProduto.listaEstoque())
+                .thenReturn(List.of(new EstoqueDTO(7894900011517L, 5000L)));
+
+        var client = new ProdutoClientComEstoqueLocal(clientProduto, estoqueLocal, registry, true, 1000L, FUNCOES_COM_ESTOQUE_LOCAL);
+        client.carregaEstoque();
+
+        // execução
+        var temEstoque = client.temEstoque(7894900011517L, 10L);
+
+        // avaliação
+        Assertions.assertTrue(temEstoque);
+        verify(clientProduto, times(0)).temEstoque(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(1.0, registry.get("pedido.estoque.local.decisao").tag("decisao", "local").counter().count());
+    }
+
+    @Test
+    public void temEstoque_pertoDoLimiteOuDesconhecido_consultaAApiDeProduto() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var registry = new SimpleMeterRegistry();
+        var estoqueLocal = new EstoqueLocal(registry);
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(false);
+
+        estoqueLocal.define(new EstoqueDTO(7894900011517L, 1500L));
+        estoqueLocal.aplica(7894900011517L, 400L, StatusEstoqueEnum.RETIRA_DO_ESTOQUE);
+        estoqueLocal.aplica(1234567890123L, 400L, StatusEstoqueEnum.VOLTA_PARA_O_ESTOQUE);
+
+        var client = new ProdutoClientComEstoqueLocal(clientProduto, estoqueLocal, registry, true, 1000L, FUNCOES_COM_ESTOQUE_LOCAL);
+
+        // execução
+        var pertoDoLimite = client.temEstoque(7894900011517L, 200L);
+        var desconhecido = client.temEstoque(1234567890123L, 1L);
+
+        // avaliação
+        Assertions.assertFalse(pertoDoLimite);
+        Assertions.assertFalse(desconhecido);
+        verify(clientProduto, times(1)).temEstoque(7894900011517L, 200L);
+        verify(clientProduto, times(1)).temEstoque(1234567890123L, 1L);
+        Assertions.assertEquals(2.0, registry.get("pedido.estoque.local.decisao").tag("decisao", "remota").counter().count());
+    }
+
+    @Test
+    public void temEstoque_desabilitado_sempreConsultaAApiDeProduto() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var registry = new SimpleMeterRegistry();
+        var estoqueLocal = new EstoqueLocal(registry);
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        estoqueLocal.define(new EstoqueDTO(7894900011517L, 5000L));
+
+        var client = new ProdutoClientComEstoqueLocal(clientProduto, estoqueLocal, registry, false, 1000L, FUNCOES_COM_ESTOQUE_LOCAL);
+        client.carregaEstoque();
+
+        // execução
+        var temEstoque = client.temEstoque(7894900011517L, 10L);
+
+        // avaliação
+        Assertions.assertTrue(temEstoque);
+        verify(clientProduto, times(1)).temEstoque(7894900011517L, 10L);
+        verify(clientProduto, times(0)).listaEstoque();
+    }
+
+    @Test
+    public void temEstoque_habilitadoSemOsConsumersDeEstoque_consultaAApiDeProduto() {
+        // preparação
+        var clientProduto = Mockito.mock(ProdutoClient.class);
+        var registry = new SimpleMeterRegistry();
+        var estoqueLocal = new EstoqueLocal(registry);
+
+        Mockito.when(clientProduto.temEstoque(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        estoqueLocal.define(new EstoqueDTO(7894900011517L, 5000L));
+
+        var client = new ProdutoClientComEstoqueLocal(clientProduto, estoqueLocal, registry, true, 1000L, "atualiza");
+        client.carregaEstoque();
+
+        // execução
+        var temEstoque = client.temEstoque(7894900011517L, 10L);
+
+        // avaliação
+        Assertions.assertTrue(temEstoque);
+        verify(clientProduto, times(1)).temEstoque(7894900011517L, 10L);
+        verify(clientProduto, times(0)).listaEstoque();
+        Assertions.assertEquals(0.0, registry.get("pedido.estoque.local.decisao").tag("decisao", "local").counter().count());
+    }
+
+}
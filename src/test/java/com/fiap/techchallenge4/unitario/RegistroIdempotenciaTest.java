@@ -0,0 +1,227 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.ResultadoCriacaoEnum;
+import com.fiap.techchallenge4.infrastructure.controller.dto.CriaPedidoDTO;
+import com.fiap.techchallenge4.infrastructure.idempotencia.IdempotenciaComOutroCorpoException;
+import com.fiap.techchallenge4.infrastructure.idempotencia.IdempotenciaEmAndamentoException;
+import com.fiap.techchallenge4.infrastructure.idempotencia.RegistroIdempotencia;
+import com.fiap.techchallenge4.infrastructure.model.IdempotenciaEntity;
+import com.fiap.techchallenge4.infrastructure.repository.IdempotenciaRepository;
+import com.fiap.techchallenge4.infrastructure.resiliencia.ServicoIndisponivelException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+public class RegistroIdempotenciaTest {
+
+    private static final CriaPedidoDTO CORPO = new CriaPedidoDTO(7894900011517L, "71622958004", 100L);
+
+    @Test
+    public void executa_repeticao_devolvePrimeiroResultadoSemExecutarDeNovo() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+        var execucoes = new AtomicInteger();
+
+        // execução
+        var primeira = registro.executa("chave-1", CORPO, () -> execucoes.incrementAndGet() == 1 ? ResultadoCriacaoEnum.CRIADO : ResultadoCriacaoEnum.RECUSADO);
+        var repeticao = registro.executa("chave-1", CORPO, () -> execucoes.incrementAndGet() == 1 ? ResultadoCriacaoEnum.CRIADO : ResultadoCriacaoEnum.RECUSADO);
+
+        // avaliação
+        Assertions.assertTrue(primeira);
+        Assertions.assertTrue(repeticao);
+        Assertions.assertEquals(1, execucoes.get());
+        verify(repository, times(1)).reserva(Mockito.eq("chave-1"), Mockito.any(), Mockito.any());
+        verify(repository, times(1)).registraResultado("chave-1", true);
+    }
+
+    @Test
+    public void executa_requisicoesConcorrentes_segundaEsperaAPrimeira() throws Exception {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 5000L);
+        var execucoes = new AtomicInteger();
+        var emAndamento = new CountDownLatch(1);
+        var libera = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+
+        var primeira = executor.submit(() -> registro.executa("chave-1", CORPO, () -> {
+            execucoes.incrementAndGet();
+            emAndamento.countDown();
+            try {
+                return libera.await(5, TimeUnit.SECONDS) ? ResultadoCriacaoEnum.CRIADO : ResultadoCriacaoEnum.RECUSADO;
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        emAndamento.await(5, TimeUnit.SECONDS);
+
+        // execução
+        var segunda = Executors.newSingleThreadExecutor().submit(() -> registro.executa("chave-1", CORPO, () -> {
+            execucoes.incrementAndGet();
+            return ResultadoCriacaoEnum.RECUSADO;
+        }));
+        libera.countDown();
+
+        // avaliação
+        Assertions.assertTrue(primeira.get());
+        Assertions.assertTrue(segunda.get());
+        Assertions.assertEquals(1, execucoes.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void executa_chaveReservadaPorOutraInstancia_devolveResultadoGravado() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+
+        Mockito.when(repository.reserva(Mockito.eq("chave-1"), Mockito.any(), Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("chave duplicada"));
+        Mockito.when(repository.findById("chave-1"))
+                .thenReturn(Optional.of(new IdempotenciaEntity("chave-1", null, false, LocalDateTime.now())));
+
+        // execução
+        var criou = registro.executa("chave-1", CORPO, () -> {
+            throw new IllegalStateException("nao deveria executar");
+        });
+
+        // avaliação
+        Assertions.assertFalse(criou);
+    }
+
+    @Test
+    public void executa_outraInstanciaAindaEmAndamento_lancaExcecaoAposAEspera() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 100L);
+
+        Mockito.when(repository.reserva(Mockito.eq("chave-1"), Mockito.any(), Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("chave duplicada"));
+        Mockito.when(repository.findById("chave-1"))
+                .thenReturn(Optional.of(new IdempotenciaEntity("chave-1", null, null, LocalDateTime.now())));
+
+        // execução
+        // avaliação
+        Assertions.assertThrows(
+                IdempotenciaEmAndamentoException.class,
+                () -> registro.executa("chave-1", CORPO, () -> ResultadoCriacaoEnum.CRIADO)
+        );
+    }
+
+    @Test
+    public void executa_repeticaoComOutroCorpo_recusaSemExecutar() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+        var execucoes = new AtomicInteger();
+        registro.executa("chave-1", CORPO, () -> execucoes.incrementAndGet() == 1 ? ResultadoCriacaoEnum.CRIADO : ResultadoCriacaoEnum.RECUSADO);
+
+        // execução
+        // avaliação
+        Assertions.assertThrows(
+                IdempotenciaComOutroCorpoException.class,
+                () -> registro.executa("chave-1", new CriaPedidoDTO(7894900011517L, "71622958004", 200L), () -> execucoes.incrementAndGet() == 1 ? ResultadoCriacaoEnum.CRIADO : ResultadoCriacaoEnum.RECUSADO)
+        );
+        Assertions.assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    public void executa_chaveReservadaPorOutraInstanciaComOutroCorpo_recusaSemExecutar() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+        var hashDeOutroCorpo = "0".repeat(64);
+
+        Mockito.when(repository.reserva(Mockito.eq("chave-1"), Mockito.any(), Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("chave duplicada"));
+        Mockito.when(repository.findById("chave-1"))
+                .thenReturn(Optional.of(new IdempotenciaEntity("chave-1", hashDeOutroCorpo, true, LocalDateTime.now())));
+
+        // execução
+        // avaliação
+        Assertions.assertThrows(
+                IdempotenciaComOutroCorpoException.class,
+                () -> registro.executa("chave-1", CORPO, () -> {
+                    throw new IllegalStateException("nao deveria executar");
+                })
+        );
+    }
+
+    @Test
+    public void executa_criacaoQueFalhou_respondeFalseSemRegistrarResultado() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+
+        var falhou = registro.executa("chave-1", CORPO, () -> ResultadoCriacaoEnum.FALHOU);
+
+        // execução
+        var criou = registro.executa("chave-1", CORPO, () -> ResultadoCriacaoEnum.CRIADO);
+
+        // avaliação
+        Assertions.assertFalse(falhou);
+        Assertions.assertTrue(criou);
+        verify(repository, times(1)).deleteById("chave-1");
+        verify(repository, times(0)).registraResultado("chave-1", false);
+        verify(repository, times(1)).registraResultado("chave-1", true);
+    }
+
+    @Test
+    public void executa_falhaNaPrimeira_liberaAChaveParaNovaTentativa() {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+
+        Assertions.assertThrows(
+                ServicoIndisponivelException.class,
+                () -> registro.executa("chave-1", CORPO, () -> {
+                    throw new ServicoIndisponivelException("produto", null);
+                })
+        );
+
+        // execução
+        var criou = registro.executa("chave-1", CORPO, () -> ResultadoCriacaoEnum.CRIADO);
+
+        // avaliação
+        Assertions.assertTrue(criou);
+        verify(repository, times(1)).deleteById("chave-1");
+        verify(repository, times(1)).registraResultado("chave-1", true);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {
+            "",
+            " ",
+            "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"
+    })
+    public void executa_chaveInvalida(String chave) {
+        // preparação
+        var repository = Mockito.mock(IdempotenciaRepository.class);
+        var registro = new RegistroIdempotencia(repository, Duration.ofHours(24), Duration.ofMinutes(1), 1000L, 1000L);
+
+        // execução
+        // avaliação
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> registro.executa(chave, CORPO, () -> ResultadoCriacaoEnum.CRIADO)
+        );
+        verifyNoInteractions(repository);
+    }
+
+}
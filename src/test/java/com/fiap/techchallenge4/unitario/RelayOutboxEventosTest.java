@@ -0,0 +1,293 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.codec.CodificadorEventos;
+import com.fiap.techchallenge4.infrastructure.metricas.MetricasPedido;
+import com.fiap.techchallenge4.infrastructure.model.OutboxEventoEntity;
+import com.fiap.techchallenge4.infrastructure.outbox.EventoRegistradoNoOutbox;
+import com.fiap.techchallenge4.infrastructure.outbox.PublicadorEmLote;
+import com.fiap.techchallenge4.infrastructure.outbox.RelayOutboxEventos;
+import com.fiap.techchallenge4.infrastructure.repository.OutboxEventoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+public class RelayOutboxEventosTest {
+
+    @Test
+    public void publicaPendentes_marcaComoEnviadosOsConfirmadosPeloBroker() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(
+                        this.evento(1L, "produto-atualiza-estoque"),
+                        this.evento(2L, "logistica-prepara-entrega")
+                ));
+
+        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> this.confirma(invocacao.getArgument(1), true));
+
+        var relay = this.criaRelay(repository, streamBridge);
+
+        // execução
+        relay.publicaPendentes();
+
+        // avaliação
+        verify(streamBridge, times(2)).send(Mockito.any(), Mockito.any());
+        verify(repository, times(1)).marcaComoEnviados(Mockito.eq(List.of(1L, 2L)), Mockito.any());
+        verify(repository, times(0)).incrementaTentativas(Mockito.any());
+    }
+
+    @Test
+    public void publicaPendentes_mantemPendentesOsRecusadosPeloBroker() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(
+                        this.evento(1L, "produto-atualiza-estoque"),
+                        this.evento(2L, "logistica-prepara-entrega")
+                ));
+
+        Mockito.when(streamBridge.send(Mockito.eq("produto-atualiza-estoque"), Mockito.any()))
+                .thenAnswer(invocacao -> this.confirma(invocacao.getArgument(1), true));
+        Mockito.when(streamBridge.send(Mockito.eq("logistica-prepara-entrega"), Mockito.any()))
+                .thenAnswer(invocacao -> this.confirma(invocacao.getArgument(1), false));
+
+        var relay = this.criaRelay(repository, streamBridge);
+
+        // execução
+        relay.publicaPendentes();
+
+        // avaliação
+        verify(repository, times(1)).marcaComoEnviados(Mockito.eq(List.of(1L)), Mockito.any());
+        verify(repository, times(1)).incrementaTentativas(List.of(2L));
+    }
+
+    @Test
+    public void publicaPendentes_mesmoDestino_publicaUmaMensagemComUmaConfirmacao() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(
+                        this.evento(1L, "produto-atualiza-estoque", "{\"ean\":1}"),
+                        this.evento(2L, "produto-atualiza-estoque", "{\"ean\":2}"),
+                        this.evento(3L, "produto-atualiza-estoque", "{\"ean\":3}")
+                ));
+
+        var mensagens = new ArrayList<Message<?>>();
+        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    mensagens.add(invocacao.getArgument(1));
+                    return this.confirma(invocacao.getArgument(1), true);
+                });
+
+        var relay = this.criaRelay(repository, streamBridge);
+
+        // execução
+        relay.publicaPendentes();
+
+        // avaliação
+        verify(streamBridge, times(1)).send(Mockito.eq("produto-atualiza-estoque"), Mockito.any());
+        verify(repository, times(1)).marcaComoEnviados(Mockito.eq(List.of(1L, 2L, 3L)), Mockito.any());
+        Assertions.assertEquals(List.of("{\"ean\":1}", "{\"ean\":2}", "{\"ean\":3}"), this.desfazLote(mensagens.get(0)));
+    }
+
+    @Test
+    public void publicaPendentes_mesmoDestinoRecusado_devolveTodosOsEventosDaMensagem() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(
+                        this.evento(1L, "produto-atualiza-estoque"),
+                        this.evento(2L, "produto-atualiza-estoque")
+                ));
+
+        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> this.confirma(invocacao.getArgument(1), false));
+
+        var relay = this.criaRelay(repository, streamBridge);
+
+        // execução
+        relay.publicaPendentes();
+
+        // avaliação
+        verify(streamBridge, times(1)).send(Mockito.any(), Mockito.any());
+        verify(repository, times(1)).incrementaTentativas(List.of(1L, 2L));
+        verify(repository, times(0)).marcaComoEnviados(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void publicaPendentes_reservaOLoteAntesDePublicar() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(
+                        this.evento(1L, "produto-atualiza-estoque"),
+                        this.evento(2L, "logistica-prepara-entrega")
+                ));
+
+        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> this.confirma(invocacao.getArgument(1), true));
+
+        var relay = this.criaRelay(repository, streamBridge);
+
+        // execução
+        relay.publicaPendentes();
+
+        // avaliação
+        var ordem = Mockito.inOrder(repository, streamBridge);
+        ordem.verify(repository).reserva(Mockito.eq(List.of(1L, 2L)), Mockito.any());
+        ordem.verify(streamBridge, times(2)).send(Mockito.any(), Mockito.any());
+        ordem.verify(repository).marcaComoEnviados(Mockito.eq(List.of(1L, 2L)), Mockito.any());
+    }
+
+    @Test
+    public void publicaPendentes_semConfirmacaoNoPrazo_devolveParaReenvioNoProximoCiclo() throws InterruptedException {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(this.evento(1L, "produto-atualiza-estoque")))
+                .thenReturn(List.of());
+
+        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+
+        var relay = this.criaRelay(repository, streamBridge, 10L);
+
+        // execução
+        relay.publicaPendentes();
+        Thread.sleep(200);
+        relay.publicaPendentes();
+
+        // avaliação
+        verify(repository, times(1)).incrementaTentativas(List.of(1L));
+        verify(repository, times(0)).marcaComoEnviados(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void eventoRegistrado_publicaSemEsperarOCicloAgendado() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        Mockito.when(repository.buscaPendentes(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(
+                        this.evento(1L, "produto-atualiza-estoque"),
+                        this.evento(2L, "logistica-prepara-entrega")
+                ));
+
+        Mockito.when(streamBridge.send(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> this.confirma(invocacao.getArgument(1), true));
+
+        var relay = this.criaRelay(repository, streamBridge);
+
+        // execução
+        relay.eventoRegistrado(new EventoRegistradoNoOutbox("produto-atualiza-estoque"));
+        relay.eventoRegistrado(new EventoRegistradoNoOutbox("logistica-prepara-entrega"));
+
+        // avaliação
+        verify(streamBridge, timeout(2000).times(2)).send(Mockito.any(), Mockito.any());
+        verify(repository, timeout(2000).times(1)).marcaComoEnviados(Mockito.eq(List.of(1L, 2L)), Mockito.any());
+        relay.close();
+    }
+
+    @Test
+    public void publicaPendentes_desabilitadoNaoPublica() {
+        // preparação
+        var repository = Mockito.mock(OutboxEventoRepository.class);
+        var streamBridge = Mockito.mock(StreamBridge.class);
+
+        var metricas = new MetricasPedido(new SimpleMeterRegistry());
+        var relay = new RelayOutboxEventos(repository, new PublicadorEmLote(streamBridge, new CodificadorEventos(Set.of()), metricas, true, 1000L, 262144),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), metricas, false, 100, 5L,
+                Duration.ofSeconds(30), Duration.ofDays(1));
+
+        // execução
+        relay.publicaPendentes();
+
+        // avaliação
+        verifyNoInteractions(repository);
+        verifyNoInteractions(streamBridge);
+    }
+
+    private RelayOutboxEventos criaRelay(final OutboxEventoRepository repository,
+                                         final StreamBridge streamBridge) {
+        return this.criaRelay(repository, streamBridge, 1000L);
+    }
+
+    private RelayOutboxEventos criaRelay(final OutboxEventoRepository repository,
+                                         final StreamBridge streamBridge,
+                                         final long timeoutConfirmacao) {
+        var metricas = new MetricasPedido(new SimpleMeterRegistry());
+        return new RelayOutboxEventos(repository, new PublicadorEmLote(streamBridge, new CodificadorEventos(Set.of()), metricas, true, timeoutConfirmacao, 262144),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), metricas, true, 100, 5L,
+                Duration.ofSeconds(30), Duration.ofDays(1));
+    }
+
+    private OutboxEventoEntity evento(final Long id,
+                                      final String destino) {
+        return this.evento(id, destino, "{}");
+    }
+
+    private OutboxEventoEntity evento(final Long id,
+                                      final String destino,
+                                      final String payload) {
+        return new OutboxEventoEntity(
+                id,
+                destino,
+                payload,
+                0,
+                LocalDateTime.now(),
+                null,
+                null
+        );
+    }
+
+    private boolean confirma(final Message<?> mensagem,
+                             final boolean ack) {
+        final var confirmacao = (CorrelationData) mensagem.getHeaders().get(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION);
+        confirmacao.getFuture().complete(new CorrelationData.Confirm(ack, null));
+        return true;
+    }
+
+    private List<String> desfazLote(final Message<?> mensagem) {
+        final var propriedades = new MessageProperties();
+        propriedades.setHeader(MessageProperties.SPRING_BATCH_FORMAT, mensagem.getHeaders().get(MessageProperties.SPRING_BATCH_FORMAT));
+        final var lote = new org.springframework.amqp.core.Message((byte[]) mensagem.getPayload(), propriedades);
+        final var payloads = new ArrayList<String>();
+        final var agrupador = new SimpleBatchingStrategy(0, 0, 0L);
+        Assertions.assertTrue(agrupador.canDebatch(propriedades));
+        agrupador.deBatch(lote, parte -> payloads.add(new String(parte.getBody(), StandardCharsets.UTF_8)));
+        return payloads;
+    }
+
+}
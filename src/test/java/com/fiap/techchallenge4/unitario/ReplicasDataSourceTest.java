@@ -0,0 +1,109 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraNoPrimario;
+import com.fiap.techchallenge4.infrastructure.datasource.ReplicasDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class ReplicasDataSourceTest {
+
+    @Test
+    public void getConnection_repassaEntreAsReplicas() throws SQLException {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica1 = Mockito.mock(DataSource.class);
+        var replica2 = Mockito.mock(DataSource.class);
+        var conexao1 = Mockito.mock(Connection.class);
+        var conexao2 = Mockito.mock(Connection.class);
+
+        Mockito.when(replica1.getConnection()).thenReturn(conexao1);
+        Mockito.when(replica2.getConnection()).thenReturn(conexao2);
+
+        var dataSource = new ReplicasDataSource(primario, List.of(replica1, replica2), Duration.ofSeconds(30));
+
+        // execução
+        var primeira = dataSource.getConnection();
+        var segunda = dataSource.getConnection();
+
+        // avaliação
+        Assertions.assertNotSame(primeira, segunda);
+        verify(primario, times(0)).getConnection();
+    }
+
+    @Test
+    public void getConnection_replicaFora_usaAOutraEDepoisOPrimario() throws SQLException {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var conexaoPrimario = Mockito.mock(Connection.class);
+
+        Mockito.when(replica.getConnection()).thenThrow(new SQLException("replica fora"));
+        Mockito.when(primario.getConnection()).thenReturn(conexaoPrimario);
+
+        var dataSource = new ReplicasDataSource(primario, List.of(replica), Duration.ofSeconds(30));
+
+        // execução
+        var primeira = dataSource.getConnection();
+        var segunda = dataSource.getConnection();
+
+        // avaliação
+        Assertions.assertSame(conexaoPrimario, primeira);
+        Assertions.assertSame(conexaoPrimario, segunda);
+        // em quarentena a replica nao e tentada de novo
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    public void getConnection_leituraNoPrimario_ignoraAsReplicas() throws SQLException {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var conexaoPrimario = Mockito.mock(Connection.class);
+
+        Mockito.when(primario.getConnection()).thenReturn(conexaoPrimario);
+
+        var dataSource = new ReplicasDataSource(primario, List.of(replica), Duration.ofSeconds(30));
+
+        // execução
+        var conexao = LeituraNoPrimario.executa(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // avaliação
+        Assertions.assertSame(conexaoPrimario, conexao);
+        verify(replica, times(0)).getConnection();
+    }
+
+    @Test
+    public void getConnectionComCredenciais_repassaParaAReplica() throws SQLException {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var conexaoReplica = Mockito.mock(Connection.class);
+
+        Mockito.when(replica.getConnection("leitor", "senha")).thenReturn(conexaoReplica);
+
+        var dataSource = new ReplicasDataSource(primario, List.of(replica), Duration.ofSeconds(30));
+
+        // execução
+        var conexao = dataSource.getConnection("leitor", "senha");
+
+        // avaliação
+        Assertions.assertSame(conexaoReplica, conexao);
+        verify(primario, times(0)).getConnection("leitor", "senha");
+    }
+
+}
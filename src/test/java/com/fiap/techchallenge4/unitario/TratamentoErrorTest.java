@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.controller.TratamentoError;
+import com.fiap.techchallenge4.infrastructure.idempotencia.IdempotenciaEmAndamentoException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+public class TratamentoErrorTest {
+
+    @Test
+    public void trataIdempotenciaEmAndamento_responde503ComRetryAfter() {
+        // preparação
+        var tratamento = new TratamentoError();
+
+        // execução
+        var resposta = tratamento.trataIdempotenciaEmAndamento(new IdempotenciaEmAndamentoException());
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+        Assertions.assertEquals(TratamentoError.SEGUNDOS_PARA_NOVA_TENTATIVA, resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals("REQUISICAO COM ESSA IDEMPOTENCY-KEY AINDA EM ANDAMENTO!", resposta.getBody());
+    }
+
+}
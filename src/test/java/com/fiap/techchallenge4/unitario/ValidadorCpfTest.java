@@ -0,0 +1,71 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.ValidadorCpf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ValidadorCpfTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "71622958004, 71622958004",
+            "716.229.580-04, 71622958004",
+            "716229580-04, 71622958004",
+            "716.229.58004, 71622958004",
+            "12345678909, 12345678909",
+            "529.982.247-25, 52998224725"
+    })
+    public void normaliza_cpfValido_retornaOs11Digitos(String cpf,
+                                                       String esperado) {
+        // execução
+        var normalizado = ValidadorCpf.normaliza(cpf);
+
+        // avaliação
+        Assertions.assertEquals(esperado, normalizado);
+        Assertions.assertTrue(ValidadorCpf.valido(cpf));
+    }
+
+    @Test
+    public void normaliza_cpfSemPontuacao_retornaAMesmaInstancia() {
+        // preparação
+        var cpf = "71622958004";
+
+        // execução
+        var normalizado = ValidadorCpf.normaliza(cpf);
+
+        // avaliação
+        Assertions.assertSame(cpf, normalizado);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            " ",
+            "teste",
+            "1234567891",
+            "123456789123",
+            "12345678901",
+            "71622958005",
+            "71622958014",
+            "00000000000",
+            "11111111111",
+            "716..229580-04",
+            "716.229.580.04",
+            "7162.29.580-04",
+            "716.229-580.04",
+            ".71622958004",
+            "71622958004-",
+            "716 229 580 04",
+            "716.229.580-0a"
+    })
+    public void normaliza_cpfInvalido_retornaNulo(String cpf) {
+        // execução e avaliação
+        Assertions.assertNull(ValidadorCpf.normaliza(cpf));
+        Assertions.assertFalse(ValidadorCpf.valido(cpf));
+    }
+
+}